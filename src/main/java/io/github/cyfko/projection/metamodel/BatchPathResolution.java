@@ -0,0 +1,56 @@
+package io.github.cyfko.projection.metamodel;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of translating a selection of DTO projection paths with
+ * {@link ProjectionRegistry#tryToEntityPaths(java.util.Collection, Class, boolean)}.
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * BatchPathResolution batch = ProjectionRegistry.tryToEntityPaths(
+ *         List.of("name", "orders.id", "orders.amount", "fullName"), UserDTO.class, false);
+ *
+ * batch.resolutions();  // one PathResolution per requested path, in request order
+ * batch.entityFields(); // ["username", "orders.id", "orders.totalAmount", "firstName", "lastName"]
+ * }
+ * </pre>
+ *
+ * @param resolutions  the resolution of every requested path, in request order
+ * @param entityFields the deduplicated entity paths to fetch for the resolved DTO paths, in first-use order;
+ *                     computed fields contribute each of their dependencies
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public record BatchPathResolution(List<PathResolution> resolutions, Set<String> entityFields) {
+
+    /**
+     * Indicates whether every requested path was translated.
+     *
+     * @return {@code true} if no resolution failed
+     */
+    public boolean isResolved() {
+        for (PathResolution resolution : resolutions) {
+            if (!resolution.isResolved()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the translated entity paths, in request order.
+     *
+     * @return the entity path of every requested path
+     * @throws IllegalArgumentException if a requested path could not be resolved
+     */
+    public List<String> entityPaths() {
+        return resolutions.stream()
+                .map(resolution -> resolution.toOptional().orElseThrow(() -> new IllegalArgumentException(
+                        "\"" + resolution.failingSegment() + "\" does not resolve to a valid projection field: "
+                                + resolution.reason())))
+                .toList();
+    }
+}
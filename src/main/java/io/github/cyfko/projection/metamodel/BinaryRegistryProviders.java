@@ -0,0 +1,427 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.util.BinaryRegistryFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes the binary registry resources written by the annotation processor when
+ * {@code -Aprojection.metamodel.registryFormat=binary} is set (see {@link BinaryRegistryFormat}).
+ * <p>
+ * Every resource found on the class path yields one provider, so that modules compiled separately each
+ * contribute theirs; the registries merge them with the generated providers (see
+ * {@link MergedRegistryProviders}). A resource is read in bulk into a {@link ByteBuffer}: projections are
+ * decoded at once, since the projection registry is needed as a whole, while entities and embeddables
+ * are decoded on first lookup from the record offsets of the leading directory.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+final class BinaryRegistryProviders {
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "boolean", boolean.class, "byte", byte.class, "char", char.class, "short", short.class,
+            "int", int.class, "long", long.class, "float", float.class, "double", double.class,
+            "void", void.class);
+
+    private BinaryRegistryProviders() {
+    }
+
+    /**
+     * Decodes every binary projection registry visible from the thread context class loader.
+     *
+     * @return one provider per resource, in class path order
+     * @throws IllegalStateException if a resource cannot be read or decoded
+     */
+    static List<ProjectionMetadataRegistryProvider> projections() {
+        ClassLoader loader = contextClassLoader();
+        List<ProjectionMetadataRegistryProvider> providers = new ArrayList<>();
+        for (Decoder decoder : decoders(loader, BinaryRegistryFormat.PROJECTION_RESOURCE)) {
+            providers.add(decodeProjections(decoder));
+        }
+        return providers;
+    }
+
+    /**
+     * Indexes every binary persistence registry visible from the thread context class loader.
+     *
+     * @return one provider per resource, in class path order
+     * @throws IllegalStateException if a resource cannot be read or decoded
+     */
+    static List<PersistenceMetadataRegistryProvider> persistence() {
+        ClassLoader loader = contextClassLoader();
+        List<PersistenceMetadataRegistryProvider> providers = new ArrayList<>();
+        for (Decoder decoder : decoders(loader, BinaryRegistryFormat.PERSISTENCE_RESOURCE)) {
+            providers.add(new BinaryPersistenceProvider(decoder));
+        }
+        return providers;
+    }
+
+    private static ClassLoader contextClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : BinaryRegistryProviders.class.getClassLoader();
+    }
+
+    private static List<Decoder> decoders(ClassLoader loader, String resource) {
+        List<Decoder> decoders = new ArrayList<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(resource);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (InputStream in = url.openStream()) {
+                    decoders.add(new Decoder(url, ByteBuffer.wrap(in.readAllBytes()), loader));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read binary registry resource " + resource, e);
+        }
+        return decoders;
+    }
+
+    private static ProjectionMetadataRegistryProvider decodeProjections(Decoder decoder) {
+        Map<Class<?>, ProjectionMetadata> metadata = new HashMap<>();
+        Map<Class<?>, Map<String, String>> entityPaths = new HashMap<>();
+        Map<Class<?>, ProjectionQuery> queries = new HashMap<>();
+
+        int projectionCount = decoder.readInt();
+        for (int p = 0; p < projectionCount; p++) {
+            Class<?> dtoClass = decoder.readClass();
+            Class<?> entityClass = decoder.readClass();
+
+            DirectMapping[] directMappings = new DirectMapping[decoder.readInt()];
+            for (int i = 0; i < directMappings.length; i++) {
+                String dtoField = decoder.readString();
+                String entityField = decoder.readString();
+                Class<?> dtoFieldType = decoder.readClass();
+                Optional<DirectMapping.CollectionMetadata> collection = decoder.readByte() == 0
+                        ? Optional.empty()
+                        : Optional.of(DirectMapping.CollectionMetadata.of(
+                                CollectionKind.values()[decoder.readByte()],
+                                CollectionType.values()[decoder.readByte()]));
+                directMappings[i] = new DirectMapping(dtoField, entityField, dtoFieldType, collection);
+            }
+
+            ComputedField[] computedFields = new ComputedField[decoder.readInt()];
+            for (int i = 0; i < computedFields.length; i++) {
+                String dtoField = decoder.readString();
+                String[] dependencies = new String[decoder.readInt()];
+                for (int d = 0; d < dependencies.length; d++) {
+                    dependencies[d] = decoder.readString();
+                }
+                ComputedField.ReducerMapping[] reducers = new ComputedField.ReducerMapping[decoder.readInt()];
+                for (int r = 0; r < reducers.length; r++) {
+                    reducers[r] = new ComputedField.ReducerMapping(decoder.readInt(), decoder.readString());
+                }
+                computedFields[i] = new ComputedField(dtoField, dependencies, reducers,
+                        decoder.readOptionalClass(), decoder.readString());
+            }
+
+            ComputationProvider[] computers = new ComputationProvider[decoder.readInt()];
+            for (int i = 0; i < computers.length; i++) {
+                computers[i] = new ComputationProvider(decoder.readClass(), decoder.readString());
+            }
+
+            int pathCount = decoder.readInt();
+            if (pathCount > 0) {
+                Map<String, String> paths = new LinkedHashMap<>();
+                for (int i = 0; i < pathCount; i++) {
+                    paths.put(decoder.readString(), decoder.readString());
+                }
+                entityPaths.put(dtoClass, Map.copyOf(paths));
+            }
+
+            String tupleQuery = decoder.readString();
+            String constructorQuery = decoder.readString();
+            List<String> selectedPaths = new ArrayList<>();
+            for (int i = decoder.readInt(); i > 0; i--) {
+                selectedPaths.add(decoder.readString());
+            }
+            List<String> collectionPaths = new ArrayList<>();
+            for (int i = decoder.readInt(); i > 0; i--) {
+                collectionPaths.add(decoder.readString());
+            }
+            queries.put(dtoClass, new ProjectionQuery(tupleQuery, constructorQuery, selectedPaths, collectionPaths));
+
+            metadata.put(dtoClass, new ProjectionMetadata(entityClass, directMappings, computedFields, computers));
+        }
+
+        Map<Class<?>, ProjectionMetadata> decodedMetadata = Map.copyOf(metadata);
+        Map<Class<?>, Map<String, String>> decodedEntityPaths = Map.copyOf(entityPaths);
+        Map<Class<?>, ProjectionQuery> decodedQueries = Map.copyOf(queries);
+        return new ProjectionMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, ProjectionMetadata> getProjectionMetadataRegistry() {
+                return decodedMetadata;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, String>> getEntityPathRegistry() {
+                return decodedEntityPaths;
+            }
+
+            @Override
+            public Map<Class<?>, ProjectionQuery> getProjectionQueryRegistry() {
+                return decodedQueries;
+            }
+        };
+    }
+
+    /**
+     * Persistence provider decoding each class of a binary resource on first lookup.
+     */
+    private static final class BinaryPersistenceProvider implements PersistenceMetadataRegistryProvider {
+
+        private final Decoder decoder;
+        private final Map<String, Integer> entityOffsets = new HashMap<>();
+        private final Map<String, Integer> embeddableOffsets = new HashMap<>();
+        private final Map<String, DecodedClass> decoded = new ConcurrentHashMap<>();
+        private final Map<PersistenceMetadata, PersistenceMetadata> shared = new ConcurrentHashMap<>();
+        private volatile Registries registries;
+
+        BinaryPersistenceProvider(Decoder decoder) {
+            this.decoder = decoder;
+
+            int classCount = decoder.readInt();
+            String[] names = new String[classCount];
+            int[] kinds = new int[classCount];
+            int[] lengths = new int[classCount];
+            for (int i = 0; i < classCount; i++) {
+                names[i] = decoder.readString();
+                kinds[i] = decoder.readByte();
+                lengths[i] = decoder.readInt();
+            }
+
+            int offset = decoder.position();
+            for (int i = 0; i < classCount; i++) {
+                (kinds[i] == BinaryRegistryFormat.KIND_ENTITY ? entityOffsets : embeddableOffsets).put(names[i], offset);
+                offset += lengths[i];
+            }
+        }
+
+        @Override
+        public Map<String, PersistenceMetadata> findEntityMetadata(Class<?> entityClass) {
+            DecodedClass decodedClass = find(entityOffsets, entityClass);
+            return decodedClass != null ? decodedClass.fields() : null;
+        }
+
+        @Override
+        public Map<String, PersistenceMetadata> findEmbeddableMetadata(Class<?> embeddableClass) {
+            DecodedClass decodedClass = find(embeddableOffsets, embeddableClass);
+            return decodedClass != null ? decodedClass.fields() : null;
+        }
+
+        @Override
+        public List<String> findIdFields(Class<?> entityClass) {
+            DecodedClass decodedClass = find(entityOffsets, entityClass);
+            return decodedClass != null && !decodedClass.idFields().isEmpty() ? decodedClass.idFields() : null;
+        }
+
+        @Override
+        public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+            return registries().entities();
+        }
+
+        @Override
+        public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+            return registries().embeddables();
+        }
+
+        @Override
+        public Map<Class<?>, List<String>> getIdFieldsRegistry() {
+            return registries().idFields();
+        }
+
+        private DecodedClass find(Map<String, Integer> offsets, Class<?> type) {
+            Integer offset = offsets.get(type.getName());
+            if (offset == null) {
+                return null;
+            }
+            DecodedClass decodedClass = decode(type.getName(), offset);
+            // A homonym from another class loader is not described by this resource
+            return decodedClass.type() == type ? decodedClass : null;
+        }
+
+        private DecodedClass decode(String name, int offset) {
+            return decoded.computeIfAbsent(name, n -> {
+                Decoder record = decoder.at(offset);
+                Class<?> type = decoder.resolve(n);
+
+                List<String> idFields = new ArrayList<>();
+                int idFieldCount = record.readInt();
+                for (int i = 0; i < idFieldCount; i++) {
+                    idFields.add(record.readString());
+                }
+
+                Map<String, PersistenceMetadata> fields = new LinkedHashMap<>();
+                int fieldCount = record.readInt();
+                for (int i = 0; i < fieldCount; i++) {
+                    String field = record.readString();
+                    int flags = record.readByte();
+                    Class<?> relatedType = record.readClass();
+                    Optional<String> mappedIdField = (flags & BinaryRegistryFormat.FLAG_MAPPED_ID) != 0
+                            ? Optional.of(record.readString())
+                            : Optional.empty();
+                    Optional<CollectionMetadata> collection = (flags & BinaryRegistryFormat.FLAG_COLLECTION) != 0
+                            ? Optional.of(new CollectionMetadata(
+                                    CollectionKind.values()[record.readByte()],
+                                    CollectionType.values()[record.readByte()],
+                                    Optional.ofNullable(record.readString()),
+                                    Optional.ofNullable(record.readString())))
+                            : Optional.empty();
+                    PersistenceMetadata metadata = new PersistenceMetadata(
+                            (flags & BinaryRegistryFormat.FLAG_ID) != 0, relatedType, mappedIdField, collection);
+                    PersistenceMetadata existing = shared.putIfAbsent(metadata, metadata);
+                    fields.put(field, existing != null ? existing : metadata);
+                }
+                return new DecodedClass(type, Collections.unmodifiableMap(fields), List.copyOf(idFields));
+            });
+        }
+
+        private Registries registries() {
+            Registries result = registries;
+            if (result == null) {
+                synchronized (this) {
+                    result = registries;
+                    if (result == null) {
+                        registries = result = decodeAll();
+                    }
+                }
+            }
+            return result;
+        }
+
+        private Registries decodeAll() {
+            Map<Class<?>, Map<String, PersistenceMetadata>> entities = new HashMap<>();
+            Map<Class<?>, Map<String, PersistenceMetadata>> embeddables = new HashMap<>();
+            Map<Class<?>, List<String>> idFields = new HashMap<>();
+            entityOffsets.forEach((name, offset) -> {
+                DecodedClass decodedClass = decode(name, offset);
+                entities.put(decodedClass.type(), decodedClass.fields());
+                if (!decodedClass.idFields().isEmpty()) {
+                    idFields.put(decodedClass.type(), decodedClass.idFields());
+                }
+            });
+            embeddableOffsets.forEach((name, offset) -> {
+                DecodedClass decodedClass = decode(name, offset);
+                embeddables.put(decodedClass.type(), decodedClass.fields());
+            });
+            return new Registries(Map.copyOf(entities), Map.copyOf(embeddables), Map.copyOf(idFields));
+        }
+    }
+
+    private record DecodedClass(Class<?> type, Map<String, PersistenceMetadata> fields, List<String> idFields) {
+    }
+
+    private record Registries(Map<Class<?>, Map<String, PersistenceMetadata>> entities,
+                              Map<Class<?>, Map<String, PersistenceMetadata>> embeddables,
+                              Map<Class<?>, List<String>> idFields) {
+    }
+
+    /**
+     * Cursor over a binary registry resource. The string table is decoded once and shared by the cursors
+     * created with {@link #at(int)}.
+     */
+    private static final class Decoder {
+        private final URL url;
+        private final ByteBuffer buffer;
+        private final ClassLoader loader;
+        private final String[] strings;
+
+        Decoder(URL url, ByteBuffer buffer, ClassLoader loader) {
+            this.url = url;
+            this.buffer = buffer;
+            this.loader = loader;
+
+            if (buffer.remaining() < 8 || buffer.getInt() != BinaryRegistryFormat.MAGIC) {
+                throw new IllegalStateException(url + " is not a binary registry resource");
+            }
+            int version = buffer.getInt();
+            if (version != BinaryRegistryFormat.VERSION) {
+                throw new IllegalStateException("Unsupported binary registry version " + version + " in " + url
+                        + ": recompile it with this version of the annotation processor");
+            }
+
+            strings = new String[buffer.getInt()];
+            byte[] array = buffer.array();
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                strings[i] = new String(array, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+        }
+
+        private Decoder(Decoder parent, int offset) {
+            this.url = parent.url;
+            this.buffer = parent.buffer.duplicate().position(offset);
+            this.loader = parent.loader;
+            this.strings = parent.strings;
+        }
+
+        Decoder at(int offset) {
+            return new Decoder(this, offset);
+        }
+
+        int position() {
+            return buffer.position();
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        int readByte() {
+            return buffer.get();
+        }
+
+        String readString() {
+            int index = buffer.getInt();
+            return index == BinaryRegistryFormat.NO_STRING ? null : strings[index];
+        }
+
+        Class<?> readClass() {
+            return resolve(readString());
+        }
+
+        Class<?> readOptionalClass() {
+            String name = readString();
+            return name != null ? resolve(name) : null;
+        }
+
+        Class<?> resolve(String name) {
+            Class<?> primitive = PRIMITIVES.get(name);
+            if (primitive != null) {
+                return primitive;
+            }
+            try {
+                return Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Class " + name + " described by " + url + " not found", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.cyfko.projection.metamodel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache holding at most a fixed number of entries, evicting the least frequently used ones.
+ * <p>
+ * Reads never take a lock: a hit is a single {@link ConcurrentHashMap#get(Object)} followed by a bump of
+ * the entry frequency. The frequency is a saturating counter updated without synchronization, so
+ * concurrent hits may occasionally be lost; it only needs to be approximately right to rank entries.
+ * </p>
+ * <p>
+ * When an insertion makes the cache exceed its maximum size, the inserting thread evicts a batch of
+ * entries (a tenth of the capacity) with the lowest frequencies, the oldest first among equals.
+ * Evictions are performed by one thread at a time; other writers do not wait for it, so the cache may
+ * briefly hold a few entries more than its maximum size. Batching keeps the amortized eviction cost
+ * logarithmic.
+ * </p>
+ * <p>
+ * Every {@code 10 * maxSize} lookups, the next eviction also halves the frequency of the surviving
+ * entries, so that entries popular in the past do not stay pinned forever (aging).
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+final class BoundedCache<K, V> {
+
+    private static final int MAX_FREQUENCY = 255;
+
+    private final int maxSize;
+    private final int evictionBatchSize;
+    private final long agingPeriod;
+    private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong insertions = new AtomicLong();
+    private long lookupsAtLastAging; // guarded by evictionLock
+
+    /**
+     * Creates a cache holding at most {@code maxSize} entries.
+     *
+     * @param maxSize the maximum number of entries, must be positive
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    BoundedCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be > 0, got " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.evictionBatchSize = Math.max(1, maxSize / 10);
+        this.agingPeriod = 10L * maxSize;
+    }
+
+    /**
+     * Returns the value cached for the given key, recording a hit or a miss.
+     *
+     * @param key the key to look up
+     * @return the cached value, or {@code null} if absent
+     */
+    V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        node.touch();
+        return node.value;
+    }
+
+    /**
+     * Returns the value cached for the given key, computing and caching it on a miss.
+     * <p>
+     * The value is computed outside of any lock, so concurrent misses on the same key may compute it
+     * several times; the first stored value wins. Exceptions thrown by {@code loader} are propagated and
+     * nothing is cached.
+     * </p>
+     *
+     * @param key    the key to look up
+     * @param loader computes the value of a missing key, must not return {@code null}
+     * @return the cached or computed value
+     */
+    V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        return value != null ? value : put(key, loader.apply(key));
+    }
+
+    /**
+     * Caches a value unless the key is already present, evicting entries if the maximum size is exceeded.
+     *
+     * @param key   the key
+     * @param value the value, must not be {@code null}
+     * @return the value now associated with the key
+     */
+    V put(K key, V value) {
+        Node<V> existing = entries.putIfAbsent(key, new Node<>(value, insertions.getAndIncrement()));
+        if (existing != null) {
+            return existing.value;
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entry. Statistics are kept.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return the current statistics
+     */
+    CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxSize);
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return; // another thread is already making room
+        }
+        try {
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) {
+                return;
+            }
+
+            List<Map.Entry<K, Node<V>>> snapshot = new ArrayList<>(entries.entrySet());
+            snapshot.sort(Comparator.<Map.Entry<K, Node<V>>>comparingInt(e -> e.getValue().frequency)
+                    .thenComparingLong(e -> e.getValue().insertion));
+
+            int toEvict = Math.min(snapshot.size(), Math.max(excess, evictionBatchSize));
+            for (int i = 0; i < toEvict; i++) {
+                Map.Entry<K, Node<V>> victim = snapshot.get(i);
+                if (entries.remove(victim.getKey(), victim.getValue())) {
+                    evictions.increment();
+                }
+            }
+
+            long lookups = hits.sum() + misses.sum();
+            if (lookups - lookupsAtLastAging >= agingPeriod) {
+                lookupsAtLastAging = lookups;
+                for (int i = toEvict; i < snapshot.size(); i++) {
+                    snapshot.get(i).getValue().age();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Node<V> {
+        final V value;
+        final long insertion;
+        int frequency;
+
+        Node(V value, long insertion) {
+            this.value = value;
+            this.insertion = insertion;
+        }
+
+        void touch() {
+            if (frequency < MAX_FREQUENCY) {
+                frequency++;
+            }
+        }
+
+        void age() {
+            frequency >>>= 1;
+        }
+    }
+}
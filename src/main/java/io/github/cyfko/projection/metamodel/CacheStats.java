@@ -0,0 +1,29 @@
+package io.github.cyfko.projection.metamodel;
+
+/**
+ * Snapshot of the statistics of a bounded registry cache, such as the path cache of
+ * {@link ProjectionRegistry}.
+ * <p>
+ * Counters are cumulative since class loading and are not reset when the cache is cleared.
+ * </p>
+ *
+ * @param hits      number of lookups served from the cache
+ * @param misses    number of lookups that had to compute their value
+ * @param evictions number of entries removed to honour the maximum size
+ * @param size      number of entries currently cached
+ * @param maxSize   maximum number of entries the cache holds
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public record CacheStats(long hits, long misses, long evictions, long size, long maxSize) {
+
+    /**
+     * Returns the ratio of lookups served from the cache.
+     *
+     * @return the hit rate in {@code [0, 1]}, or {@code 0} if no lookup happened yet
+     */
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,398 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Loads an entity collection of a projection for a whole page of parents at once, instead of fetch joining
+ * it (which multiplies the parent rows) or loading it lazily for each parent (N+1 queries).
+ * <p>
+ * A loader runs one JPQL query per batch of parent ids, selecting the paths required by the element
+ * projection along with the id of the parent each row belongs to, then groups the rows by parent id. When
+ * the collection is mapped by a single-valued field of the element entity, the parent id is read through
+ * that field without joining the parent:
+ * </p>
+ * <pre>
+ * SELECT e.user.id, e.id, e.totalAmount FROM Order e WHERE e.user.id IN :parentIds
+ * </pre>
+ * <p>
+ * Otherwise (unidirectional or many-to-many collections), the elements are reached from the parent:
+ * {@code SELECT p.id, e.id, ... FROM User p JOIN p.orders e WHERE p.id IN :parentIds}. An {@code @OrderBy}
+ * declared on the collection is applied, so that each group keeps the order of the collection.
+ * </p>
+ * <p>
+ * Rows are {@code Object[]} following {@link #selectedPaths()}, which start with the identifier fields of the
+ * element entity. Collections of the element projection are loaded one level at a time by the
+ * {@link #nested(String) nested loaders}, with the element ids read by {@link #idOf(Object[])}, so a projection
+ * costs one query per collection level and batch, whatever the number of parents.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * CollectionLoader orders = CollectionLoader.of(UserDTO.class, "orders");
+ * orders.loadInto(em, users, UserDTO::getId, (user, rows) -> user.setOrders(rows.stream().map(OrderDTO::of).toList()));
+ * }
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class CollectionLoader {
+
+    /**
+     * System property setting the default maximum number of parent ids bound to a single query.
+     */
+    public static final String BATCH_SIZE_PROPERTY = "projection.metamodel.collectionBatchSize";
+
+    /**
+     * Default maximum number of parent ids bound to a single query, which keeps the {@code IN} list within the
+     * bind parameter limits of common databases.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Name of the query parameter bound to the parent ids.
+     */
+    public static final String PARENT_IDS_PARAMETER = "parentIds";
+
+    private static final String PARENT_ALIAS = "p";
+
+    /**
+     * Bounded cache of the loaders planned so far, shared by all projections and sized like the plan cache
+     * (see {@link ProjectionQueryPlan#PLAN_CACHE_MAX_SIZE_PROPERTY}).
+     */
+    private static final BoundedCache<LoaderKey, CollectionLoader> LOADER_CACHE =
+            new BoundedCache<>(ProjectionQueryPlan.readPlanCacheMaxSize());
+
+    private final Class<?> elementClass;
+    private final Class<?> elementDtoClass;
+    private final String query;
+    private final List<String> selectedPaths;
+    private final List<String> nestedFields;
+    private final int batchSize;
+
+    private CollectionLoader(Class<?> elementClass, Class<?> elementDtoClass, String query,
+                             List<String> selectedPaths, List<String> nestedFields, int batchSize) {
+        this.elementClass = elementClass;
+        this.elementDtoClass = elementDtoClass;
+        this.query = query;
+        this.selectedPaths = List.copyOf(selectedPaths);
+        this.nestedFields = List.copyOf(nestedFields);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the loader of an entity collection of a projection, planning it on first request.
+     *
+     * @param dtoClass the projection class, or an entity class for its implicit projection
+     * @param dtoField the DTO field mapped to a collection of entities of the projected entity
+     * @return the cached loader
+     * @throws IllegalArgumentException if the field is not a direct mapping to an entity collection of the
+     *                                  projected entity, or the parent entity has a composite identifier
+     */
+    public static CollectionLoader of(Class<?> dtoClass, String dtoField) {
+        Objects.requireNonNull(dtoClass, "dtoClass cannot be null");
+        Objects.requireNonNull(dtoField, "dtoField cannot be null");
+        return LOADER_CACHE.get(new LoaderKey(dtoClass, dtoField), key -> plan(dtoClass, dtoField));
+    }
+
+    /**
+     * Returns a loader binding at most the given number of parent ids to each query.
+     *
+     * @param batchSize the maximum number of parent ids per query, must be positive
+     * @return a loader running the same query with another batch size
+     * @throws IllegalArgumentException if {@code batchSize} is not positive
+     */
+    public CollectionLoader withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0, got " + batchSize);
+        }
+        return new CollectionLoader(elementClass, elementDtoClass, query, selectedPaths, nestedFields, batchSize);
+    }
+
+    /**
+     * Returns the element entity class of the collection.
+     *
+     * @return the element entity class
+     */
+    public Class<?> elementClass() {
+        return elementClass;
+    }
+
+    /**
+     * Returns the JPQL query run for each batch of parent ids, bound to {@value #PARENT_IDS_PARAMETER}. Its first
+     * item is the parent id, followed by {@link #selectedPaths()}.
+     *
+     * @return the query
+     */
+    public String query() {
+        return query;
+    }
+
+    /**
+     * Returns the element paths of the loaded rows, the identifier fields of the element entity first.
+     *
+     * @return an immutable list of element entity paths
+     */
+    public List<String> selectedPaths() {
+        return selectedPaths;
+    }
+
+    /**
+     * Returns the maximum number of parent ids bound to a single query.
+     *
+     * @return the batch size
+     */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the DTO fields of the element projection mapped to entity collections, loaded by
+     * {@link #nested(String)} loaders.
+     *
+     * @return an immutable list of DTO field names
+     */
+    public List<String> nestedFields() {
+        return nestedFields;
+    }
+
+    /**
+     * Returns the loader of a collection of the element projection, for the next level of the projection.
+     *
+     * @param dtoField one of {@link #nestedFields()}
+     * @return the cached loader, with the same batch size as this one
+     * @throws IllegalArgumentException if the field is not one of {@link #nestedFields()}
+     */
+    public CollectionLoader nested(String dtoField) {
+        if (!nestedFields.contains(dtoField)) {
+            throw new IllegalArgumentException("\"" + dtoField + "\" is not an entity collection of "
+                    + elementDtoClass.getSimpleName());
+        }
+        CollectionLoader loader = of(elementDtoClass, dtoField);
+        return loader.batchSize == batchSize ? loader : loader.withBatchSize(batchSize);
+    }
+
+    /**
+     * Returns the element id of a loaded row, to load the next level of collections.
+     *
+     * @param row a row returned by this loader
+     * @return the value of the first identifier field of the element entity
+     */
+    public Object idOf(Object[] row) {
+        return row[0];
+    }
+
+    /**
+     * Loads the collection of each parent.
+     *
+     * @param entityManager the entity manager running the queries
+     * @param parentIds     the ids of the parents, duplicates being ignored
+     * @return the rows of each parent having elements, keyed by parent id, in collection order
+     */
+    public Map<Object, List<Object[]>> load(EntityManager entityManager, Collection<?> parentIds) {
+        Objects.requireNonNull(entityManager, "entityManager cannot be null");
+        List<?> ids = List.copyOf(new LinkedHashSet<>(parentIds));
+
+        Map<Object, List<Object[]>> rowsByParent = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<?> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            List<Object[]> results = entityManager.createQuery(query, Object[].class)
+                    .setParameter(PARENT_IDS_PARAMETER, batch)
+                    .getResultList();
+            for (Object[] result : results) {
+                rowsByParent.computeIfAbsent(result[0], id -> new ArrayList<>())
+                        .add(Arrays.copyOfRange(result, 1, result.length));
+            }
+        }
+        return rowsByParent;
+    }
+
+    /**
+     * Loads the collection of each parent and hands it to the parent, which receives an empty list when it has
+     * no elements.
+     *
+     * @param entityManager the entity manager running the queries
+     * @param parents       the parents, typically a page of DTOs
+     * @param parentId      reads the id of a parent
+     * @param consumer      receives each parent with its rows, in the order of {@code parents}
+     * @param <P>           the parent type
+     */
+    public <P> void loadInto(EntityManager entityManager, Collection<? extends P> parents,
+                             Function<? super P, ?> parentId, BiConsumer<? super P, List<Object[]>> consumer) {
+        List<Object> ids = new ArrayList<>(parents.size());
+        for (P parent : parents) {
+            ids.add(parentId.apply(parent));
+        }
+        Map<Object, List<Object[]>> rowsByParent = load(entityManager, ids);
+        int i = 0;
+        for (P parent : parents) {
+            consumer.accept(parent, rowsByParent.getOrDefault(ids.get(i++), List.of()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CollectionLoader[" + query + "]";
+    }
+
+    /**
+     * Clears the loader cache, whose loaders depend on the registry providers. Called when a provider is replaced.
+     */
+    static void clearCache() {
+        LOADER_CACHE.clear();
+    }
+
+    private static CollectionLoader plan(Class<?> dtoClass, String dtoField) {
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(dtoClass);
+        if (metadata == null) {
+            throw new IllegalArgumentException("No projection metadata found for " + dtoClass.getName());
+        }
+        int fieldId = metadata.fieldIdOf(dtoField);
+        if (fieldId < 0 || !metadata.isDirectMapping(fieldId)) {
+            throw new IllegalArgumentException("\"" + dtoField + "\" is not a direct mapping of " + dtoClass.getSimpleName());
+        }
+
+        Class<?> parentClass = metadata.entityClass();
+        DirectMapping mapping = metadata.directMappingAt(fieldId);
+        PersistenceMetadata field = PersistenceRegistry.getFieldMetadata(parentClass, mapping.entityField());
+        if (field == null || !field.isEntityCollection()) {
+            throw new IllegalArgumentException("\"" + dtoField + "\" of " + dtoClass.getSimpleName()
+                    + " is not mapped to an entity collection of " + parentClass.getSimpleName());
+        }
+        List<String> parentIds = idFieldsOf(parentClass);
+        if (parentIds.size() != 1) {
+            throw new IllegalArgumentException("Collections of " + parentClass.getSimpleName()
+                    + " cannot be batch loaded: its identifier is composite");
+        }
+        String parentId = parentIds.get(0);
+
+        Class<?> elementClass = field.relatedType();
+        Class<?> elementDtoClass = ProjectionRegistry.hasProjection(mapping.dtoFieldType())
+                ? mapping.dtoFieldType()
+                : elementClass;
+        ProjectionMetadata elementMetadata = ProjectionRegistry.getMetadataFor(elementDtoClass);
+        if (elementMetadata == null) {
+            throw new IllegalArgumentException("No projection metadata found for " + elementDtoClass.getName());
+        }
+
+        // Element ids first, then the single-valued paths of the element projection
+        List<String> elementIds = idFieldsOf(elementClass);
+        Set<String> paths = new LinkedHashSet<>(elementIds);
+        paths.addAll(RequiredPaths.of(elementMetadata, FieldSelection.all(elementMetadata), false).paths());
+        JoinTree tree = JoinPlanner.plan(elementClass, paths);
+        List<String> selectedPaths = new ArrayList<>();
+        List<String> items = new ArrayList<>();
+        for (String path : paths) {
+            if (tree.targetOf(path) != null) {
+                selectedPaths.add(path);
+                items.add(tree.expressionOf(path));
+            }
+        }
+
+        String root = ProjectionQuery.ROOT_ALIAS;
+        CollectionMetadata collection = field.collection().orElseThrow();
+        String mappedBy = collection.mappedBy().orElse(null);
+        PersistenceMetadata inverse = mappedBy != null ? PersistenceRegistry.getFieldMetadata(elementClass, mappedBy) : null;
+        String parentExpression;
+        String from;
+        if (inverse != null && !inverse.isCollection()) {
+            parentExpression = root + "." + mappedBy + "." + parentId;
+            from = entityName(elementClass) + " " + root;
+        } else {
+            parentExpression = PARENT_ALIAS + "." + parentId;
+            from = entityName(parentClass) + " " + PARENT_ALIAS + " JOIN " + PARENT_ALIAS + "." + mapping.entityField()
+                    + " " + root;
+        }
+
+        StringBuilder query = new StringBuilder("SELECT ").append(parentExpression);
+        for (String item : items) {
+            query.append(", ").append(item);
+        }
+        query.append(" FROM ").append(from).append(tree.joinClause())
+                .append(" WHERE ").append(parentExpression).append(" IN :").append(PARENT_IDS_PARAMETER);
+        collection.orderBy().ifPresent(orderBy -> query.append(" ORDER BY ")
+                .append(orderByClause(orderBy, elementIds)));
+
+        List<String> nestedFields = new ArrayList<>();
+        for (DirectMapping nested : elementMetadata.directMappings()) {
+            if (nested.collection().filter(c -> c.kind() == CollectionKind.ENTITY).isPresent()
+                    && tree.collectionPaths().contains(nested.entityField())) {
+                nestedFields.add(nested.dtoField());
+            }
+        }
+        return new CollectionLoader(elementClass, elementDtoClass, query.toString(), selectedPaths, nestedFields,
+                readBatchSize());
+    }
+
+    /**
+     * Translates an {@code @OrderBy} value into an {@code ORDER BY} clause on the element alias: its items are
+     * prefixed with the alias, and an empty value orders by the identifier fields.
+     */
+    private static String orderByClause(String orderBy, List<String> idFields) {
+        List<String> items = new ArrayList<>();
+        if (orderBy.isBlank()) {
+            for (String idField : idFields) {
+                items.add(ProjectionQuery.ROOT_ALIAS + "." + idField);
+            }
+        } else {
+            for (String item : orderBy.split(",")) {
+                items.add(ProjectionQuery.ROOT_ALIAS + "." + item.trim());
+            }
+        }
+        return String.join(", ", items);
+    }
+
+    /**
+     * Returns the identifier fields of an entity, as declared (an {@code @EmbeddedId} is a single field).
+     */
+    static List<String> idFieldsOf(Class<?> entityClass) {
+        List<String> idFields = new ArrayList<>();
+        Map<String, PersistenceMetadata> fields = PersistenceRegistry.getMetadataFor(entityClass);
+        if (fields != null) {
+            fields.forEach((name, field) -> {
+                if (field.isId()) {
+                    idFields.add(name);
+                }
+            });
+        }
+        return idFields;
+    }
+
+    /**
+     * Returns the JPQL name of an entity: the {@code name} of its {@code @Entity} annotation, or its simple name
+     * by default.
+     */
+    static String entityName(Class<?> entityClass) {
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        return entity != null && !entity.name().isBlank() ? entity.name() : entityClass.getSimpleName();
+    }
+
+    private static int readBatchSize() {
+        int batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE);
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    private record LoaderKey(Class<?> dtoClass, String dtoField) {
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import jakarta.persistence.criteria.JoinType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Plans the minimal {@link JoinTree} reaching a set of entity paths, from the metadata of
+ * {@link PersistenceRegistry}.
+ * <p>
+ * Paths are walked segment by segment: a segment whose related type is a registered entity is a to-one
+ * association, joined once for all the paths sharing its prefix; a segment whose related type is a registered
+ * embeddable is navigated without join; a collection-valued segment stops the walk and sets the path aside;
+ * and a segment without metadata is navigated as written, along with the rest of the path.
+ * </p>
+ * <p>
+ * An association is {@link JoinType#INNER} joined when it cannot be missing from the rows returned by the query:
+ * when it is part of the identifier of its owner, or when it is traversed by a path the query filters on (a
+ * restriction on a missing association never holds, except {@code IS NULL} tests, which callers should not pass
+ * as filtered paths). Any other association is {@link JoinType#LEFT} joined, so that a missing association yields
+ * {@code null} values rather than dropping the row, and so is every association below a {@code LEFT} join.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class JoinPlanner {
+
+    private static final String JOIN_ALIAS_PREFIX = "j";
+
+    private JoinPlanner() {
+        throw new UnsupportedOperationException("JoinPlanner is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Plans the joins needed to select the given entity paths.
+     *
+     * @param entityClass the queried entity class
+     * @param entityPaths the entity paths to reach
+     * @return the join tree
+     */
+    public static JoinTree plan(Class<?> entityClass, Collection<String> entityPaths) {
+        return plan(entityClass, entityPaths, List.of());
+    }
+
+    /**
+     * Plans the joins needed to select and filter on the given entity paths.
+     *
+     * @param entityClass   the queried entity class
+     * @param entityPaths   the entity paths to reach
+     * @param filteredPaths the entity paths restricted by the query, which are reached as well and let the
+     *                      associations they traverse be inner joined
+     * @return the join tree
+     */
+    public static JoinTree plan(Class<?> entityClass, Collection<String> entityPaths,
+                                Collection<String> filteredPaths) {
+        Objects.requireNonNull(entityClass, "entityClass cannot be null");
+        Objects.requireNonNull(entityPaths, "entityPaths cannot be null");
+        Objects.requireNonNull(filteredPaths, "filteredPaths cannot be null");
+
+        Builder builder = new Builder(entityClass);
+        for (String path : entityPaths) {
+            builder.add(path, false);
+        }
+        for (String path : filteredPaths) {
+            builder.add(path, true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Nodes, targets and collection paths of a tree under construction.
+     */
+    private static final class Builder {
+        private final Class<?> entityClass;
+        private final List<JoinTree.Node> nodes = new ArrayList<>();
+        private final Map<String, JoinTree.Node> nodesByPath = new HashMap<>();
+        private final Set<JoinTree.Node> required = new HashSet<>();
+        private final Map<String, JoinTree.Target> targets = new LinkedHashMap<>();
+        private final Set<String> collectionPaths = new LinkedHashSet<>();
+        private int joinCount;
+
+        Builder(Class<?> entityClass) {
+            this.entityClass = entityClass;
+            nodes.add(new JoinTree.Node(0, null, null, false, ProjectionQuery.ROOT_ALIAS));
+        }
+
+        void add(String path, boolean filtered) {
+            if (!filtered && (targets.containsKey(path) || collectionPaths.contains(path))) {
+                return;
+            }
+
+            JoinTree.Node from = nodes.get(0);
+            int fromSegment = 0;
+            Class<?> type = entityClass;
+            String[] segments = path.split("\\.");
+            for (int i = 0; i < segments.length; i++) {
+                PersistenceMetadata field = type != null ? PersistenceRegistry.getFieldMetadata(type, segments[i]) : null;
+                if (field == null) {
+                    // Not described: navigate the remaining path as written
+                    break;
+                }
+                if (field.isCollection()) {
+                    collectionPaths.add(path);
+                    return;
+                }
+
+                type = field.relatedType();
+                if (PersistenceRegistry.isEntityRegistered(type)) {
+                    // Embeddable hops leading to the association become join-free nodes
+                    for (int j = fromSegment; j < i; j++) {
+                        from = nodeOf(from, segments[j], true);
+                    }
+                    from = nodeOf(from, segments[i], false);
+                    fromSegment = i + 1;
+                    if (filtered || field.isId()) {
+                        required.add(from);
+                    }
+                }
+            }
+            targets.putIfAbsent(path, new JoinTree.Target(from,
+                    Arrays.asList(Arrays.copyOfRange(segments, fromSegment, segments.length))));
+        }
+
+        private JoinTree.Node nodeOf(JoinTree.Node parent, String attribute, boolean embedded) {
+            String path = parent.isRoot() ? attribute : parent.path() + "." + attribute;
+            return nodesByPath.computeIfAbsent(path, p -> {
+                JoinTree.Node node = new JoinTree.Node(nodes.size(), parent, attribute, embedded,
+                        embedded ? null : JOIN_ALIAS_PREFIX + (++joinCount));
+                nodes.add(node);
+                return node;
+            });
+        }
+
+        JoinTree build() {
+            // Parents precede their children, so their join type is known first
+            Map<JoinTree.Node, Boolean> inner = new HashMap<>();
+            inner.put(nodes.get(0), true);
+            for (int i = 1; i < nodes.size(); i++) {
+                JoinTree.Node node = nodes.get(i);
+                boolean parentInner = inner.get(node.parent());
+                if (node.isEmbedded()) {
+                    inner.put(node, parentInner);
+                } else {
+                    boolean isInner = parentInner && required.contains(node);
+                    node.joinType(isInner ? JoinType.INNER : JoinType.LEFT);
+                    inner.put(node, isInner);
+                }
+            }
+            return new JoinTree(entityClass, nodes, targets, List.copyOf(collectionPaths));
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal tree of joins needed to reach a set of entity paths, as computed by {@link JoinPlanner}.
+ * <p>
+ * The root node stands for the queried entity. Each to-one association traversed by the paths is a join
+ * node, shared by every path going through it and aliased {@code j1}, {@code j2}... in planning order.
+ * Embeddable hops are navigated without any join; they only appear as (join-free) nodes when an association
+ * lies below them, since the Criteria API can only join from a {@link From}. Collection-valued paths are not
+ * joined, as that would multiply the result rows: they are listed in {@link #collectionPaths()} instead.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * JoinTree tree = JoinPlanner.plan(User.class, List.of("address.city", "department.manager.name"));
+ * tree.fromClause("User");                  // User e LEFT JOIN e.department j1 LEFT JOIN j1.manager j2
+ * tree.expressionOf("address.city");        // e.address.city
+ * tree.expressionOf("department.manager.name"); // j2.name
+ * }
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class JoinTree {
+
+    private final Class<?> entityClass;
+    private final List<Node> nodes;
+    private final List<Node> joins;
+    private final Map<String, Target> targets;
+    private final List<String> collectionPaths;
+
+    JoinTree(Class<?> entityClass, List<Node> nodes, Map<String, Target> targets, List<String> collectionPaths) {
+        this.entityClass = entityClass;
+        this.nodes = List.copyOf(nodes);
+        this.joins = this.nodes.stream().filter(Node::isJoin).toList();
+        this.targets = Collections.unmodifiableMap(targets);
+        this.collectionPaths = List.copyOf(collectionPaths);
+    }
+
+    /**
+     * Returns the entity class the tree is rooted at.
+     *
+     * @return the queried entity class
+     */
+    public Class<?> entityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Returns the root node, standing for the queried entity.
+     *
+     * @return the root node
+     */
+    public Node root() {
+        return nodes.get(0);
+    }
+
+    /**
+     * Returns every node of the tree, the root first and parents before their children. The position of
+     * a node in this list is its {@link Node#index()}.
+     *
+     * @return an immutable list of nodes
+     */
+    public List<Node> nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the join nodes of the tree, that is the nodes of to-one associations, parents first.
+     *
+     * @return an immutable list of join nodes
+     */
+    public List<Node> joins() {
+        return joins;
+    }
+
+    /**
+     * Returns the collection-valued entity paths that were planned, which are left out of the tree.
+     *
+     * @return an immutable list of entity paths, in planning order
+     */
+    public List<String> collectionPaths() {
+        return collectionPaths;
+    }
+
+    /**
+     * Returns how a planned entity path is reached.
+     *
+     * @param entityPath the entity path
+     * @return the target of the path, or {@code null} if the path was not planned or is collection-valued
+     */
+    public Target targetOf(String entityPath) {
+        return targets.get(entityPath);
+    }
+
+    /**
+     * Returns the JPQL expression of a planned entity path, e.g. {@code e.address.city} or {@code j2.name},
+     * the root being aliased {@value ProjectionQuery#ROOT_ALIAS}.
+     *
+     * @param entityPath the entity path
+     * @return the expression
+     * @throws IllegalArgumentException if the path was not planned or is collection-valued
+     */
+    public String expressionOf(String entityPath) {
+        Target target = targets.get(entityPath);
+        if (target == null) {
+            throw new IllegalArgumentException("\"" + entityPath + "\" is not a planned single-valued path");
+        }
+        StringBuilder expression = new StringBuilder(target.from().expression());
+        for (String attribute : target.attributes()) {
+            expression.append('.').append(attribute);
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Returns the JPQL {@code FROM} clause declaring the root and the joins of the tree, without the
+     * {@code FROM} keyword.
+     *
+     * @param entityName the JPQL name of the entity
+     * @return the clause, e.g. {@code User e LEFT JOIN e.department j1}
+     */
+    public String fromClause(String entityName) {
+        return entityName + " " + ProjectionQuery.ROOT_ALIAS + joinClause();
+    }
+
+    /**
+     * Returns the JPQL joins of the tree, each preceded by a space, for a root already declared with the
+     * alias {@value ProjectionQuery#ROOT_ALIAS}.
+     *
+     * @return the joins, e.g. {@code " LEFT JOIN e.department j1"}, or an empty string if there are none
+     */
+    public String joinClause() {
+        StringBuilder clause = new StringBuilder();
+        for (Node join : joins) {
+            clause.append(' ').append(join.joinType()).append(" JOIN ")
+                    .append(join.parent().expression()).append('.').append(join.attribute())
+                    .append(' ').append(join.alias());
+        }
+        return clause.toString();
+    }
+
+    /**
+     * Creates the joins of the tree from a Criteria root.
+     * <p>
+     * Join nodes are joined with their {@link Node#joinType()} and aliased; embeddable nodes are joined
+     * without alias, which only navigates into the embedded value.
+     * </p>
+     *
+     * @param root the query root, for {@link #entityClass()}
+     * @return the {@link From} of each node, indexed by {@link Node#index()}
+     */
+    public From<?, ?>[] applyTo(From<?, ?> root) {
+        From<?, ?>[] froms = new From<?, ?>[nodes.size()];
+        froms[0] = root;
+        for (int i = 1; i < froms.length; i++) {
+            Node node = nodes.get(i);
+            From<?, ?> parent = froms[node.parent().index()];
+            if (node.isEmbedded()) {
+                froms[i] = parent.join(node.attribute());
+            } else {
+                froms[i] = parent.join(node.attribute(), node.joinType());
+                froms[i].alias(node.alias());
+            }
+        }
+        return froms;
+    }
+
+    /**
+     * Returns the Criteria path of a planned entity path.
+     *
+     * @param froms      the joins created by {@link #applyTo(From)}
+     * @param entityPath the entity path
+     * @return the path
+     * @throws IllegalArgumentException if the path was not planned or is collection-valued
+     */
+    public Path<?> pathOf(From<?, ?>[] froms, String entityPath) {
+        Target target = targets.get(entityPath);
+        if (target == null) {
+            throw new IllegalArgumentException("\"" + entityPath + "\" is not a planned single-valued path");
+        }
+        Path<?> path = froms[target.from().index()];
+        for (String attribute : target.attributes()) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return "JoinTree[" + fromClause(entityClass.getSimpleName()) + "]";
+    }
+
+    /**
+     * Node of a {@link JoinTree}: the root, a join of a to-one association, or a join-free embeddable hop.
+     */
+    public static final class Node {
+        private final int index;
+        private final Node parent;
+        private final String attribute;
+        private final String path;
+        private final boolean embedded;
+        private final String alias;
+        private final List<Node> children = new ArrayList<>();
+        private JoinType joinType;
+
+        Node(int index, Node parent, String attribute, boolean embedded, String alias) {
+            this.index = index;
+            this.parent = parent;
+            this.attribute = attribute;
+            this.path = parent == null || parent.parent == null ? attribute : parent.path + "." + attribute;
+            this.embedded = embedded;
+            this.alias = alias;
+            if (parent != null) {
+                parent.children.add(this);
+            }
+        }
+
+        /**
+         * Returns the position of the node in {@link JoinTree#nodes()}.
+         *
+         * @return the node index, {@code 0} for the root
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Returns the parent node.
+         *
+         * @return the parent, or {@code null} for the root
+         */
+        public Node parent() {
+            return parent;
+        }
+
+        /**
+         * Returns the attribute joined from the parent node.
+         *
+         * @return the attribute name, or {@code null} for the root
+         */
+        public String attribute() {
+            return attribute;
+        }
+
+        /**
+         * Returns the entity path of the node.
+         *
+         * @return the path from the root, or {@code null} for the root
+         */
+        public String path() {
+            return path;
+        }
+
+        /**
+         * Indicates whether this node is the root of the tree.
+         *
+         * @return {@code true} for the root
+         */
+        public boolean isRoot() {
+            return parent == null;
+        }
+
+        /**
+         * Indicates whether this node is an embeddable hop, which needs no join.
+         *
+         * @return {@code true} for embeddable nodes
+         */
+        public boolean isEmbedded() {
+            return embedded;
+        }
+
+        /**
+         * Indicates whether this node is the join of a to-one association.
+         *
+         * @return {@code true} for join nodes
+         */
+        public boolean isJoin() {
+            return parent != null && !embedded;
+        }
+
+        /**
+         * Returns the type of the join: {@link JoinType#INNER} when the association is known to be present on
+         * every row selected by the query, {@link JoinType#LEFT} otherwise.
+         *
+         * @return the join type, or {@code null} for the root and embeddable nodes
+         */
+        public JoinType joinType() {
+            return joinType;
+        }
+
+        /**
+         * Returns the alias of the join.
+         *
+         * @return the alias, or {@code null} for embeddable nodes; {@value ProjectionQuery#ROOT_ALIAS} for the root
+         */
+        public String alias() {
+            return alias;
+        }
+
+        /**
+         * Returns the child nodes, in planning order.
+         *
+         * @return an unmodifiable view of the children
+         */
+        public List<Node> children() {
+            return Collections.unmodifiableList(children);
+        }
+
+        void joinType(JoinType joinType) {
+            this.joinType = joinType;
+        }
+
+        /**
+         * Returns the JPQL expression designating the node.
+         */
+        String expression() {
+            return embedded ? parent.expression() + "." + attribute : alias;
+        }
+
+        @Override
+        public String toString() {
+            return isRoot() ? alias : embedded ? path : joinType + " " + path + " " + alias;
+        }
+    }
+
+    /**
+     * How an entity path is reached: the {@code attributes} are navigated from the node {@code from}.
+     *
+     * @param from       the closest node of the path
+     * @param attributes the attributes navigated from that node, empty when the path designates the node itself
+     */
+    public record Target(Node from, List<String> attributes) {
+
+        public Target {
+            Objects.requireNonNull(from, "from cannot be null");
+            attributes = List.copyOf(attributes);
+        }
+    }
+}
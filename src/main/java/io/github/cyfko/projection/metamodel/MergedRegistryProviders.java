@@ -0,0 +1,192 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the registry providers generated for several compiled modules into a single provider.
+ * <p>
+ * Each module compiled with a distinct {@code projection.metamodel.moduleName} ships its own generated
+ * providers. The registries discover all of them at startup and merge them once, here, into flat immutable
+ * maps, so that a lookup costs a single hash probe whatever the number of contributing modules. Persistence
+ * providers describe each class on first lookup, hence their per-class lookups are delegated instead.
+ * </p>
+ * <p>
+ * When several providers describe the same class, the first one (in discovery order, i.e. class path order)
+ * wins, and all the tables of that class are taken from it so that they stay consistent with each other.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+final class MergedRegistryProviders {
+
+    private MergedRegistryProviders() {
+    }
+
+    /**
+     * Merges projection metadata providers.
+     *
+     * @param providers the discovered providers, in discovery order, not empty
+     * @return the single provider, or a provider exposing the merged registries
+     */
+    static ProjectionMetadataRegistryProvider projections(List<ProjectionMetadataRegistryProvider> providers) {
+        if (providers.size() == 1) {
+            return providers.get(0);
+        }
+
+        Map<Class<?>, ProjectionMetadata> metadata = new HashMap<>();
+        Map<Class<?>, Map<String, String>> entityPaths = new HashMap<>();
+        Map<Class<?>, ProjectionQuery> queries = new HashMap<>();
+        for (ProjectionMetadataRegistryProvider provider : providers) {
+            Map<Class<?>, Map<String, String>> paths = provider.getEntityPathRegistry();
+            Map<Class<?>, ProjectionQuery> providerQueries = provider.getProjectionQueryRegistry();
+            provider.getProjectionMetadataRegistry().forEach((dtoClass, projection) -> {
+                if (metadata.putIfAbsent(dtoClass, projection) == null) {
+                    if (paths.containsKey(dtoClass)) {
+                        entityPaths.put(dtoClass, paths.get(dtoClass));
+                    }
+                    if (providerQueries.containsKey(dtoClass)) {
+                        queries.put(dtoClass, providerQueries.get(dtoClass));
+                    }
+                }
+            });
+        }
+
+        Map<Class<?>, ProjectionMetadata> mergedMetadata = Map.copyOf(metadata);
+        Map<Class<?>, Map<String, String>> mergedEntityPaths = Map.copyOf(entityPaths);
+        Map<Class<?>, ProjectionQuery> mergedQueries = Map.copyOf(queries);
+        return new ProjectionMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, ProjectionMetadata> getProjectionMetadataRegistry() {
+                return mergedMetadata;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, String>> getEntityPathRegistry() {
+                return mergedEntityPaths;
+            }
+
+            @Override
+            public Map<Class<?>, ProjectionQuery> getProjectionQueryRegistry() {
+                return mergedQueries;
+            }
+        };
+    }
+
+    /**
+     * Merges persistence metadata providers.
+     * <p>
+     * Per-class lookups are delegated to the providers in order, so that they keep building the metadata of
+     * each class on first lookup; the full registries are merged on first use only.
+     * </p>
+     *
+     * @param providers the discovered providers, in discovery order, not empty
+     * @return the single provider, or a provider exposing the merged registries
+     */
+    static PersistenceMetadataRegistryProvider persistence(List<PersistenceMetadataRegistryProvider> providers) {
+        if (providers.size() == 1) {
+            return providers.get(0);
+        }
+        return new MergedPersistenceProvider(List.copyOf(providers));
+    }
+
+    private static final class MergedPersistenceProvider implements PersistenceMetadataRegistryProvider {
+
+        private final List<PersistenceMetadataRegistryProvider> providers;
+        private volatile Registries registries;
+
+        MergedPersistenceProvider(List<PersistenceMetadataRegistryProvider> providers) {
+            this.providers = providers;
+        }
+
+        @Override
+        public Map<String, PersistenceMetadata> findEntityMetadata(Class<?> entityClass) {
+            for (PersistenceMetadataRegistryProvider provider : providers) {
+                Map<String, PersistenceMetadata> fields = provider.findEntityMetadata(entityClass);
+                if (fields != null) {
+                    return fields;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Map<String, PersistenceMetadata> findEmbeddableMetadata(Class<?> embeddableClass) {
+            for (PersistenceMetadataRegistryProvider provider : providers) {
+                Map<String, PersistenceMetadata> fields = provider.findEmbeddableMetadata(embeddableClass);
+                if (fields != null) {
+                    return fields;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public List<String> findIdFields(Class<?> entityClass) {
+            // Identifiers come from the provider whose entity metadata wins
+            for (PersistenceMetadataRegistryProvider provider : providers) {
+                if (provider.findEntityMetadata(entityClass) != null) {
+                    return provider.findIdFields(entityClass);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+            return registries().entities();
+        }
+
+        @Override
+        public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+            return registries().embeddables();
+        }
+
+        @Override
+        public Map<Class<?>, List<String>> getIdFieldsRegistry() {
+            return registries().idFields();
+        }
+
+        private Registries registries() {
+            Registries result = registries;
+            if (result == null) {
+                synchronized (this) {
+                    result = registries;
+                    if (result == null) {
+                        registries = result = merge();
+                    }
+                }
+            }
+            return result;
+        }
+
+        private Registries merge() {
+            Map<Class<?>, Map<String, PersistenceMetadata>> entities = new HashMap<>();
+            Map<Class<?>, Map<String, PersistenceMetadata>> embeddables = new HashMap<>();
+            Map<Class<?>, List<String>> idFields = new HashMap<>();
+            for (PersistenceMetadataRegistryProvider provider : providers) {
+                Map<Class<?>, List<String>> ids = provider.getIdFieldsRegistry();
+                provider.getEntityMetadataRegistry().forEach((entityClass, fields) -> {
+                    if (entities.putIfAbsent(entityClass, fields) == null && ids.containsKey(entityClass)) {
+                        idFields.put(entityClass, ids.get(entityClass));
+                    }
+                });
+                provider.getEmbeddableMetadataRegistry().forEach(embeddables::putIfAbsent);
+            }
+            return new Registries(Map.copyOf(entities), Map.copyOf(embeddables), Map.copyOf(idFields));
+        }
+    }
+
+    private record Registries(Map<Class<?>, Map<String, PersistenceMetadata>> entities,
+                              Map<Class<?>, Map<String, PersistenceMetadata>> embeddables,
+                              Map<Class<?>, List<String>> idFields) {
+    }
+}
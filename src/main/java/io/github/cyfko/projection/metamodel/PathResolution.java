@@ -0,0 +1,84 @@
+package io.github.cyfko.projection.metamodel;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Outcome of translating a DTO projection path to an entity path with
+ * {@link ProjectionRegistry#tryToEntityPath(String, Class, boolean)}.
+ * <p>
+ * A resolution either carries the translated {@code entityPath}, or describes why the path could not
+ * be translated through its {@code failingSegment} and a human-readable {@code reason}. Unresolved
+ * paths are reported without building any exception, so that invalid input coming from clients stays
+ * cheap to reject.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * PathResolution resolution = ProjectionRegistry.tryToEntityPath("address.town", UserDTO.class, false);
+ * if (!resolution.isResolved()) {
+ *     return badRequest("Unknown sort field: " + resolution.failingSegment());
+ * }
+ * query.orderBy(resolution.entityPath());
+ * }
+ * </pre>
+ *
+ * @param entityPath     the translated entity path, or {@code null} if the path is unresolved
+ * @param failingSegment the first DTO path segment that could not be resolved, or {@code null} if the
+ *                       path is resolved. Resolutions are cached per case-folded path when matching
+ *                       ignoring case, so the segment may be spelled as in an earlier request.
+ * @param reason         why the path is unresolved, or {@code null} if the path is resolved
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public record PathResolution(String entityPath, String failingSegment, String reason) {
+
+    public PathResolution {
+        if (entityPath == null) {
+            Objects.requireNonNull(failingSegment, "failingSegment cannot be null for an unresolved path");
+            Objects.requireNonNull(reason, "reason cannot be null for an unresolved path");
+        } else if (failingSegment != null || reason != null) {
+            throw new IllegalArgumentException("a resolved path cannot have a failing segment nor a reason");
+        }
+    }
+
+    /**
+     * Creates a successful resolution.
+     *
+     * @param entityPath the translated entity path
+     * @return a resolved {@link PathResolution}
+     */
+    public static PathResolution resolved(String entityPath) {
+        return new PathResolution(Objects.requireNonNull(entityPath, "entityPath cannot be null"), null, null);
+    }
+
+    /**
+     * Creates a failed resolution.
+     *
+     * @param failingSegment the DTO path segment that could not be resolved
+     * @param reason         why the segment could not be resolved
+     * @return an unresolved {@link PathResolution}
+     */
+    public static PathResolution unresolved(String failingSegment, String reason) {
+        return new PathResolution(null, failingSegment, reason);
+    }
+
+    /**
+     * Indicates whether the DTO path was translated.
+     *
+     * @return {@code true} if {@link #entityPath()} is available
+     */
+    public boolean isResolved() {
+        return entityPath != null;
+    }
+
+    /**
+     * Returns the translated entity path, if any.
+     *
+     * @return the entity path, or an empty {@link Optional} if the path is unresolved
+     */
+    public Optional<String> toOptional() {
+        return Optional.ofNullable(entityPath);
+    }
+}
@@ -4,9 +4,12 @@ import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
 import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.stream.Stream;
 
 /**
@@ -20,7 +23,8 @@ import java.util.stream.Stream;
  * <p>
  * The registry is expected to be generated by the {@code EntityRegistryProcessor} annotation processor
  * which SHOULD generates the implementation class
- * {@code io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl}.
+ * {@code io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl}, or one
+ * suffixed class per module when the {@code projection.metamodel.moduleName} option is set.
  * </p>
  *
  * <p>
@@ -50,8 +54,25 @@ import java.util.stream.Stream;
  */
 public final class PersistenceRegistry {
 
+    /**
+     * Field id returned by {@link #getFieldId(Class, String)} when the class or the field is not registered.
+     */
+    public static final int UNKNOWN_FIELD = -1;
+
     private static volatile PersistenceMetadataRegistryProvider PROVIDER;
-    private static final Map<Class<?>, List<String>> ENTITY_ID_FIELDS = new HashMap<>();
+
+    /**
+     * Per-class slots holding the metadata resolved for each entity or embeddable class.
+     * <p>
+     * A {@link ClassValue} stores the slot on the class itself, so that repeated lookups skip hashing
+     * into the provider maps and do not keep the class (nor its class loader) reachable once it is unloaded.
+     * Slots cannot be removed all at once, hence the whole {@link ClassValue} is replaced when the
+     * provider changes. Slots are resolved through the per-class lookups of the provider (e.g.
+     * {@link PersistenceMetadataRegistryProvider#findEntityMetadata(Class)}), so that only the classes
+     * actually looked up have their metadata built.
+     * </p>
+     */
+    private static volatile ClassValue<Slot> SLOTS = newSlots();
 
     // Private constructor to prevent instantiation
     private PersistenceRegistry() {
@@ -86,7 +107,7 @@ public final class PersistenceRegistry {
      * @throws NullPointerException if entityClass is null
      */
     public static Map<String, PersistenceMetadata> getMetadataFor(Class<?> entityClass) {
-        return isEntityRegistered(entityClass) ? getEntityRegistryProvider().getEntityMetadataRegistry().get(entityClass) : getEntityRegistryProvider().getEmbeddableMetadataRegistry().get(entityClass);
+        return slotOf(entityClass).metadata();
     }
 
     /**
@@ -97,10 +118,7 @@ public final class PersistenceRegistry {
      * @throws NullPointerException if entityClass is null
      */
     public static boolean isEntityRegistered(Class<?> entityClass) {
-        if (entityClass == null) {
-            throw new NullPointerException("Entity class cannot be null");
-        }
-        return getEntityRegistryProvider().getEntityMetadataRegistry().containsKey(entityClass);
+        return slotOf(entityClass).entity();
     }
 
     /**
@@ -111,14 +129,14 @@ public final class PersistenceRegistry {
      * @throws NullPointerException if entityClass is null
      */
     public static boolean isEmbeddableRegistered(Class<?> embeddableClass) {
-        if (embeddableClass == null) {
-            throw new NullPointerException("Entity class cannot be null");
-        }
-        return getEntityRegistryProvider().getEmbeddableMetadataRegistry().containsKey(embeddableClass);
+        return slotOf(embeddableClass).embeddable();
     }
 
     /**
      * Returns the total number of registered entities.
+     * <p>
+     * This method reads the full entity registry, which loads every registered entity class.
+     * </p>
      *
      * @return the number of registered entities
      */
@@ -147,27 +165,85 @@ public final class PersistenceRegistry {
     }
 
     /**
-     * Finds the ID fields (maybe a primary key or a composite primary key) for an entity using PersistenceRegistry.
+     * Returns the id of a field of the specified entity or embeddable class.
+     * <p>
+     * Field ids are dense: the fields of a class are numbered from {@code 0} to
+     * {@link #getFieldCount(Class)}{@code  - 1}, following the iteration order of its metadata map, which is the
+     * declaration order for generated registries. Ids are meant to be resolved once, then used with the int-indexed
+     * accessors below on hot paths, which read plain arrays instead of hashing field names.
+     * </p>
+     *
+     * @param entityClass the entity or embeddable class
+     * @param fieldName   the name of the field
+     * @return the field id, or {@link #UNKNOWN_FIELD} if the class or the field is not registered
+     * @throws NullPointerException if entityClass or fieldName is null
      */
-    public static synchronized List<String> getIdFields(Class<?> entityClass) {
-        if (ENTITY_ID_FIELDS.containsKey(entityClass)) return ENTITY_ID_FIELDS.get(entityClass);
-
-        Map<String, PersistenceMetadata> metadata = PersistenceRegistry.getMetadataFor(entityClass);
-        if (metadata == null) {
-            throw new IllegalStateException("No metadata found for entity: " + entityClass.getName());
+    public static int getFieldId(Class<?> entityClass, String fieldName) {
+        if (fieldName == null) {
+            throw new NullPointerException("Field name cannot be null");
         }
+        return slotOf(entityClass).fieldIds().getOrDefault(fieldName, UNKNOWN_FIELD);
+    }
 
-        List<String> idFields = metadata.entrySet().stream()
-                .filter(e -> e.getValue().isId())
-                .flatMap(PersistenceRegistry::extractIdFields)
-                .toList();
+    /**
+     * Returns the number of fields of the specified entity or embeddable class.
+     *
+     * @param entityClass the entity or embeddable class
+     * @return the number of fields, {@code 0} if the class is not registered
+     * @throws NullPointerException if entityClass is null
+     */
+    public static int getFieldCount(Class<?> entityClass) {
+        return slotOf(entityClass).fieldNames().length;
+    }
 
-        if (idFields.isEmpty()) {
+    /**
+     * Returns the name of a field of the specified entity or embeddable class.
+     *
+     * @param entityClass the entity or embeddable class
+     * @param fieldId     the field id, as returned by {@link #getFieldId(Class, String)}
+     * @return the field name
+     * @throws NullPointerException      if entityClass is null
+     * @throws IndexOutOfBoundsException if fieldId is not a field id of the class
+     */
+    public static String getFieldName(Class<?> entityClass, int fieldId) {
+        return slotOf(entityClass).fieldNames()[fieldId];
+    }
+
+    /**
+     * Returns metadata for a field of the specified entity or embeddable class, by id.
+     *
+     * @param entityClass the entity or embeddable class
+     * @param fieldId     the field id, as returned by {@link #getFieldId(Class, String)}
+     * @return the field metadata
+     * @throws NullPointerException      if entityClass is null
+     * @throws IndexOutOfBoundsException if fieldId is not a field id of the class
+     */
+    public static PersistenceMetadata getFieldMetadata(Class<?> entityClass, int fieldId) {
+        return slotOf(entityClass).fields()[fieldId];
+    }
+
+    /**
+     * Finds the ID fields (maybe a primary key or a composite primary key) for an entity using PersistenceRegistry.
+     * <p>
+     * Fields of an {@code @EmbeddedId} are flattened into the returned list. The lists are precomputed by the
+     * annotation processor (see {@link PersistenceMetadataRegistryProvider#getIdFieldsRegistry()}), or resolved
+     * from the field metadata for entities missing from that registry, and kept in the slot of the class,
+     * so lookups take no lock.
+     * </p>
+     *
+     * @param entityClass the entity class
+     * @return the immutable list of identifier field names
+     * @throws IllegalStateException if the entity has no metadata or no {@code @Id} field
+     */
+    public static List<String> getIdFields(Class<?> entityClass) {
+        Slot slot = slotOf(entityClass);
+        if (slot.metadata() == null) {
+            throw new IllegalStateException("No metadata found for entity: " + entityClass.getName());
+        }
+        if (slot.idFields().isEmpty()) {
             throw new IllegalStateException("No @Id field found in entity: " + entityClass.getSimpleName());
         }
-
-        ENTITY_ID_FIELDS.put(entityClass, idFields);
-        return idFields;
+        return slot.idFields();
     }
 
     private static Stream<String> extractIdFields(Map.Entry<String,PersistenceMetadata> entry) {
@@ -181,15 +257,114 @@ public final class PersistenceRegistry {
     }
 
     /**
-     * Loads the generated registry implementation via reflection.
+     * Returns the slot of the given class, resolving it on first access.
+     *
+     * @param type the entity or embeddable class
+     * @return the slot of the class
+     * @throws NullPointerException if type is null
+     */
+    private static Slot slotOf(Class<?> type) {
+        if (type == null) {
+            throw new NullPointerException("Entity class cannot be null");
+        }
+        return SLOTS.get(type);
+    }
+
+    private static ClassValue<Slot> newSlots() {
+        return new ClassValue<>() {
+            @Override
+            protected Slot computeValue(Class<?> type) {
+                PersistenceMetadataRegistryProvider provider = getEntityRegistryProvider();
+
+                Map<String, PersistenceMetadata> entityMetadata = provider.findEntityMetadata(type);
+                if (entityMetadata == null) {
+                    Map<String, PersistenceMetadata> embeddableMetadata = provider.findEmbeddableMetadata(type);
+                    if (embeddableMetadata == null) {
+                        return UNREGISTERED;
+                    }
+                    return newSlot(false, true, embeddableMetadata, resolveIdFields(embeddableMetadata));
+                }
+
+                List<String> idFields = provider.findIdFields(type);
+                return newSlot(true, false, entityMetadata, idFields != null ? idFields : resolveIdFields(entityMetadata));
+            }
+        };
+    }
+
+    private static Slot newSlot(boolean entity, boolean embeddable, Map<String, PersistenceMetadata> metadata,
+                                List<String> idFields) {
+        String[] fieldNames = new String[metadata.size()];
+        PersistenceMetadata[] fields = new PersistenceMetadata[metadata.size()];
+        Map<String, Integer> fieldIds = new HashMap<>();
+        int id = 0;
+        for (Map.Entry<String, PersistenceMetadata> entry : metadata.entrySet()) {
+            fieldNames[id] = entry.getKey();
+            fields[id] = entry.getValue();
+            fieldIds.put(entry.getKey(), id);
+            id++;
+        }
+        return new Slot(entity, embeddable, metadata, idFields, fieldNames, fields, Map.copyOf(fieldIds));
+    }
+
+    private static List<String> resolveIdFields(Map<String, PersistenceMetadata> metadata) {
+        return metadata.entrySet().stream()
+                .filter(e -> e.getValue().isId())
+                .flatMap(PersistenceRegistry::extractIdFields)
+                .toList();
+    }
+
+    /**
+     * Metadata resolved for a class.
+     *
+     * @param entity     whether the class is a registered entity
+     * @param embeddable whether the class is a registered embeddable
+     * @param metadata   the field metadata of the class, or {@code null} if it is not registered
+     * @param idFields   the identifier fields of the class, empty if it declares none
+     * @param fieldNames the field names of the class, indexed by field id
+     * @param fields     the field metadata of the class, indexed by field id
+     * @param fieldIds   the field ids of the class, keyed by field name
+     */
+    private record Slot(boolean entity, boolean embeddable, Map<String, PersistenceMetadata> metadata,
+                        List<String> idFields, String[] fieldNames, PersistenceMetadata[] fields,
+                        Map<String, Integer> fieldIds) {
+    }
+
+    private static final Slot UNREGISTERED = new Slot(false, false, null, List.of(),
+            new String[0], new PersistenceMetadata[0], Map.of());
+
+    /**
+     * Loads the generated registry implementations.
      * <p>
-     * This method attempts to default construct the generated implementation {@code PersistenceMetadataRegistryProviderImpl} class.
+     * The annotation processor registers the provider it generates in {@code META-INF/services}, so every module's
+     * provider is found through {@link ServiceLoader} with the thread context class loader, without any reflective
+     * lookup by name, and merged once into a single index (see {@link MergedRegistryProviders}), together with the
+     * binary registry resources written when the processor runs with
+     * {@code -Aprojection.metamodel.registryFormat=binary} (see {@link BinaryRegistryProviders}). When neither a
+     * service entry nor a binary resource is visible, the default {@code PersistenceMetadataRegistryProviderImpl}
+     * class is looked up by name as a fallback.
      * </p>
      *
      * @return the loaded registry provider
      * @throws IllegalStateException if the registry cannot be loaded
      */
     private static PersistenceMetadataRegistryProvider loadProvider() {
+        List<PersistenceMetadataRegistryProvider> providers = new ArrayList<>();
+        try {
+            ServiceLoader.load(PersistenceMetadataRegistryProvider.class).forEach(providers::add);
+        } catch (ServiceConfigurationError e) {
+            throw new IllegalStateException(e);
+        }
+        providers.addAll(BinaryRegistryProviders.persistence());
+        return providers.isEmpty() ? loadProviderByName() : MergedRegistryProviders.persistence(providers);
+    }
+
+    /**
+     * Default constructs the generated implementation {@code PersistenceMetadataRegistryProviderImpl} class via reflection.
+     *
+     * @return the loaded registry provider
+     * @throws IllegalStateException if the registry cannot be loaded
+     */
+    private static PersistenceMetadataRegistryProvider loadProviderByName() {
         try {
             Class<?> registryClass = Class.forName(
                     "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl"
@@ -208,14 +383,34 @@ public final class PersistenceRegistry {
     }
 
     /**
-     * Clears the cached registry. Useful for testing purposes.
+     * Replaces the persistence registry provider and drops every resolved slot, as well as the implicit
+     * projections and path translations derived from it. Passing {@code null} restores the lazy loading of
+     * the generated provider. Useful for testing purposes.
      * <p>
      * <strong>Warning:</strong> This method is intended for testing only and should not be used in production code.
      * </p>
+     *
+     * @param provider the provider to use, or {@code null} to reload the generated one on next access
      */
-    static void clearCache() {
+    static void setProvider(PersistenceMetadataRegistryProvider provider) {
         synchronized (PersistenceRegistry.class) {
-            PROVIDER = null;
+            PROVIDER = provider;
+            SLOTS = newSlots();
+            ProjectionQueryPlan.clearCache();
+            ProjectionEntityGraph.clearCache();
+            CollectionLoader.clearCache();
+            ProjectionAggregateQuery.clearCache();
         }
+        ProjectionRegistry.clearDerivedCaches();
+    }
+
+    /**
+     * Clears the cached registry. Useful for testing purposes.
+     * <p>
+     * <strong>Warning:</strong> This method is intended for testing only and should not be used in production code.
+     * </p>
+     */
+    static void clearCache() {
+        setProvider(null);
     }
-}
\ No newline at end of file
+}
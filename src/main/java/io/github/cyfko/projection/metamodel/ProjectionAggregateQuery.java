@@ -0,0 +1,382 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JPQL query of a projection computing the reduced dependencies of its computed fields in the database, so
+ * that only the aggregated values are loaded instead of every element of the reduced collections.
+ * <p>
+ * Each {@link ComputedField.ReducerMapping} of a selected computed field becomes a correlated subquery over
+ * the collection traversed by its dependency, selected alongside the single-valued paths of the projection:
+ * </p>
+ * <pre>
+ * SELECT e.firstName, (SELECT SUM(r1.totalAmount) FROM e.orders r1) FROM User e
+ * </pre>
+ * <p>
+ * Collections traversed further down the dependency are joined inside the subquery, e.g.
+ * {@code (SELECT COUNT(r2) FROM e.orders r1 JOIN r1.lines r2)}. Being computed per row, the aggregates neither
+ * multiply the rows nor require grouping by every selected column, and several reduced collections do not
+ * skew each other as they would with joins and {@code GROUP BY}. As in SQL, {@code SUM}, {@code AVG},
+ * {@code MIN} and {@code MAX} yield {@code null} for an empty collection, and {@code COUNT} yields 0.
+ * </p>
+ * <p>
+ * Rows are {@code Object[]} holding the {@link #selectedPaths()} followed by the {@link #aggregates()}; the
+ * arguments of a computed field, in the order of its dependencies, are read from a row with
+ * {@link #argumentsOf(String, Object[])}, ready to be passed to its provider method. Collections mapped by
+ * the projection are left out, to be loaded with a {@link CollectionLoader}; the identifier fields of the
+ * entity are then selected first.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * ProjectionAggregateQuery query = ProjectionAggregateQuery.of(UserDTO.class);
+ * for (Object[] row : em.createQuery(query.query() + " WHERE e.active = true", Object[].class).getResultList()) {
+ *     Object[] args = query.argumentsOf("totalSpent", row);
+ *     BigDecimal totalSpent = UserComputations.getTotalSpent((BigDecimal) args[0]);
+ * }
+ * }
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class ProjectionAggregateQuery {
+
+    private static final String SUBQUERY_ALIAS_PREFIX = "r";
+
+    /**
+     * Bounded cache of the queries built so far, shared by all projections and sized like the plan cache
+     * (see {@link ProjectionQueryPlan#PLAN_CACHE_MAX_SIZE_PROPERTY}).
+     */
+    private static final BoundedCache<QueryKey, ProjectionAggregateQuery> QUERY_CACHE =
+            new BoundedCache<>(ProjectionQueryPlan.readPlanCacheMaxSize());
+
+    private final Class<?> entityClass;
+    private final String query;
+    private final List<String> selectedPaths;
+    private final List<Aggregate> aggregates;
+    private final List<String> collectionPaths;
+    private final Map<String, int[]> argumentColumns;
+
+    private ProjectionAggregateQuery(Class<?> entityClass, String query, List<String> selectedPaths,
+                                     List<Aggregate> aggregates, List<String> collectionPaths,
+                                     Map<String, int[]> argumentColumns) {
+        this.entityClass = entityClass;
+        this.query = query;
+        this.selectedPaths = List.copyOf(selectedPaths);
+        this.aggregates = List.copyOf(aggregates);
+        this.collectionPaths = List.copyOf(collectionPaths);
+        this.argumentColumns = Collections.unmodifiableMap(argumentColumns);
+    }
+
+    /**
+     * Returns the query selecting every field of a projection.
+     *
+     * @param dtoClass the projection class, or an entity class for its implicit projection
+     * @return the cached query
+     * @throws IllegalArgumentException if the class has no projection metadata or no field, or one of its
+     *                                  reducers cannot be computed in the database
+     */
+    public static ProjectionAggregateQuery of(Class<?> dtoClass) {
+        return of(dtoClass, FieldSelection.all(metadataOf(dtoClass)));
+    }
+
+    /**
+     * Returns the query selecting some DTO fields of a projection.
+     *
+     * @param dtoClass  the projection class, or an entity class for its implicit projection
+     * @param selection a selection of DTO fields of that projection
+     * @return the cached query
+     * @throws IllegalArgumentException if the class has no projection metadata, the selection is empty, or a
+     *                                  selected reducer cannot be computed in the database
+     */
+    public static ProjectionAggregateQuery of(Class<?> dtoClass, FieldSelection selection) {
+        Objects.requireNonNull(dtoClass, "dtoClass cannot be null");
+        Objects.requireNonNull(selection, "selection cannot be null");
+        if (selection.isEmpty()) {
+            throw new IllegalArgumentException("The selection of " + dtoClass.getName() + " selects no field");
+        }
+        return QUERY_CACHE.get(new QueryKey(dtoClass, selection), key -> build(metadataOf(dtoClass), selection));
+    }
+
+    /**
+     * Returns the query selecting the given DTO fields of a projection.
+     *
+     * @param dtoClass   the projection class, or an entity class for its implicit projection
+     * @param dtoFields  the names of the selected DTO fields
+     * @param ignoreCase whether field names should be compared equals ignoring case
+     * @return the cached query
+     * @throws IllegalArgumentException if the class has no projection metadata, no field is given, a field is
+     *                                  not declared by its projection, or a selected reducer cannot be computed
+     *                                  in the database
+     */
+    public static ProjectionAggregateQuery of(Class<?> dtoClass, Collection<String> dtoFields, boolean ignoreCase) {
+        return of(dtoClass, FieldSelection.of(metadataOf(dtoClass), dtoFields, ignoreCase));
+    }
+
+    /**
+     * Returns the entity class the query selects from.
+     *
+     * @return the projected entity class
+     */
+    public Class<?> entityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Returns the {@code SELECT ... FROM ...} query, the projected entity being aliased
+     * {@value ProjectionQuery#ROOT_ALIAS} so that {@code WHERE} and {@code ORDER BY} clauses can be appended.
+     *
+     * @return the JPQL query
+     */
+    public String query() {
+        return query;
+    }
+
+    /**
+     * Returns the single-valued entity paths selected by the query, which are the first items of each row.
+     *
+     * @return an immutable list of entity paths, in select order
+     */
+    public List<String> selectedPaths() {
+        return selectedPaths;
+    }
+
+    /**
+     * Returns the aggregates selected by the query, which follow the {@link #selectedPaths()} in each row.
+     *
+     * @return an immutable list of aggregates, in select order
+     */
+    public List<Aggregate> aggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Returns the collection-valued entity paths required by the selected direct mappings, which are not
+     * selected and can be loaded with a {@link CollectionLoader}.
+     *
+     * @return an immutable list of entity paths
+     */
+    public List<String> collectionPaths() {
+        return collectionPaths;
+    }
+
+    /**
+     * Returns the arguments of a selected computed field for a row: the value of each dependency in declaration
+     * order, reduced dependencies holding their aggregate.
+     *
+     * @param dtoField the computed DTO field
+     * @param row      a row returned by {@link #query()}
+     * @return a new array of arguments for the provider method of the field
+     * @throws IllegalArgumentException if the field is not a computed field selected by this query
+     */
+    public Object[] argumentsOf(String dtoField, Object[] row) {
+        int[] columns = argumentColumns.get(dtoField);
+        if (columns == null) {
+            throw new IllegalArgumentException("\"" + dtoField + "\" is not a computed field selected by " + this);
+        }
+        Object[] arguments = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            arguments[i] = row[columns[i]];
+        }
+        return arguments;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionAggregateQuery[" + query + "]";
+    }
+
+    /**
+     * Clears the query cache, whose queries depend on the registry providers. Called when a provider is replaced.
+     */
+    static void clearCache() {
+        QUERY_CACHE.clear();
+    }
+
+    private static ProjectionMetadata metadataOf(Class<?> dtoClass) {
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(dtoClass);
+        if (metadata == null) {
+            throw new IllegalArgumentException("No projection metadata found for " + dtoClass.getName());
+        }
+        return metadata;
+    }
+
+    private static ProjectionAggregateQuery build(ProjectionMetadata metadata, FieldSelection selection) {
+        Class<?> entityClass = metadata.entityClass();
+        Set<String> paths = new LinkedHashSet<>();
+        List<Aggregate> aggregates = new ArrayList<>();
+        Map<String, ComputedField> computedFields = new LinkedHashMap<>();
+        int subqueryAliases = 0;
+
+        // Reduced dependencies become subqueries, every other required path is selected as is
+        for (Map.Entry<String, Set<String>> entry : RequiredPaths.of(metadata, selection, false).fieldPaths().entrySet()) {
+            Set<String> fieldPaths = new LinkedHashSet<>(entry.getValue());
+            int fieldId = metadata.fieldIdOf(entry.getKey());
+            if (!metadata.isDirectMapping(fieldId)) {
+                ComputedField field = metadata.computedFieldAt(fieldId);
+                computedFields.put(field.dtoField(), field);
+                for (ComputedField.ReducerMapping mapping : field.reducers()) {
+                    String dependency = field.dependencies()[mapping.dependencyIndex()];
+                    Reducer reducer = Reducer.of(mapping.reducer());
+                    Subquery subquery = Subquery.of(entityClass, dependency, subqueryAliases);
+                    if (subquery == null) {
+                        throw new IllegalArgumentException("Reducer " + reducer + " of \"" + field.dtoField()
+                                + "\" applies to \"" + dependency + "\", which traverses no collection of "
+                                + entityClass.getSimpleName());
+                    }
+                    subqueryAliases += subquery.aliases();
+                    aggregates.add(new Aggregate(field.dtoField(), mapping.dependencyIndex(), dependency, reducer,
+                            "(SELECT " + reducer.apply(subquery.value()) + " FROM " + subquery.from() + ")"));
+                    fieldPaths.remove(dependency);
+                }
+            }
+            paths.addAll(fieldPaths);
+        }
+
+        JoinTree tree = JoinPlanner.plan(entityClass, paths);
+        if (!tree.collectionPaths().isEmpty()) {
+            // Identifiers correlate the rows with the collections loaded separately
+            Set<String> withIds = new LinkedHashSet<>(CollectionLoader.idFieldsOf(entityClass));
+            withIds.addAll(paths);
+            paths = withIds;
+            tree = JoinPlanner.plan(entityClass, paths);
+        }
+
+        List<String> selectedPaths = new ArrayList<>();
+        List<String> items = new ArrayList<>();
+        for (String path : paths) {
+            if (tree.targetOf(path) != null) {
+                selectedPaths.add(path);
+                items.add(tree.expressionOf(path));
+            }
+        }
+        for (Aggregate aggregate : aggregates) {
+            items.add(aggregate.expression());
+        }
+        String query = "SELECT " + String.join(", ", items) + " FROM "
+                + tree.fromClause(CollectionLoader.entityName(entityClass));
+
+        Map<String, int[]> argumentColumns = new LinkedHashMap<>();
+        computedFields.forEach((dtoField, field) -> {
+            int[] columns = new int[field.dependencies().length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = selectedPaths.indexOf(field.dependencies()[i]);
+            }
+            for (int a = 0; a < aggregates.size(); a++) {
+                if (aggregates.get(a).dtoField().equals(dtoField)) {
+                    columns[aggregates.get(a).dependencyIndex()] = selectedPaths.size() + a;
+                }
+            }
+            argumentColumns.put(dtoField, columns);
+        });
+        return new ProjectionAggregateQuery(entityClass, query, selectedPaths, aggregates, tree.collectionPaths(),
+                argumentColumns);
+    }
+
+    /**
+     * Reducers that can be computed by the database, named as in {@code @Computed(reducers = ...)}.
+     */
+    public enum Reducer {
+        SUM, AVG, COUNT, COUNT_DISTINCT, MIN, MAX;
+
+        /**
+         * Returns the reducer of a name, ignoring case.
+         *
+         * @param name the reducer name, e.g. {@code "SUM"}
+         * @return the reducer
+         * @throws IllegalArgumentException if the reducer cannot be computed by the database
+         */
+        public static Reducer of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Reducer \"" + name + "\" cannot be computed in the database, "
+                        + "expected one of " + Arrays.toString(values()));
+            }
+        }
+
+        /**
+         * Returns the JPQL aggregate of an expression.
+         *
+         * @param expression the aggregated expression
+         * @return the aggregate expression, e.g. {@code SUM(r1.amount)} or {@code COUNT(DISTINCT r1.product)}
+         */
+        public String apply(String expression) {
+            return this == COUNT_DISTINCT ? "COUNT(DISTINCT " + expression + ")" : name() + "(" + expression + ")";
+        }
+    }
+
+    /**
+     * Aggregate selected for a reduced dependency of a computed field.
+     *
+     * @param dtoField        the computed DTO field
+     * @param dependencyIndex the index of the dependency in {@link ComputedField#dependencies()}
+     * @param dependency      the reduced entity path
+     * @param reducer         the reducer applied to its values
+     * @param expression      the correlated JPQL subquery computing the aggregate
+     */
+    public record Aggregate(String dtoField, int dependencyIndex, String dependency, Reducer reducer,
+                            String expression) {
+
+        public Aggregate {
+            Objects.requireNonNull(dtoField, "dtoField cannot be null");
+            Objects.requireNonNull(dependency, "dependency cannot be null");
+            Objects.requireNonNull(reducer, "reducer cannot be null");
+            Objects.requireNonNull(expression, "expression cannot be null");
+        }
+    }
+
+    /**
+     * Correlated subquery reducing a dependency: the first collection it traverses is declared from the outer
+     * root, the next ones are joined, and {@code value} designates the reduced values.
+     */
+    private record Subquery(String value, String from, int aliases) {
+
+        /**
+         * Plans the subquery of a dependency, numbering its aliases from {@code aliasOffset + 1}. Segments unknown
+         * to {@link PersistenceRegistry} are navigated as written.
+         *
+         * @return the subquery, or {@code null} if the dependency traverses no collection
+         */
+        static Subquery of(Class<?> entityClass, String dependency, int aliasOffset) {
+            StringBuilder from = new StringBuilder();
+            String current = ProjectionQuery.ROOT_ALIAS;
+            Class<?> type = entityClass;
+            int aliases = 0;
+            for (String segment : dependency.split("\\.")) {
+                PersistenceMetadata field = type != null ? PersistenceRegistry.getFieldMetadata(type, segment) : null;
+                if (field != null && field.isCollection()) {
+                    String alias = SUBQUERY_ALIAS_PREFIX + (aliasOffset + ++aliases);
+                    from.append(from.isEmpty() ? "" : " JOIN ").append(current).append('.').append(segment)
+                            .append(' ').append(alias);
+                    current = alias;
+                } else {
+                    current = current + "." + segment;
+                }
+                type = field != null ? field.relatedType() : null;
+            }
+            return aliases == 0 ? null : new Subquery(current, from.toString(), aliases);
+        }
+    }
+
+    private record QueryKey(Class<?> dtoClass, FieldSelection selection) {
+    }
+}
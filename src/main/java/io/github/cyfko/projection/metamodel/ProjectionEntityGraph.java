@@ -0,0 +1,235 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fetch graph loading exactly the attributes a projection reads from its entity, so that mapping loaded
+ * entities to the DTO does not trigger lazy loading one association at a time (N+1 queries).
+ * <p>
+ * The graph is derived from the entity paths required by the selected DTO fields: the targets of the direct
+ * mappings and the dependencies of the computed fields, nested projections contributing their own paths,
+ * including those of collections. Every path becomes an attribute node, and every association or embeddable
+ * it traverses a subgraph. Segments unknown to {@link PersistenceRegistry} are left out, since an entity graph
+ * only accepts persistent attributes.
+ * </p>
+ * <p>
+ * The attribute tree is computed once per projection and {@link FieldSelection}, then cached; an
+ * {@link EntityGraph} is created from it for each {@link EntityManager}, as entity graphs are mutable and
+ * bound to their persistence unit.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * ProjectionEntityGraph graph = ProjectionEntityGraph.of(UserDTO.class);
+ * List<User> users = em.createQuery("SELECT u FROM User u", User.class)
+ *         .setHint(ProjectionEntityGraph.FETCH_GRAPH_HINT, graph.createIn(em))
+ *         .getResultList();
+ * }
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class ProjectionEntityGraph {
+
+    /**
+     * Query hint and {@link EntityManager#find(Class, Object, Map) find} property applying an entity graph as a
+     * fetch graph: the attributes of the graph are fetched eagerly, the others are treated as lazy.
+     */
+    public static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    /**
+     * Bounded cache of the graphs computed so far, shared by all projections and sized like the plan cache
+     * (see {@link ProjectionQueryPlan#PLAN_CACHE_MAX_SIZE_PROPERTY}).
+     */
+    private static final BoundedCache<GraphKey, ProjectionEntityGraph> GRAPH_CACHE =
+            new BoundedCache<>(ProjectionQueryPlan.readPlanCacheMaxSize());
+
+    private final Class<?> entityClass;
+    private final AttributeNode root;
+
+    private ProjectionEntityGraph(Class<?> entityClass, AttributeNode root) {
+        this.entityClass = entityClass;
+        this.root = root;
+    }
+
+    /**
+     * Returns the graph fetching everything the projection reads.
+     *
+     * @param dtoClass the projection class, or an entity class for its implicit projection
+     * @return the cached graph
+     * @throws IllegalArgumentException if the class has no projection metadata
+     */
+    public static ProjectionEntityGraph of(Class<?> dtoClass) {
+        return of(dtoClass, FieldSelection.all(metadataOf(dtoClass)));
+    }
+
+    /**
+     * Returns the graph fetching what the selected DTO fields of a projection read.
+     *
+     * @param dtoClass  the projection class, or an entity class for its implicit projection
+     * @param selection a selection of DTO fields of that projection
+     * @return the cached graph
+     * @throws IllegalArgumentException if the class has no projection metadata
+     */
+    public static ProjectionEntityGraph of(Class<?> dtoClass, FieldSelection selection) {
+        Objects.requireNonNull(dtoClass, "dtoClass cannot be null");
+        Objects.requireNonNull(selection, "selection cannot be null");
+        return GRAPH_CACHE.get(new GraphKey(dtoClass, selection), key -> build(metadataOf(dtoClass), selection));
+    }
+
+    /**
+     * Returns the graph fetching what the given DTO fields of a projection read.
+     *
+     * @param dtoClass   the projection class, or an entity class for its implicit projection
+     * @param dtoFields  the names of the selected DTO fields
+     * @param ignoreCase whether field names should be compared equals ignoring case
+     * @return the cached graph
+     * @throws IllegalArgumentException if the class has no projection metadata or a field is not declared
+     *                                  by its projection
+     */
+    public static ProjectionEntityGraph of(Class<?> dtoClass, Collection<String> dtoFields, boolean ignoreCase) {
+        return of(dtoClass, FieldSelection.of(metadataOf(dtoClass), dtoFields, ignoreCase));
+    }
+
+    /**
+     * Returns the entity class the graph applies to.
+     *
+     * @return the projected entity class
+     */
+    public Class<?> entityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Returns the attribute paths fetched by the graph, subgraph attributes being listed after their owner.
+     *
+     * @return an immutable list of entity paths
+     */
+    public List<String> attributePaths() {
+        List<String> paths = new ArrayList<>();
+        root.collectPaths("", paths);
+        return List.copyOf(paths);
+    }
+
+    /**
+     * Creates the graph for an entity manager.
+     *
+     * @param entityManager the entity manager running the queries
+     * @param <T>           the entity type
+     * @return a new entity graph
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EntityGraph<T> createIn(EntityManager entityManager) {
+        EntityGraph<T> graph = entityManager.createEntityGraph((Class<T>) entityClass);
+        root.populate(graph::addAttributeNodes, graph::addSubgraph);
+        return graph;
+    }
+
+    /**
+     * Creates the graph for an entity manager and wraps it as a fetch graph hint, to be passed to
+     * {@link EntityManager#find(Class, Object, Map)} or set on a query.
+     *
+     * @param entityManager the entity manager running the queries
+     * @return an immutable map holding the {@value #FETCH_GRAPH_HINT} hint
+     */
+    public Map<String, Object> fetchGraphHint(EntityManager entityManager) {
+        return Map.of(FETCH_GRAPH_HINT, createIn(entityManager));
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionEntityGraph[" + entityClass.getSimpleName() + ", " + attributePaths() + "]";
+    }
+
+    /**
+     * Clears the graph cache, whose graphs depend on the registry providers. Called when a provider is replaced.
+     */
+    static void clearCache() {
+        GRAPH_CACHE.clear();
+    }
+
+    private static ProjectionMetadata metadataOf(Class<?> dtoClass) {
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(dtoClass);
+        if (metadata == null) {
+            throw new IllegalArgumentException("No projection metadata found for " + dtoClass.getName());
+        }
+        return metadata;
+    }
+
+    private static ProjectionEntityGraph build(ProjectionMetadata metadata, FieldSelection selection) {
+        AttributeNode root = new AttributeNode();
+        for (String path : RequiredPaths.of(metadata, selection, true).paths()) {
+            AttributeNode node = root;
+            Class<?> type = metadata.entityClass();
+            String[] segments = path.split("\\.");
+            for (int i = 0; i < segments.length; i++) {
+                PersistenceMetadata field = PersistenceRegistry.getFieldMetadata(type, segments[i]);
+                if (field == null) {
+                    break; // not a persistent attribute
+                }
+                type = field.relatedType();
+                boolean navigable = PersistenceRegistry.isEntityRegistered(type)
+                        || PersistenceRegistry.isEmbeddableRegistered(type);
+                if (i == segments.length - 1 || !navigable) {
+                    node.attributes.add(segments[i]);
+                    break;
+                }
+                node = node.subgraphs.computeIfAbsent(segments[i], s -> new AttributeNode());
+            }
+        }
+        return new ProjectionEntityGraph(metadata.entityClass(), root);
+    }
+
+    /**
+     * Attributes of a graph or subgraph, an attribute having a subgraph when some of its own attributes are
+     * fetched as well.
+     */
+    private static final class AttributeNode {
+        private final Set<String> attributes = new LinkedHashSet<>();
+        private final Map<String, AttributeNode> subgraphs = new LinkedHashMap<>();
+
+        void populate(Consumer<String[]> addAttributeNodes, Function<String, Subgraph<?>> addSubgraph) {
+            String[] leaves = attributes.stream().filter(a -> !subgraphs.containsKey(a)).toArray(String[]::new);
+            if (leaves.length > 0) {
+                addAttributeNodes.accept(leaves);
+            }
+            subgraphs.forEach((attribute, node) -> {
+                Subgraph<?> subgraph = addSubgraph.apply(attribute);
+                node.populate(subgraph::addAttributeNodes, subgraph::addSubgraph);
+            });
+        }
+
+        void collectPaths(String prefix, List<String> paths) {
+            for (String attribute : attributes) {
+                if (!subgraphs.containsKey(attribute)) {
+                    paths.add(prefix + attribute);
+                }
+            }
+            subgraphs.forEach((attribute, node) -> {
+                paths.add(prefix + attribute);
+                node.collectPaths(prefix + attribute + ".", paths);
+            });
+        }
+    }
+
+    private record GraphKey(Class<?> dtoClass, FieldSelection selection) {
+    }
+}
@@ -0,0 +1,348 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Criteria API plan selecting the entity fields required by a subset of the DTO fields of a projection,
+ * for dynamic field selection.
+ * <p>
+ * A plan is computed once per projection and {@link FieldSelection}, then cached: the selection being a
+ * bitmask over the DTO field ids, it is a canonical signature of the requested fields, independent of their
+ * order or casing, so every request asking for the same shape reuses the same plan. Applying a plan to a
+ * {@link CriteriaQuery} only replays the precomputed joins and selections, without consulting the registries.
+ * </p>
+ * <p>
+ * Joins are planned by {@link JoinPlanner}: to-one associations are joined once each and aliased {@code j1},
+ * {@code j2}..., embedded paths are navigated from their owner, and collection-valued paths are set aside in
+ * {@link #collectionPaths()}, the identifier fields of the entity being selected first when there are some.
+ * Nested projections reached through a single-valued field contribute their own fields. Selections are
+ * aliased {@code s0}, {@code s1}... in select order, except selected associations which are selected
+ * through their join and keep its alias.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * ProjectionQueryPlan plan = ProjectionQueryPlan.of(UserDTO.class, List.of("userEmail", "city"), false);
+ * CriteriaQuery<Tuple> query = em.getCriteriaBuilder().createTupleQuery();
+ * Root<?> root = plan.applyTo(query);
+ * query.where(cb.like(root.get("email"), "%@example.com"));
+ * for (Tuple row : em.createQuery(query).getResultList()) {
+ *     Object city = row.get(plan.aliasOf("address.city"));
+ * }
+ * }
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class ProjectionQueryPlan {
+
+    /**
+     * System property setting the maximum number of plans kept in the plan cache, and of graphs kept in the
+     * {@link ProjectionEntityGraph} cache.
+     */
+    public static final String PLAN_CACHE_MAX_SIZE_PROPERTY = "projection.metamodel.planCache.maxSize";
+
+    /**
+     * Default maximum number of plans kept in the plan cache.
+     */
+    public static final int DEFAULT_PLAN_CACHE_MAX_SIZE = 1_000;
+
+    /**
+     * Bounded cache of the plans computed so far, shared by all projections.
+     */
+    private static final BoundedCache<PlanKey, ProjectionQueryPlan> PLAN_CACHE =
+            new BoundedCache<>(readPlanCacheMaxSize());
+
+    private static final String SELECTION_ALIAS_PREFIX = "s";
+
+    private final FieldSelection selection;
+    private final JoinTree joinTree;
+    private final SelectStep[] selections;
+    private final Map<String, String> aliases;
+    private final Map<String, String> joinAliases;
+    private final Map<String, List<String>> fieldPaths;
+
+    private ProjectionQueryPlan(FieldSelection selection, JoinTree joinTree, Collection<String> paths,
+                                Map<String, Set<String>> fieldPaths) {
+        this.selection = selection;
+        this.joinTree = joinTree;
+
+        List<SelectStep> selections = new ArrayList<>();
+        Map<String, String> aliases = new LinkedHashMap<>();
+        int aliased = 0;
+        for (String path : paths) {
+            JoinTree.Target target = joinTree.targetOf(path);
+            if (target == null) {
+                continue; // collection-valued
+            }
+            // A selected association is the join itself, which keeps its own alias
+            boolean join = target.attributes().isEmpty() && target.from().isJoin();
+            String alias = join ? target.from().alias() : SELECTION_ALIAS_PREFIX + aliased++;
+            selections.add(new SelectStep(target, alias, !join));
+            aliases.put(path, alias);
+        }
+        Map<String, String> joinAliases = new LinkedHashMap<>();
+        for (JoinTree.Node join : joinTree.joins()) {
+            joinAliases.put(join.path(), join.alias());
+        }
+        Map<String, List<String>> dtoFieldPaths = new LinkedHashMap<>();
+        fieldPaths.forEach((dtoField, entityPaths) -> dtoFieldPaths.put(dtoField, List.copyOf(entityPaths)));
+
+        this.selections = selections.toArray(SelectStep[]::new);
+        this.aliases = Collections.unmodifiableMap(aliases);
+        this.joinAliases = Collections.unmodifiableMap(joinAliases);
+        this.fieldPaths = Collections.unmodifiableMap(dtoFieldPaths);
+    }
+
+    /**
+     * Returns the plan selecting the given DTO fields of a projection, computing it on first request.
+     *
+     * @param dtoClass  the projection class, or an entity class for its implicit projection
+     * @param selection a selection of DTO fields of that projection
+     * @return the cached plan
+     * @throws IllegalArgumentException if the class has no projection metadata or the selection is empty
+     */
+    public static ProjectionQueryPlan of(Class<?> dtoClass, FieldSelection selection) {
+        Objects.requireNonNull(dtoClass, "dtoClass cannot be null");
+        Objects.requireNonNull(selection, "selection cannot be null");
+        if (selection.isEmpty()) {
+            throw new IllegalArgumentException("The selection of " + dtoClass.getName() + " selects no field");
+        }
+        return PLAN_CACHE.get(new PlanKey(dtoClass, selection), key -> plan(metadataOf(dtoClass), selection));
+    }
+
+    /**
+     * Returns the plan selecting the given DTO fields of a projection, computing it on first request.
+     *
+     * @param dtoClass   the projection class, or an entity class for its implicit projection
+     * @param dtoFields  the names of the selected DTO fields
+     * @param ignoreCase whether field names should be compared equals ignoring case
+     * @return the cached plan
+     * @throws IllegalArgumentException if the class has no projection metadata, no field is given, or a field
+     *                                  is not declared by its projection
+     */
+    public static ProjectionQueryPlan of(Class<?> dtoClass, Collection<String> dtoFields, boolean ignoreCase) {
+        return of(dtoClass, FieldSelection.of(metadataOf(dtoClass), dtoFields, ignoreCase));
+    }
+
+    /**
+     * Returns a snapshot of the plan cache statistics.
+     *
+     * @return the plan cache statistics
+     */
+    public static CacheStats getPlanCacheStats() {
+        return PLAN_CACHE.stats();
+    }
+
+    /**
+     * Returns the entity class the plan selects from.
+     *
+     * @return the projected entity class
+     */
+    public Class<?> entityClass() {
+        return joinTree.entityClass();
+    }
+
+    /**
+     * Returns the DTO fields the plan was computed for.
+     *
+     * @return the field selection
+     */
+    public FieldSelection selection() {
+        return selection;
+    }
+
+    /**
+     * Returns the entity paths selected by the plan, in select order.
+     *
+     * @return an immutable list of entity paths
+     */
+    public List<String> selectedPaths() {
+        return List.copyOf(aliases.keySet());
+    }
+
+    /**
+     * Returns the collection-valued entity paths required by the selected DTO fields and left out of the
+     * select clause, to be loaded separately.
+     *
+     * @return an immutable list of entity paths
+     */
+    public List<String> collectionPaths() {
+        return joinTree.collectionPaths();
+    }
+
+    /**
+     * Returns the joins of the plan.
+     *
+     * @return the join tree, planned by {@link JoinPlanner}
+     */
+    public JoinTree joinTree() {
+        return joinTree;
+    }
+
+    /**
+     * Returns the aliases of the selections, keyed by entity path, in select order.
+     *
+     * @return an immutable map of entity paths to tuple aliases
+     */
+    public Map<String, String> aliases() {
+        return aliases;
+    }
+
+    /**
+     * Returns the aliases of the joins, keyed by the entity path of the joined association, in join order.
+     *
+     * @return an immutable map of association paths to join aliases
+     */
+    public Map<String, String> joinAliases() {
+        return joinAliases;
+    }
+
+    /**
+     * Returns the tuple alias of a selected entity path.
+     *
+     * @param entityPath the entity path
+     * @return the alias, or {@code null} if the path is not selected by the plan
+     */
+    public String aliasOf(String entityPath) {
+        return aliases.get(entityPath);
+    }
+
+    /**
+     * Returns the entity paths a selected DTO field is read from, including collection-valued ones.
+     *
+     * @param dtoField the DTO field name, as declared by the projection
+     * @return an immutable list of entity paths, empty if the field is not selected
+     */
+    public List<String> entityPathsOf(String dtoField) {
+        return fieldPaths.getOrDefault(dtoField, List.of());
+    }
+
+    /**
+     * Returns the tuple aliases a selected DTO field is read from, in the order of {@link #entityPathsOf(String)}.
+     * Collection-valued paths, which have no alias, are skipped.
+     *
+     * @param dtoField the DTO field name, as declared by the projection
+     * @return an immutable list of aliases, empty if the field is not selected
+     */
+    public List<String> aliasesOf(String dtoField) {
+        List<String> result = new ArrayList<>();
+        for (String path : entityPathsOf(dtoField)) {
+            String alias = aliases.get(path);
+            if (alias != null) {
+                result.add(alias);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Adds the root, joins and selections of the plan to a tuple query.
+     * <p>
+     * The root is aliased {@value ProjectionQuery#ROOT_ALIAS} and returned, so that the caller can add its own
+     * restrictions and orderings.
+     * </p>
+     *
+     * @param query the query to populate
+     * @return the root of the query
+     */
+    public Root<?> applyTo(CriteriaQuery<Tuple> query) {
+        Root<?> root = query.from(entityClass());
+        root.alias(ProjectionQuery.ROOT_ALIAS);
+        From<?, ?>[] froms = joinTree.applyTo(root);
+
+        List<Selection<?>> items = new ArrayList<>(selections.length);
+        for (SelectStep step : selections) {
+            Path<?> path = froms[step.target().from().index()];
+            for (String attribute : step.target().attributes()) {
+                path = path.get(attribute);
+            }
+            items.add(step.aliased() ? path.alias(step.alias()) : path);
+        }
+        query.multiselect(items);
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionQueryPlan[" + entityClass().getSimpleName() + ", selected=" + aliases.keySet()
+                + ", joins=" + joinAliases.keySet() + ", collections=" + collectionPaths() + "]";
+    }
+
+    /**
+     * Clears the plan cache, whose plans depend on the registry providers. Called when a provider is replaced.
+     */
+    static void clearCache() {
+        PLAN_CACHE.clear();
+    }
+
+    private static ProjectionMetadata metadataOf(Class<?> dtoClass) {
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(dtoClass);
+        if (metadata == null) {
+            throw new IllegalArgumentException("No projection metadata found for " + dtoClass.getName());
+        }
+        return metadata;
+    }
+
+    private static ProjectionQueryPlan plan(ProjectionMetadata metadata, FieldSelection selection) {
+        RequiredPaths required = RequiredPaths.of(metadata, selection, false);
+        Class<?> entityClass = metadata.entityClass();
+        Collection<String> paths = required.paths();
+        JoinTree joinTree = JoinPlanner.plan(entityClass, paths);
+
+        // Identifiers correlate the rows with the collections loaded separately
+        if (!joinTree.collectionPaths().isEmpty()) {
+            Set<String> withIds = new LinkedHashSet<>();
+            Map<String, PersistenceMetadata> fields = PersistenceRegistry.getMetadataFor(entityClass);
+            if (fields != null) {
+                fields.forEach((name, field) -> {
+                    if (field.isId()) {
+                        withIds.add(name);
+                    }
+                });
+            }
+            withIds.addAll(paths);
+            paths = withIds;
+            joinTree = JoinPlanner.plan(entityClass, paths);
+        }
+        return new ProjectionQueryPlan(selection, joinTree, paths, required.fieldPaths());
+    }
+
+    /**
+     * Returns the maximum size of the plan caches, read from {@value #PLAN_CACHE_MAX_SIZE_PROPERTY}.
+     */
+    static int readPlanCacheMaxSize() {
+        int maxSize = Integer.getInteger(PLAN_CACHE_MAX_SIZE_PROPERTY, DEFAULT_PLAN_CACHE_MAX_SIZE);
+        return maxSize > 0 ? maxSize : DEFAULT_PLAN_CACHE_MAX_SIZE;
+    }
+
+    /**
+     * Selection of a planned path, aliased unless it selects a join.
+     */
+    private record SelectStep(JoinTree.Target target, String alias, boolean aliased) {
+    }
+
+    private record PlanKey(Class<?> dtoClass, FieldSelection selection) {
+    }
+}
@@ -5,14 +5,23 @@ import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
 import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
 import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
 import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldIndex;
 import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
 import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
 
 /**
  * Centralized utility class serving as a unified registry for handling projection metadata within the JPA context.
@@ -43,9 +52,37 @@ public final class ProjectionRegistry {
     private static volatile ProjectionMetadataRegistryProvider PROVIDER;
 
     /**
-     * Cache storing precomputed mappings from DTO projection paths to entity paths per DTO class.
+     * Per-class slots holding the declared and implicit projection metadata of each class.
+     * <p>
+     * Slots are stored on the classes themselves through {@link ClassValue}, so that repeated lookups skip
+     * hashing into the provider maps and do not keep the classes (nor their class loaders) reachable once
+     * they are unloaded. The holder is replaced as a whole when the provider changes, and keeps only its declared
+     * slots when the persistence registry provider changes.
+     * </p>
+     */
+    private static volatile Slots SLOTS = new Slots();
+
+    /**
+     * System property setting the maximum number of DTO path translations kept in the path cache.
+     */
+    public static final String PATH_CACHE_MAX_SIZE_PROPERTY = "projection.metamodel.pathCache.maxSize";
+
+    /**
+     * Default maximum number of DTO path translations kept in the path cache.
+     */
+    public static final int DEFAULT_PATH_CACHE_MAX_SIZE = 10_000;
+
+    /**
+     * Bounded cache of DTO path resolutions performed at runtime, shared by all DTO classes.
+     * Unresolved paths are cached as well.
+     * <p>
+     * Case-insensitive translations are keyed by the case-folded DTO path (see {@link FieldIndex#fold(String)}),
+     * so every casing of a path shares a single entry. Hits never take a lock; once the cache is full, the
+     * least frequently used translations are evicted.
+     * </p>
      */
-    private static final Map<Class<?>, Map<String, String>> PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE = new HashMap<>();
+    private static final BoundedCache<PathKey, PathResolution> PATH_CACHE =
+            new BoundedCache<>(readPathCacheMaxSize());
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -67,7 +104,7 @@ public final class ProjectionRegistry {
      */
     public static ProjectionMetadataRegistryProvider getProjectionRegistryProvider() {
         if (PROVIDER == null) {
-            synchronized (PersistenceRegistry.class) {
+            synchronized (ProjectionRegistry.class) {
                 if (PROVIDER == null) {
                     PROVIDER = loadProvider();
                 }
@@ -77,16 +114,50 @@ public final class ProjectionRegistry {
     }
 
     /**
-     * Loads the generated projection metadata registry provider implementation via reflection.
+     * Reads the {@value #PATH_CACHE_MAX_SIZE_PROPERTY} system property, ignoring missing, malformed or
+     * non-positive values.
+     *
+     * @return the maximum size of the path cache
+     */
+    private static int readPathCacheMaxSize() {
+        int maxSize = Integer.getInteger(PATH_CACHE_MAX_SIZE_PROPERTY, DEFAULT_PATH_CACHE_MAX_SIZE);
+        return maxSize > 0 ? maxSize : DEFAULT_PATH_CACHE_MAX_SIZE;
+    }
+
+    /**
+     * Loads the generated projection metadata registry provider implementations.
      * <p>
-     * Attempts to instantiate {@code io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl}
-     * with its default constructor. This class is expected to be generated at compile-time by an annotation processor.
+     * The annotation processor registers the provider it generates in {@code META-INF/services}, so every module's
+     * provider is found through {@link ServiceLoader} with the thread context class loader, which needs no reflective
+     * lookup by name and is supported by native images. Providers contributed by several modules are merged once into
+     * a single index (see {@link MergedRegistryProviders}), together with the binary registry resources written when
+     * the processor runs with {@code -Aprojection.metamodel.registryFormat=binary} (see
+     * {@link BinaryRegistryProviders}). When neither a service entry nor a binary resource is visible (e.g. when it was stripped
+     * while repackaging), the default {@code ProjectionMetadataRegistryProviderImpl} class is looked up by name as a
+     * fallback.
      * </p>
      *
      * @return the loaded {@link ProjectionMetadataRegistryProvider} instance
      * @throws IllegalStateException if the implementation class is not found or cannot be instantiated
      */
     private static ProjectionMetadataRegistryProvider loadProvider() {
+        List<ProjectionMetadataRegistryProvider> providers = new ArrayList<>();
+        try {
+            ServiceLoader.load(ProjectionMetadataRegistryProvider.class).forEach(providers::add);
+        } catch (ServiceConfigurationError e) {
+            throw new IllegalStateException("Error instantiating ProjectionMetadataRegistryProviderImpl", e);
+        }
+        providers.addAll(BinaryRegistryProviders.projections());
+        return providers.isEmpty() ? loadProviderByName() : MergedRegistryProviders.projections(providers);
+    }
+
+    /**
+     * Instantiates the generated projection metadata registry provider implementation via reflection.
+     *
+     * @return the loaded {@link ProjectionMetadataRegistryProvider} instance
+     * @throws IllegalStateException if the implementation class is not found or cannot be instantiated
+     */
+    private static ProjectionMetadataRegistryProvider loadProviderByName() {
         try {
             Class<?> registryClass = Class.forName(
                     "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl"
@@ -135,13 +206,9 @@ public final class ProjectionRegistry {
      * </pre>
      */
     public static ProjectionMetadata getMetadataFor(Class<?> dtoClass) {
-        ProjectionMetadata projectionMetadata = getProjectionRegistryProvider().getProjectionMetadataRegistry().get(dtoClass);
-
-        if (projectionMetadata == null && PersistenceRegistry.isEntityRegistered(dtoClass)) {
-            projectionMetadata = getImplicitProjectionMetadataFromEntity(dtoClass);
-        }
-
-        return projectionMetadata;
+        final Slots slots = SLOTS;
+        ProjectionMetadata projectionMetadata = slots.declared.get(dtoClass).metadata();
+        return projectionMetadata != null ? projectionMetadata : slots.implicit.get(dtoClass).orElse(null);
     }
 
     /**
@@ -150,6 +217,7 @@ public final class ProjectionRegistry {
      * Each persistent property of the entity is mapped as a direct projection using the same field name for both DTO and entity.
      * Collection fields are annotated with their collection-specific metadata if present.
      * This method is used for JPA entity classes that do not have explicit projection metadata, enabling default, field-for-field projections.
+     * Its result is memoized in the slot of the entity class, so it runs once per entity class.
      * </p>
      *
      * @param entityClass a class known to be a JPA entity
@@ -187,7 +255,7 @@ public final class ProjectionRegistry {
      * @return {@code true} if metadata for the class exists, {@code false} otherwise
      */
     public static boolean hasProjection(Class<?> dtoClass) {
-        return getProjectionRegistryProvider().getProjectionMetadataRegistry().containsKey(dtoClass);
+        return SLOTS.declared.get(dtoClass).metadata() != null;
     }
 
     /**
@@ -204,14 +272,25 @@ public final class ProjectionRegistry {
         return metadata != null ? metadata.getAllRequiredEntityFields() : List.of();
     }
 
+    /**
+     * Returns the JPQL queries precomputed by the annotation processor for the specified DTO projection class,
+     * selecting only the entity fields the projection needs.
+     *
+     * @param dtoClass the DTO projection class to query
+     * @return the precomputed queries, or {@code null} if the class is not a projection or its registry was
+     * generated without queries
+     */
+    public static ProjectionQuery getQueryFor(Class<?> dtoClass) {
+        return SLOTS.declared.get(dtoClass).query();
+    }
+
     /**
      * Converts a DTO projection field path to the corresponding entity field path.
      * <p>
-     * This method resolves projection paths recursively, considering both computed
+     * This method resolves projection paths segment by segment, considering both computed
      * fields and direct entity field mappings defined in the projection metadata.
-     * </p>
-     * <p>
-     * Caching is employed to optimize repeated lookups for the same DTO class and path.
+     * It is a throwing variant of {@link #tryToEntityPath(String, Class, boolean)}, which should be
+     * preferred when the path comes from untrusted input.
      * </p>
      *
      * @param dtoPath    the projection field path in DTO format (e.g., {@code "address.city"} or {@code "fullName"})
@@ -266,98 +345,326 @@ public final class ProjectionRegistry {
      * </pre>
      */
     public static String toEntityPath(String dtoPath, Class<?> dtoClass, boolean ignoreCase) {
-        synchronized (PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE) {
-            if (PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE.containsKey(dtoClass)) {
-                Map<String, String> mappingsCache = PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE.get(dtoClass);
-                if (ignoreCase) {
-                    Optional<String> match = mappingsCache.keySet().stream()
-                            .filter(k -> k.equalsIgnoreCase(dtoPath))
-                            .findFirst();
-                    if (match.isPresent()) {
-                        return mappingsCache.get(match.get());
-                    }
-                } else if (mappingsCache.containsKey(dtoPath)) {
-                    return mappingsCache.get(dtoPath);
-                }
+        PathResolution resolution = tryToEntityPath(dtoPath, dtoClass, ignoreCase);
+        if (!resolution.isResolved()) {
+            throw new IllegalArgumentException(
+                    "\"" + dtoPath + "\" does not resolve to a valid projection field path: " + resolution.reason());
+        }
+        return resolution.entityPath();
+    }
+
+    /**
+     * Converts a DTO projection field path to the corresponding entity field path, reporting invalid
+     * paths through the returned {@link PathResolution} instead of throwing.
+     * <p>
+     * Case-sensitive lookups are first served from the table precomputed by the annotation processor
+     * (see {@link ProjectionMetadataRegistryProvider#getEntityPathRegistry()}), so that paths within the
+     * configured depth are translated with a single map lookup, without warm-up.
+     * Other paths, including the unresolved ones, are kept in a bounded, frequency-aware cache
+     * (see {@link #getPathCacheStats()}), so that repeated invalid input is rejected with a single lookup.
+     * Cache hits never take a lock, so concurrent request threads do not serialize on this method.
+     * </p>
+     *
+     * @param dtoPath    the projection field path in DTO format (e.g., {@code "address.city"} or {@code "fullName"})
+     * @param dtoClass   the DTO projection class context to resolve the path
+     * @param ignoreCase if {@code true}, DTO path matching is case-insensitive
+     * @return the translated entity path, or the first segment that could not be resolved
+     * @see #toEntityPath(String, Class, boolean)
+     */
+    public static PathResolution tryToEntityPath(String dtoPath, Class<?> dtoClass, boolean ignoreCase) {
+        if (!ignoreCase) {
+            String entityPath = SLOTS.declared.get(dtoClass).entityPaths().get(dtoPath);
+            if (entityPath != null) {
+                return PathResolution.resolved(entityPath);
             }
         }
 
-        final StringBuilder entityPath = new StringBuilder();
-        toEntityPathRecursive(dtoPath, dtoClass, entityPath, ignoreCase);
-        String entityPathString = entityPath.toString();
+        final PathKey cacheKey = new PathKey(dtoClass, ignoreCase ? FieldIndex.fold(dtoPath) : dtoPath, ignoreCase);
+        return PATH_CACHE.get(cacheKey, k -> resolve(dtoPath, dtoClass, ignoreCase));
+    }
+
+    /**
+     * Returns the statistics of the cache of DTO path translations resolved at runtime.
+     * <p>
+     * Translations served from the precomputed tables of the generated provider do not go through
+     * this cache and are not counted. Its maximum size is set by the {@value #PATH_CACHE_MAX_SIZE_PROPERTY}
+     * system property (default {@value #DEFAULT_PATH_CACHE_MAX_SIZE}).
+     * </p>
+     *
+     * @return a snapshot of the path cache hit, miss and eviction counters
+     */
+    public static CacheStats getPathCacheStats() {
+        return PATH_CACHE.stats();
+    }
+
+    /**
+     * Translates a selection of DTO projection paths of a single projection in one pass.
+     * <p>
+     * Paths are first looked up like {@link #tryToEntityPath(String, Class, boolean)} does. The remaining
+     * ones are inserted in a prefix trie so that every shared prefix (e.g. {@code orders.} for
+     * {@code orders.id} and {@code orders.amount}) is resolved only once, then cached individually.
+     * </p>
+     *
+     * @param dtoPaths   the projection field paths in DTO format, as requested by the client
+     * @param dtoClass   the DTO projection class context to resolve the paths
+     * @param ignoreCase if {@code true}, DTO path matching is case-insensitive
+     * @return the resolution of every path, in iteration order, and the entity fields to fetch
+     */
+    public static BatchPathResolution tryToEntityPaths(Collection<String> dtoPaths, Class<?> dtoClass, boolean ignoreCase) {
+        final PathResolution[] resolutions = new PathResolution[dtoPaths.size()];
+        final Map<String, String> precomputed = ignoreCase
+                ? null
+                : SLOTS.declared.get(dtoClass).entityPaths();
+        PathTrie trie = null;
+
+        int i = 0;
+        for (String dtoPath : dtoPaths) {
+            String entityPath = precomputed != null ? precomputed.get(dtoPath) : null;
+            if (entityPath != null) {
+                resolutions[i++] = PathResolution.resolved(entityPath);
+                continue;
+            }
+
+            PathKey cacheKey = new PathKey(dtoClass, ignoreCase ? FieldIndex.fold(dtoPath) : dtoPath, ignoreCase);
+            PathResolution cached = PATH_CACHE.get(cacheKey);
+            if (cached == null) {
+                if (trie == null) {
+                    trie = new PathTrie(dtoClass, ignoreCase);
+                }
+                cached = PATH_CACHE.put(cacheKey, trie.resolve(dtoPath));
+            }
+            resolutions[i++] = cached;
+        }
 
-        synchronized (PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE) {
-            PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE.putIfAbsent(dtoClass, new HashMap<>());
-            PROJECTION_TO_ENTITY_PATH_MAPPINGS_CACHE.get(dtoClass).put(dtoPath, entityPathString);
+        final Set<String> entityFields = new LinkedHashSet<>();
+        for (PathResolution resolution : resolutions) {
+            if (resolution.isResolved()) {
+                Collections.addAll(entityFields, resolution.entityPath().split(","));
+            }
         }
 
-        return entityPathString;
+        return new BatchPathResolution(List.of(resolutions), Collections.unmodifiableSet(entityFields));
     }
 
     /**
-     * Recursively resolves the given DTO projection path segments into the equivalent entity path.
+     * Resolves the given DTO projection path segment by segment into the equivalent entity path.
      * <p>
-     * Supports recognition of computed fields and direct mappings. Throws {@link IllegalArgumentException} if an invalid field is encountered.
+     * Supports recognition of computed fields and direct mappings. A computed field ends the resolution:
+     * it translates to its dependencies, prefixed by the entity path of the enclosing projection.
+     * Invalid segments are reported through the returned {@link PathResolution}, without throwing.
      * </p>
      *
-     * @param dtoProjectionPath the projection path segment to resolve
-     * @param dtoClass          the current DTO projection class context
-     * @param entityPath        the builder accumulating the entity path
-     * @param ignoreCase        whether to match DTO fields ignoring case
-     * @throws IllegalArgumentException if the DTO path does not resolve to a valid field mapping
+     * @param dtoPath    the projection path to resolve
+     * @param dtoClass   the DTO projection class the path starts from
+     * @param ignoreCase whether to match DTO fields ignoring case
+     * @return the resolution of the path
      */
-    private static void toEntityPathRecursive(String dtoProjectionPath, Class<?> dtoClass, StringBuilder entityPath, boolean ignoreCase) {
-        try {
-            final ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(dtoClass);
+    private static PathResolution resolve(String dtoPath, Class<?> dtoClass, boolean ignoreCase) {
+        SegmentResolution step = new SegmentResolution(null, "", dtoClass);
+        int segmentStart = 0;
 
-            int dotIndex = dtoProjectionPath.indexOf('.');
-            final String dtoField = dotIndex == -1 ? dtoProjectionPath : dtoProjectionPath.substring(0, dotIndex);
+        while (true) {
+            final int dotIndex = dtoPath.indexOf('.', segmentStart);
+            final String dtoField = dotIndex == -1 ? dtoPath.substring(segmentStart) : dtoPath.substring(segmentStart, dotIndex);
 
-            // Check whether it is a computed field
-            final Optional<ComputedField> computedField = metadata.getComputedField(dtoField, ignoreCase);
-            if (computedField.isPresent()) {
-                String[] dependencies = computedField.get().dependencies();
-                String prefix = entityPath.toString();
+            step = resolveSegment(dtoField, step, ignoreCase);
+            if (step.terminal() != null) {
+                return step.terminal();
+            }
+            if (dotIndex == -1) {
+                return PathResolution.resolved(step.entityPath()); // No remaining field to process
+            }
+            segmentStart = dotIndex + 1;
+        }
+    }
 
-                // use previous entityPath as a prefix for each dependency
-                if (!prefix.isEmpty()) {
-                    entityPath.append(".");
-                }
-                entityPath.append(dependencies[0]);
+    /**
+     * Resolves one DTO path segment against the projection reached by the previous segments.
+     *
+     * @param dtoField   the DTO field named by the segment
+     * @param previous   the resolution of the previous segments
+     * @param ignoreCase whether to match DTO fields ignoring case
+     * @return the resolution including this segment
+     */
+    private static SegmentResolution resolveSegment(String dtoField, SegmentResolution previous, boolean ignoreCase) {
+        final Class<?> currentClass = previous.nextClass();
+        // previous entity path (already terminated by a '.') is the prefix of this segment
+        final String prefix = previous.entityPath().isEmpty() ? "" : previous.entityPath() + ".";
+
+        final ProjectionMetadata metadata = getMetadataFor(currentClass);
+        if (metadata == null) {
+            return SegmentResolution.terminal(PathResolution.unresolved(dtoField,
+                    currentClass.getName() + " is neither a projection nor an entity, so '" + dtoField + "' cannot be resolved"));
+        }
 
-                for (int i = 1; i < dependencies.length; i++) {
-                    entityPath.append(",");
-                    if (!prefix.isEmpty()) {
-                        entityPath.append(prefix).append(".");
-                    }
-                    entityPath.append(dependencies[i]);
-                }
+        // Check whether it is a computed field
+        final Optional<ComputedField> computedField = metadata.getComputedField(dtoField, ignoreCase);
+        if (computedField.isPresent()) {
+            String[] dependencies = computedField.get().dependencies();
+            StringBuilder entityPath = new StringBuilder(prefix).append(dependencies[0]);
 
-                return;
+            for (int i = 1; i < dependencies.length; i++) {
+                entityPath.append(",").append(prefix).append(dependencies[i]);
             }
 
-            // Check whether it is a direct mapping field
-            final Optional<DirectMapping> directMapping = metadata.getDirectMapping(dtoField, ignoreCase);
-            if (directMapping.isEmpty()) {
-                throw new IllegalArgumentException("Invalid field: " + dtoField);
+            return SegmentResolution.terminal(PathResolution.resolved(entityPath.toString()));
+        }
+
+        // Check whether it is a direct mapping field
+        final Optional<DirectMapping> directMapping = metadata.getDirectMapping(dtoField, ignoreCase);
+        if (directMapping.isEmpty()) {
+            return SegmentResolution.terminal(
+                    PathResolution.unresolved(dtoField, "Invalid field '" + dtoField + "' in " + currentClass.getName()));
+        }
+
+        DirectMapping mapping = directMapping.get();
+        return new SegmentResolution(null, prefix + mapping.entityField(), mapping.dtoFieldType());
+    }
+
+    /**
+     * Intermediate state of a path resolution after some of its segments.
+     *
+     * @param terminal   the final resolution when a computed field or an invalid segment was reached,
+     *                   in which case the remaining segments are ignored; {@code null} otherwise
+     * @param entityPath the entity path of the segments resolved so far
+     * @param nextClass  the DTO class the next segment is resolved against
+     */
+    private record SegmentResolution(PathResolution terminal, String entityPath, Class<?> nextClass) {
+        static SegmentResolution terminal(PathResolution resolution) {
+            return new SegmentResolution(resolution, null, null);
+        }
+    }
+
+    /**
+     * Prefix trie of the DTO paths of a batch, each node holding the resolution of the path leading to it.
+     */
+    private static final class PathTrie {
+        private final boolean ignoreCase;
+        private final Node root;
+
+        PathTrie(Class<?> dtoClass, boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+            this.root = new Node(new SegmentResolution(null, "", dtoClass));
+        }
+
+        PathResolution resolve(String dtoPath) {
+            Node node = root;
+            int segmentStart = 0;
+
+            while (true) {
+                final int dotIndex = dtoPath.indexOf('.', segmentStart);
+                final String dtoField = dotIndex == -1 ? dtoPath.substring(segmentStart) : dtoPath.substring(segmentStart, dotIndex);
+
+                final Node parent = node;
+                node = parent.children.computeIfAbsent(ignoreCase ? FieldIndex.fold(dtoField) : dtoField,
+                        k -> new Node(resolveSegment(dtoField, parent.step, ignoreCase)));
+                if (node.step.terminal() != null) {
+                    return node.step.terminal();
+                }
+                if (dotIndex == -1) {
+                    return PathResolution.resolved(node.step.entityPath());
+                }
+                segmentStart = dotIndex + 1;
             }
+        }
 
-            // Record the entity field for the current mapping
-            DirectMapping mapping = directMapping.get();
-            Class<?> nextDtoClass = mapping.dtoFieldType();
-            entityPath.append(mapping.entityField());
+        private static final class Node {
+            final SegmentResolution step;
+            final Map<String, Node> children = new HashMap<>();
 
-            // Recurse on remaining path (if any)
-            if (dotIndex == -1) {
-                return; // No remaining field to process, end recursion
-            } else {
-                entityPath.append(".");
+            Node(SegmentResolution step) {
+                this.step = step;
             }
+        }
+    }
+
+    /**
+     * Replaces the projection registry provider and drops every cached path translation and per-class slot.
+     * Passing {@code null} restores the lazy loading of the generated provider. Useful for testing purposes.
+     * <p>
+     * <strong>Warning:</strong> This method is intended for testing only and should not be used in production code.
+     * </p>
+     *
+     * @param provider the provider to use, or {@code null} to reload the generated one on next access
+     */
+    static void setProvider(ProjectionMetadataRegistryProvider provider) {
+        synchronized (ProjectionRegistry.class) {
+            PROVIDER = provider;
+            SLOTS = new Slots();
+            PATH_CACHE.clear();
+            ProjectionQueryPlan.clearCache();
+            ProjectionEntityGraph.clearCache();
+            CollectionLoader.clearCache();
+            ProjectionAggregateQuery.clearCache();
+        }
+    }
 
-            toEntityPathRecursive(dtoProjectionPath.substring(dotIndex + 1), nextDtoClass, entityPath, ignoreCase);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("\"" + dtoProjectionPath + "\" does not resolve to a valid projection field path.", e);
+    /**
+     * Drops the implicit projections and the cached path translations, which are derived from the persistence
+     * registry. Called when the persistence registry provider is replaced; declared projections are kept.
+     */
+    static void clearDerivedCaches() {
+        synchronized (ProjectionRegistry.class) {
+            SLOTS = new Slots(SLOTS.declared);
+            PATH_CACHE.clear();
         }
     }
 
+    /**
+     * Key of the path cache.
+     *
+     * @param dtoClass   the DTO class the path is resolved against
+     * @param dtoPath    the DTO path, case-folded when {@code ignoreCase} is set
+     * @param ignoreCase whether the path was resolved ignoring case
+     */
+    private record PathKey(Class<?> dtoClass, String dtoPath, boolean ignoreCase) {
+    }
+
+    /**
+     * Projection metadata declared for a class.
+     *
+     * @param metadata    the declared projection metadata, or {@code null} if the class is not a projection
+     * @param entityPaths the precomputed DTO path → entity path table of the projection, possibly empty
+     * @param query       the precomputed queries of the projection, or {@code null} if none were generated
+     */
+    private record DeclaredProjection(ProjectionMetadata metadata, Map<String, String> entityPaths,
+                                      ProjectionQuery query) {
+    }
+
+    /**
+     * Holder of the per-class slots, replaced as a whole when the provider changes.
+     * <p>
+     * Implicit projections live in their own slots so that declared lookups, such as {@link #hasProjection(Class)},
+     * never require the persistence registry.
+     * </p>
+     */
+    private static final class Slots {
+        final ClassValue<DeclaredProjection> declared;
+
+        Slots() {
+            this(new ClassValue<>() {
+                @Override
+                protected DeclaredProjection computeValue(Class<?> type) {
+                    ProjectionMetadataRegistryProvider provider = getProjectionRegistryProvider();
+                    ProjectionMetadata metadata = provider.getProjectionMetadataRegistry().get(type);
+                    Map<String, String> entityPaths = provider.getEntityPathRegistry().get(type);
+                    return new DeclaredProjection(metadata, entityPaths != null ? entityPaths : Map.of(),
+                            provider.getProjectionQueryRegistry().get(type));
+                }
+            });
+        }
+
+        Slots(ClassValue<DeclaredProjection> declared) {
+            this.declared = declared;
+        }
+
+        final ClassValue<Optional<ProjectionMetadata>> implicit = new ClassValue<>() {
+            @Override
+            protected Optional<ProjectionMetadata> computeValue(Class<?> type) {
+                return PersistenceRegistry.isEntityRegistered(type)
+                        ? Optional.of(getImplicitProjectionMetadataFromEntity(type))
+                        : Optional.empty();
+            }
+        };
+    }
 }
@@ -0,0 +1,108 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Entity paths required by a selection of DTO fields of a projection: the targets of the selected direct
+ * mappings and the dependencies of the selected computed fields.
+ * <p>
+ * Unlike {@link FieldSelection#requiredEntityFields()}, a direct mapping whose DTO type is itself a declared
+ * projection contributes the paths of that nested projection, prefixed by its own path, rather than the
+ * whole associated value. Nested projections of collections are only expanded on demand, since their paths
+ * cannot be selected alongside the owner but can be fetched with it. Like the queries generated by the
+ * annotation processor, at most {@value #MAX_NESTED_DEPTH} nested projections are expanded along a path:
+ * over a connected schema the number of distinct paths grows exponentially with the depth.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+final class RequiredPaths {
+
+    /**
+     * Maximum number of nested projections expanded along a path.
+     */
+    static final int MAX_NESTED_DEPTH = 3;
+
+    private final Set<String> paths = new LinkedHashSet<>();
+    private final Map<String, Set<String>> fieldPaths = new LinkedHashMap<>();
+    private final boolean expandCollections;
+
+    private RequiredPaths(boolean expandCollections) {
+        this.expandCollections = expandCollections;
+    }
+
+    /**
+     * Collects the entity paths required by the selected DTO fields of a projection.
+     *
+     * @param metadata          the projection metadata
+     * @param selection         a selection of DTO fields of the projection
+     * @param expandCollections whether nested projections of collections are expanded as well
+     * @return the required paths
+     */
+    static RequiredPaths of(ProjectionMetadata metadata, FieldSelection selection, boolean expandCollections) {
+        RequiredPaths required = new RequiredPaths(expandCollections);
+        for (String dtoField : selection.dtoFields()) {
+            int fieldId = metadata.fieldIdOf(dtoField);
+            Set<String> paths = required.fieldPaths.computeIfAbsent(dtoField, f -> new LinkedHashSet<>());
+            if (metadata.isDirectMapping(fieldId)) {
+                required.collect(metadata.directMappingAt(fieldId), "", 0, new HashSet<>(), paths);
+            } else {
+                for (String dependency : metadata.computedFieldAt(fieldId).dependencies()) {
+                    required.add(dependency, paths);
+                }
+            }
+        }
+        return required;
+    }
+
+    /**
+     * Returns the required paths of all the selected DTO fields, deduplicated, in field id order.
+     */
+    Set<String> paths() {
+        return Collections.unmodifiableSet(paths);
+    }
+
+    /**
+     * Returns the required paths of each selected DTO field.
+     */
+    Map<String, Set<String>> fieldPaths() {
+        return Collections.unmodifiableMap(fieldPaths);
+    }
+
+    private void collect(DirectMapping mapping, String prefix, int depth, Set<Class<?>> visiting,
+                         Set<String> fieldPaths) {
+        String path = prefix + mapping.entityField();
+        Class<?> type = mapping.dtoFieldType();
+        if ((expandCollections || mapping.collection().isEmpty()) && depth < MAX_NESTED_DEPTH
+                && ProjectionRegistry.hasProjection(type) && visiting.add(type)) {
+            ProjectionMetadata nested = ProjectionRegistry.getMetadataFor(type);
+            for (DirectMapping nestedMapping : nested.directMappings()) {
+                collect(nestedMapping, path + ".", depth + 1, visiting, fieldPaths);
+            }
+            for (ComputedField field : nested.computedFields()) {
+                for (String dependency : field.dependencies()) {
+                    add(path + "." + dependency, fieldPaths);
+                }
+            }
+            visiting.remove(type);
+        } else {
+            add(path, fieldPaths);
+        }
+    }
+
+    private void add(String path, Set<String> fieldPaths) {
+        fieldPaths.add(path);
+        paths.add(path);
+    }
+}
@@ -14,6 +14,13 @@ import java.util.Optional;
  * Typical use cases include query generation, validation, and introspection of entity structures.
  * </p>
  *
+ * <p>
+ * Instances are immutable and hold their boolean and collection kind/type information as packed
+ * flags, so that query methods such as {@link #isEntityCollection()} are a single mask test. Since
+ * large schemas repeat the same metadata many times (e.g. {@code scalar(String.class)}), the
+ * generated registry shares one instance among all fields with identical metadata.
+ * </p>
+ *
  * <h3>Usage Example:</h3>
  * <pre>{@code
  * // Scalar field (e.g., String, Integer, or @Embeddable): neither an identifier nor a collection
@@ -32,24 +39,67 @@ import java.util.Optional;
  * PersistenceMetadata mappedIdField = collectionField.withMappedId("userId");
  * }</pre>
  *
- * @param isId true if the field is an identifier (@Id or @EmbeddedId)
- * @param relatedType the {@link Class} type of the related field
- * @param mappedIdField the field name used for @MapsId mapping, if any
- * @param collection metadata for collection fields, if any
  * @since 1.0.0
  * @author Frank KOSSI
  */
-public record PersistenceMetadata(
-        boolean isId,
-        Class<?> relatedType,
-        Optional<String> mappedIdField,
-        Optional<CollectionMetadata> collection
-) {
+public final class PersistenceMetadata {
+
+    private static final int ID = 1;
+    private static final int MAPPED_ID = 1 << 1;
+    private static final int COLLECTION = 1 << 2;
+    private static final int SCALAR_COLLECTION = 1 << 3;
+    private static final int ENTITY_COLLECTION = 1 << 4;
+    private static final int EMBEDDABLE_COLLECTION = 1 << 5;
+    private static final int BIDIRECTIONAL = 1 << 6;
+    private static final int LIST = 1 << 7;
+    private static final int SET = 1 << 8;
+
+    private final Class<?> relatedType;
+    private final String mappedIdField;
+    private final CollectionMetadata collection;
+    private final int flags;
+
+    /**
+     * Creates field metadata.
+     *
+     * @param isId          true if the field is an identifier (@Id or @EmbeddedId)
+     * @param relatedType   the {@link Class} type of the related field
+     * @param mappedIdField the field name used for @MapsId mapping, if any
+     * @param collection    metadata for collection fields, if any
+     */
+    public PersistenceMetadata(boolean isId,
+                               Class<?> relatedType,
+                               Optional<String> mappedIdField,
+                               Optional<CollectionMetadata> collection) {
+        this.relatedType = Objects.requireNonNull(relatedType, "relatedType cannot be null");
+        this.mappedIdField = Objects.requireNonNull(mappedIdField, "mappedIdField cannot be null").orElse(null);
+        this.collection = Objects.requireNonNull(collection, "collection cannot be null").orElse(null);
+        this.flags = flags(isId, this.mappedIdField, this.collection);
+    }
 
-    public PersistenceMetadata {
-        Objects.requireNonNull(relatedType, "relatedType cannot be null");
-        Objects.requireNonNull(mappedIdField, "mappedIdField cannot be null");
-        Objects.requireNonNull(collection, "collection cannot be null");
+    private static int flags(boolean isId, String mappedIdField, CollectionMetadata collection) {
+        int flags = isId ? ID : 0;
+        if (mappedIdField != null) {
+            flags |= MAPPED_ID;
+        }
+        if (collection != null) {
+            flags |= COLLECTION;
+            flags |= switch (collection.kind()) {
+                case SCALAR -> SCALAR_COLLECTION;
+                case ENTITY -> ENTITY_COLLECTION;
+                case EMBEDDABLE -> EMBEDDABLE_COLLECTION;
+                case UNKNOWN -> 0;
+            };
+            flags |= switch (collection.collectionType()) {
+                case LIST -> LIST;
+                case SET -> SET;
+                case MAP, COLLECTION, UNKNOWN -> 0;
+            };
+            if (collection.mappedBy().isPresent()) {
+                flags |= BIDIRECTIONAL;
+            }
+        }
+        return flags;
     }
 
     // ==================== Factory Methods ====================
@@ -105,7 +155,45 @@ public record PersistenceMetadata(
      * @return a new metadata instance with mappedIdField set
      */
     public PersistenceMetadata withMappedId(String fieldName) {
-        return new PersistenceMetadata(isId, relatedType, Optional.of(fieldName), collection);
+        return new PersistenceMetadata(isId(), relatedType, Optional.of(fieldName), collection());
+    }
+
+    // ==================== Accessors ====================
+
+    /**
+     * Checks if this field is an identifier (@Id or @EmbeddedId).
+     *
+     * @return true if the field is an identifier
+     */
+    public boolean isId() {
+        return (flags & ID) != 0;
+    }
+
+    /**
+     * Gets the {@link Class} type of the related field (the element type for collections).
+     *
+     * @return the related type
+     */
+    public Class<?> relatedType() {
+        return relatedType;
+    }
+
+    /**
+     * Gets the field name used for @MapsId mapping, if any.
+     *
+     * @return the mapped id field, or empty if the field is not mapped via @MapsId
+     */
+    public Optional<String> mappedIdField() {
+        return Optional.ofNullable(mappedIdField);
+    }
+
+    /**
+     * Gets the metadata of this field if it is a collection.
+     *
+     * @return the collection metadata, or empty if not a collection
+     */
+    public Optional<CollectionMetadata> collection() {
+        return Optional.ofNullable(collection);
     }
 
     // ==================== Query Methods ====================
@@ -116,7 +204,7 @@ public record PersistenceMetadata(
      * @return true if the field is a collection
      */
     public boolean isCollection() {
-        return collection.isPresent();
+        return (flags & COLLECTION) != 0;
     }
 
     /**
@@ -125,7 +213,7 @@ public record PersistenceMetadata(
      * @return true if the field is mapped via @MapsId
      */
     public boolean isMappedId() {
-        return mappedIdField.isPresent();
+        return (flags & MAPPED_ID) != 0;
     }
 
     /**
@@ -134,7 +222,7 @@ public record PersistenceMetadata(
      * @return the collection kind, or empty if not a collection
      */
     public Optional<CollectionKind> collectionKind() {
-        return collection.map(CollectionMetadata::kind);
+        return collection == null ? Optional.empty() : Optional.of(collection.kind());
     }
 
     /**
@@ -143,9 +231,7 @@ public record PersistenceMetadata(
      * @return true if the field is a scalar collection
      */
     public boolean isScalarCollection() {
-        return collectionKind()
-                .map(kind -> kind == CollectionKind.SCALAR)
-                .orElse(false);
+        return (flags & SCALAR_COLLECTION) != 0;
     }
 
     /**
@@ -154,9 +240,7 @@ public record PersistenceMetadata(
      * @return true if the field is an entity collection
      */
     public boolean isEntityCollection() {
-        return collectionKind()
-                .map(kind -> kind == CollectionKind.ENTITY)
-                .orElse(false);
+        return (flags & ENTITY_COLLECTION) != 0;
     }
 
     /**
@@ -165,9 +249,7 @@ public record PersistenceMetadata(
      * @return true if the field is an embeddable collection
      */
     public boolean isEmbeddableCollection() {
-        return collectionKind()
-                .map(kind -> kind == CollectionKind.EMBEDDABLE)
-                .orElse(false);
+        return (flags & EMBEDDABLE_COLLECTION) != 0;
     }
 
     /**
@@ -176,9 +258,7 @@ public record PersistenceMetadata(
      * @return true if the field is a bidirectional relationship
      */
     public boolean isBidirectional() {
-        return collection
-                .flatMap(CollectionMetadata::mappedBy)
-                .isPresent();
+        return (flags & BIDIRECTIONAL) != 0;
     }
 
     /**
@@ -187,9 +267,7 @@ public record PersistenceMetadata(
      * @return true if the field is an ordered collection
      */
     public boolean isOrdered() {
-        return collection
-                .map(c -> c.collectionType() == CollectionType.LIST)
-                .orElse(false);
+        return (flags & LIST) != 0;
     }
 
     /**
@@ -198,7 +276,7 @@ public record PersistenceMetadata(
      * @return the mappedBy value, or empty if not bidirectional
      */
     public Optional<String> getMappedBy() {
-        return collection.flatMap(CollectionMetadata::mappedBy);
+        return collection == null ? Optional.empty() : collection.mappedBy();
     }
 
     /**
@@ -207,10 +285,7 @@ public record PersistenceMetadata(
      * @return true if the field is a List of entities
      */
     public boolean isEntityList() {
-        return collection
-                .map(c -> c.kind() == CollectionKind.ENTITY &&
-                        c.collectionType() == CollectionType.LIST)
-                .orElse(false);
+        return (flags & (ENTITY_COLLECTION | LIST)) == (ENTITY_COLLECTION | LIST);
     }
 
     /**
@@ -219,9 +294,26 @@ public record PersistenceMetadata(
      * @return true if the field is a Set of entities
      */
     public boolean isEntitySet() {
-        return collection
-                .map(c -> c.kind() == CollectionKind.ENTITY &&
-                        c.collectionType() == CollectionType.SET)
-                .orElse(false);
+        return (flags & (ENTITY_COLLECTION | SET)) == (ENTITY_COLLECTION | SET);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PersistenceMetadata other
+                && flags == other.flags
+                && relatedType == other.relatedType
+                && Objects.equals(mappedIdField, other.mappedIdField)
+                && Objects.equals(collection, other.collection);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(isId(), relatedType, mappedIdField, collection);
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceMetadata[isId=" + isId() + ", relatedType=" + relatedType
+                + ", mappedIdField=" + mappedIdField() + ", collection=" + collection() + "]";
     }
 }
@@ -0,0 +1,274 @@
+package io.github.cyfko.projection.metamodel.model.projection;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Precomputed lookup table resolving the DTO field names of a projection to their position in
+ * {@link ProjectionMetadata#directMappings()} and {@link ProjectionMetadata#computedFields()}.
+ * <p>
+ * Exact lookups go through a single function mapping a DTO field name to its <em>ordinal</em>:
+ * ordinals {@code [0, directMappingCount)} designate direct mappings and the following ones designate
+ * computed fields, in declaration order. The annotation processor emits this function as a
+ * {@code switch} on the field name, so that generated projections resolve their fields without hashing
+ * into a map or scanning arrays. Hand-built metadata falls back to an immutable hash table.
+ * DTO field names are expected to be unique within a projection, as they are Java field names.
+ * </p>
+ * <p>
+ * Case-insensitive lookups are served from case-folded tables built once, when the owning
+ * {@link ProjectionMetadata} is created, so that resolving a field ignoring case costs a single
+ * hash probe instead of a scan over every declared field.
+ * </p>
+ * <p>
+ * Folding uses {@link String#toLowerCase(Locale)} with {@link Locale#ROOT}. When several fields fold
+ * to the same key, the first declared one wins, which matches the former linear
+ * {@code equalsIgnoreCase} scan.
+ * </p>
+ * <p>
+ * The index also numbers the entity fields required by the projection (direct mapping targets, then
+ * computed field dependencies, deduplicated in declaration order) and keeps, for each DTO field, the
+ * bitmask of the entity fields it depends on. {@link FieldSelection} uses these masks to expand a
+ * selection of DTO fields into entity fields with a few word operations.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class FieldIndex {
+
+    /**
+     * Position returned when a DTO field is not declared by the projection.
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final int directMappingCount;
+    private final ToIntFunction<String> ordinalLookup;
+    private final Map<String, Integer> caseFoldedDirectMappings;
+    private final Map<String, Integer> caseFoldedComputedFields;
+    private final String[] dtoFields;
+    private final String[] entityFields;
+    private final long[][] dependencyMasks;
+
+    private FieldIndex(int directMappingCount,
+                       ToIntFunction<String> ordinalLookup,
+                       Map<String, Integer> caseFoldedDirectMappings,
+                       Map<String, Integer> caseFoldedComputedFields,
+                       String[] dtoFields,
+                       String[] entityFields,
+                       long[][] dependencyMasks) {
+        this.directMappingCount = directMappingCount;
+        this.ordinalLookup = ordinalLookup;
+        this.caseFoldedDirectMappings = caseFoldedDirectMappings;
+        this.caseFoldedComputedFields = caseFoldedComputedFields;
+        this.dtoFields = dtoFields;
+        this.entityFields = entityFields;
+        this.dependencyMasks = dependencyMasks;
+    }
+
+    /**
+     * Builds the index of the given projection fields, backing exact lookups with a hash table.
+     *
+     * @param directMappings the direct mappings of the projection, in declaration order
+     * @param computedFields the computed fields of the projection, in declaration order
+     * @return a new immutable index
+     */
+    public static FieldIndex of(DirectMapping[] directMappings, ComputedField[] computedFields) {
+        Objects.requireNonNull(directMappings, "directMappings cannot be null");
+        Objects.requireNonNull(computedFields, "computedFields cannot be null");
+
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < directMappings.length; i++) {
+            ordinals.putIfAbsent(directMappings[i].dtoField(), i);
+        }
+        for (int i = 0; i < computedFields.length; i++) {
+            ordinals.putIfAbsent(computedFields[i].dtoField(), directMappings.length + i);
+        }
+
+        Map<String, Integer> table = Map.copyOf(ordinals);
+        return of(directMappings, computedFields, dtoField -> table.getOrDefault(dtoField, NOT_FOUND));
+    }
+
+    /**
+     * Builds the index of the given projection fields using a precomputed ordinal lookup.
+     * <p>
+     * This factory is typically used by generated code, which supplies the lookup as a {@code switch}
+     * expression over the DTO field names.
+     * </p>
+     *
+     * @param directMappings the direct mappings of the projection, in declaration order
+     * @param computedFields the computed fields of the projection, in declaration order
+     * @param ordinalLookup  function returning the ordinal of a DTO field, or {@link #NOT_FOUND}
+     * @return a new immutable index
+     */
+    public static FieldIndex of(DirectMapping[] directMappings, ComputedField[] computedFields,
+                                ToIntFunction<String> ordinalLookup) {
+        Objects.requireNonNull(directMappings, "directMappings cannot be null");
+        Objects.requireNonNull(computedFields, "computedFields cannot be null");
+        Objects.requireNonNull(ordinalLookup, "ordinalLookup cannot be null");
+
+        Map<String, Integer> directs = new HashMap<>();
+        for (int i = 0; i < directMappings.length; i++) {
+            directs.putIfAbsent(fold(directMappings[i].dtoField()), i);
+        }
+
+        Map<String, Integer> computed = new HashMap<>();
+        for (int i = 0; i < computedFields.length; i++) {
+            computed.putIfAbsent(fold(computedFields[i].dtoField()), i);
+        }
+
+        String[] dtoFields = new String[directMappings.length + computedFields.length];
+        Map<String, Integer> entityFieldBits = new LinkedHashMap<>();
+        String[][] dependencies = new String[dtoFields.length][];
+        for (int i = 0; i < directMappings.length; i++) {
+            dtoFields[i] = directMappings[i].dtoField();
+            dependencies[i] = new String[]{directMappings[i].entityField()};
+        }
+        for (int i = 0; i < computedFields.length; i++) {
+            dtoFields[directMappings.length + i] = computedFields[i].dtoField();
+            dependencies[directMappings.length + i] = computedFields[i].dependencies();
+        }
+        for (String[] fields : dependencies) {
+            for (String field : fields) {
+                entityFieldBits.putIfAbsent(field, entityFieldBits.size());
+            }
+        }
+
+        long[][] dependencyMasks = new long[dtoFields.length][];
+        for (int ordinal = 0; ordinal < dtoFields.length; ordinal++) {
+            long[] mask = new long[FieldSelection.wordCount(entityFieldBits.size())];
+            for (String field : dependencies[ordinal]) {
+                int bit = entityFieldBits.get(field);
+                mask[bit >>> 6] |= 1L << bit;
+            }
+            dependencyMasks[ordinal] = mask;
+        }
+
+        return new FieldIndex(directMappings.length, ordinalLookup, Map.copyOf(directs), Map.copyOf(computed),
+                dtoFields, entityFieldBits.keySet().toArray(String[]::new), dependencyMasks);
+    }
+
+    /**
+     * Returns the case-folded form of a DTO field name or path, as used by this index.
+     *
+     * @param dtoField the DTO field name or path
+     * @return the case-folded key
+     */
+    public static String fold(String dtoField) {
+        return dtoField.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the ordinal of the given DTO field, as defined in the class documentation.
+     *
+     * @param dtoField the DTO field name
+     * @return the ordinal of the field, or {@link #NOT_FOUND}
+     */
+    public int ordinalOf(String dtoField) {
+        return dtoField == null ? NOT_FOUND : ordinalLookup.applyAsInt(dtoField);
+    }
+
+    /**
+     * Returns the position of the direct mapping whose DTO field equals the given name.
+     *
+     * @param dtoField the DTO field name
+     * @return the index in the direct mappings array, or {@link #NOT_FOUND}
+     */
+    public int directMappingIndex(String dtoField) {
+        int ordinal = ordinalOf(dtoField);
+        return ordinal < directMappingCount ? ordinal : NOT_FOUND;
+    }
+
+    /**
+     * Returns the position of the computed field whose DTO field equals the given name.
+     *
+     * @param dtoField the DTO field name
+     * @return the index in the computed fields array, or {@link #NOT_FOUND}
+     */
+    public int computedFieldIndex(String dtoField) {
+        int ordinal = ordinalOf(dtoField);
+        return ordinal < directMappingCount ? NOT_FOUND : ordinal - directMappingCount;
+    }
+
+    /**
+     * Returns the ordinal of the DTO field matching the given name ignoring case.
+     *
+     * @param dtoField the DTO field name
+     * @return the ordinal of the field, or {@link #NOT_FOUND}
+     */
+    public int ordinalOfIgnoreCase(String dtoField) {
+        int index = directMappingIndexIgnoreCase(dtoField);
+        if (index != NOT_FOUND) {
+            return index;
+        }
+        index = computedFieldIndexIgnoreCase(dtoField);
+        return index == NOT_FOUND ? NOT_FOUND : directMappingCount + index;
+    }
+
+    /**
+     * Returns the number of DTO fields, that is the number of ordinals.
+     *
+     * @return the number of DTO fields
+     */
+    public int size() {
+        return dtoFields.length;
+    }
+
+    /**
+     * Returns the name of the DTO field with the given ordinal.
+     *
+     * @param ordinal the ordinal of the field
+     * @return the DTO field name
+     * @throws IndexOutOfBoundsException if the ordinal is out of range
+     */
+    public String dtoFieldAt(int ordinal) {
+        return dtoFields[ordinal];
+    }
+
+    /**
+     * Returns the number of distinct entity fields required by the projection.
+     *
+     * @return the number of entity fields
+     */
+    int entityFieldCount() {
+        return entityFields.length;
+    }
+
+    /**
+     * Returns the entity field numbered {@code bit} in the dependency masks.
+     */
+    String entityFieldAt(int bit) {
+        return entityFields[bit];
+    }
+
+    /**
+     * Returns the mask of the entity fields the DTO field with the given ordinal depends on.
+     * The returned array is shared and must not be modified.
+     */
+    long[] dependencyMask(int ordinal) {
+        return dependencyMasks[ordinal];
+    }
+
+    /**
+     * Returns the position of the direct mapping whose DTO field matches the given name ignoring case.
+     *
+     * @param dtoField the DTO field name
+     * @return the index in the direct mappings array, or {@link #NOT_FOUND}
+     */
+    public int directMappingIndexIgnoreCase(String dtoField) {
+        return dtoField == null ? NOT_FOUND : caseFoldedDirectMappings.getOrDefault(fold(dtoField), NOT_FOUND);
+    }
+
+    /**
+     * Returns the position of the computed field whose DTO field matches the given name ignoring case.
+     *
+     * @param dtoField the DTO field name
+     * @return the index in the computed fields array, or {@link #NOT_FOUND}
+     */
+    public int computedFieldIndexIgnoreCase(String dtoField) {
+        return dtoField == null ? NOT_FOUND : caseFoldedComputedFields.getOrDefault(fold(dtoField), NOT_FOUND);
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.cyfko.projection.metamodel.model.projection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable set of DTO fields selected from a projection, for instance the fields requested by a client.
+ * <p>
+ * The selection is a bitmask over the DTO field ids of the projection (see
+ * {@link ProjectionMetadata#fieldIdOf(String)}), so that union, intersection and membership tests cost a
+ * few word operations instead of allocating and hashing collections of field names. The entity fields
+ * implied by a selection are expanded the same way, by OR-ing the per-field dependency masks precomputed
+ * by the projection {@link FieldIndex}.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(UserDTO.class);
+ * FieldSelection selection = FieldSelection.of(metadata, List.of("userEmail", "fullName"), false);
+ * List<String> entityFields = selection.requiredEntityFields(); // [email, firstName, lastName]
+ * }
+ * </pre>
+ *
+ * <p>
+ * Selections can only be combined with selections of the same projection.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class FieldSelection {
+
+    private final FieldIndex fieldIndex;
+    private final long[] words;
+
+    private FieldSelection(FieldIndex fieldIndex, long[] words) {
+        this.fieldIndex = fieldIndex;
+        this.words = words;
+    }
+
+    /**
+     * Returns the empty selection of a projection.
+     *
+     * @param metadata the projection metadata
+     * @return a selection with no field
+     */
+    public static FieldSelection none(ProjectionMetadata metadata) {
+        FieldIndex index = Objects.requireNonNull(metadata, "metadata cannot be null").fieldIndex();
+        return new FieldSelection(index, new long[wordCount(index.size())]);
+    }
+
+    /**
+     * Returns the selection of every DTO field of a projection.
+     *
+     * @param metadata the projection metadata
+     * @return a selection with all fields
+     */
+    public static FieldSelection all(ProjectionMetadata metadata) {
+        FieldIndex index = Objects.requireNonNull(metadata, "metadata cannot be null").fieldIndex();
+        long[] words = new long[wordCount(index.size())];
+        for (int id = 0; id < index.size(); id++) {
+            words[id >>> 6] |= 1L << id;
+        }
+        return new FieldSelection(index, words);
+    }
+
+    /**
+     * Returns the selection of the given DTO fields of a projection.
+     *
+     * @param metadata   the projection metadata
+     * @param dtoFields  the names of the selected DTO fields
+     * @param ignoreCase whether field names should be compared equals ignoring case
+     * @return a selection with the given fields
+     * @throws IllegalArgumentException if a field is not declared by the projection
+     */
+    public static FieldSelection of(ProjectionMetadata metadata, Collection<String> dtoFields, boolean ignoreCase) {
+        Objects.requireNonNull(dtoFields, "dtoFields cannot be null");
+        FieldIndex index = Objects.requireNonNull(metadata, "metadata cannot be null").fieldIndex();
+
+        long[] words = new long[wordCount(index.size())];
+        for (String dtoField : dtoFields) {
+            int id = ignoreCase ? index.ordinalOfIgnoreCase(dtoField) : index.ordinalOf(dtoField);
+            if (id == FieldIndex.NOT_FOUND) {
+                throw new IllegalArgumentException("\"" + dtoField + "\" is not a field of the projection of "
+                        + metadata.entityClass().getSimpleName());
+            }
+            words[id >>> 6] |= 1L << id;
+        }
+        return new FieldSelection(index, words);
+    }
+
+    /**
+     * Returns this selection with one more field.
+     *
+     * @param fieldId the DTO field id
+     * @return a selection containing the field
+     * @throws IndexOutOfBoundsException if the id does not designate a DTO field
+     */
+    public FieldSelection with(int fieldId) {
+        Objects.checkIndex(fieldId, fieldIndex.size());
+        if (contains(fieldId)) {
+            return this;
+        }
+        long[] result = words.clone();
+        result[fieldId >>> 6] |= 1L << fieldId;
+        return new FieldSelection(fieldIndex, result);
+    }
+
+    /**
+     * Checks if a field is selected.
+     *
+     * @param fieldId the DTO field id
+     * @return true if the field is selected, false otherwise (including for unknown ids)
+     */
+    public boolean contains(int fieldId) {
+        return fieldId >= 0 && fieldId < fieldIndex.size() && (words[fieldId >>> 6] & (1L << fieldId)) != 0;
+    }
+
+    /**
+     * Returns the fields selected by this selection or the other one.
+     *
+     * @param other a selection of the same projection
+     * @return the union of both selections
+     * @throws IllegalArgumentException if the selections belong to different projections
+     */
+    public FieldSelection union(FieldSelection other) {
+        checkSameProjection(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new FieldSelection(fieldIndex, result);
+    }
+
+    /**
+     * Returns the fields selected by both this selection and the other one.
+     *
+     * @param other a selection of the same projection
+     * @return the intersection of both selections
+     * @throws IllegalArgumentException if the selections belong to different projections
+     */
+    public FieldSelection intersection(FieldSelection other) {
+        checkSameProjection(other);
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new FieldSelection(fieldIndex, result);
+    }
+
+    /**
+     * Returns the number of selected fields.
+     *
+     * @return the number of selected fields
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Checks if no field is selected.
+     *
+     * @return true if the selection is empty
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the names of the selected DTO fields, in field id order.
+     *
+     * @return an immutable list of DTO field names
+     */
+    public List<String> dtoFields() {
+        List<String> fields = new ArrayList<>(size());
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                fields.add(fieldIndex.dtoFieldAt((i << 6) + Long.numberOfTrailingZeros(word)));
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    /**
+     * Returns the entity fields required to populate the selected DTO fields, that is the targets of the
+     * selected direct mappings and the dependencies of the selected computed fields.
+     * <p>
+     * Fields are deduplicated and listed in the order of {@link ProjectionMetadata#getAllRequiredEntityFields()}.
+     * </p>
+     *
+     * @return an immutable list of entity field paths
+     */
+    public List<String> requiredEntityFields() {
+        long[] entityWords = new long[wordCount(fieldIndex.entityFieldCount())];
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                long[] mask = fieldIndex.dependencyMask((i << 6) + Long.numberOfTrailingZeros(word));
+                for (int j = 0; j < mask.length; j++) {
+                    entityWords[j] |= mask[j];
+                }
+            }
+        }
+
+        List<String> fields = new ArrayList<>();
+        for (int i = 0; i < entityWords.length; i++) {
+            for (long word = entityWords[i]; word != 0; word &= word - 1) {
+                fields.add(fieldIndex.entityFieldAt((i << 6) + Long.numberOfTrailingZeros(word)));
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FieldSelection other
+                && fieldIndex == other.fieldIndex
+                && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(fieldIndex) + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return "FieldSelection" + dtoFields();
+    }
+
+    private void checkSameProjection(FieldSelection other) {
+        Objects.requireNonNull(other, "other cannot be null");
+        if (other.fieldIndex != fieldIndex) {
+            throw new IllegalArgumentException("Cannot combine selections of different projections");
+        }
+    }
+
+    /**
+     * Returns the number of 64-bit words needed to hold the given number of bits.
+     */
+    static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -8,13 +8,18 @@ import java.util.*;
  * @param entityClass Full qualified name of the entity class
  * @param directMappings List of direct field mappings (DTO field → Entity field)
  * @param computedFields List of computed fields with their dependencies
+ * @param computers Computation providers declared by the projection
+ * @param fieldIndex Lookup table of the DTO fields declared by {@code directMappings} and {@code computedFields}
+ * @param requiredEntityFields Deduplicated, immutable list of the entity fields required by the projection
  * @since 1.0.0
  */
 public record ProjectionMetadata(
         Class<?> entityClass,
         DirectMapping[] directMappings,
         ComputedField[] computedFields,
-        ComputationProvider[] computers
+        ComputationProvider[] computers,
+        FieldIndex fieldIndex,
+        List<String> requiredEntityFields
 ) {
 
     public ProjectionMetadata {
@@ -22,15 +27,44 @@ public record ProjectionMetadata(
         Objects.requireNonNull(directMappings, "directMappings cannot be null");
         Objects.requireNonNull(computedFields, "computedFields cannot be null");
         Objects.requireNonNull(computers, "computers cannot be null");
+        Objects.requireNonNull(fieldIndex, "fieldIndex cannot be null");
+        requiredEntityFields = List.copyOf(Objects.requireNonNull(requiredEntityFields, "requiredEntityFields cannot be null"));
+    }
+
+    /**
+     * Creates projection metadata and derives its {@link FieldIndex} and required entity fields from the
+     * given fields.
+     *
+     * @param entityClass the projected entity class
+     * @param directMappings the direct field mappings
+     * @param computedFields the computed fields
+     * @param computers the computation providers
+     */
+    public ProjectionMetadata(Class<?> entityClass,
+                              DirectMapping[] directMappings,
+                              ComputedField[] computedFields,
+                              ComputationProvider[] computers) {
+        this(entityClass, directMappings, computedFields, computers,
+                FieldIndex.of(
+                        Objects.requireNonNull(directMappings, "directMappings cannot be null"),
+                        Objects.requireNonNull(computedFields, "computedFields cannot be null")),
+                requiredEntityFields(directMappings, computedFields));
     }
 
     /**
      * Gets all entity fields required for this projection.
      * Includes both direct mappings and computed field dependencies.
+     * <p>
+     * The list is computed once, by the annotation processor for generated metadata, and returned as is.
+     * </p>
      *
-     * @return deduplicated list of entity field paths
+     * @return deduplicated, immutable list of entity field paths
      */
     public List<String> getAllRequiredEntityFields() {
+        return requiredEntityFields;
+    }
+
+    private static List<String> requiredEntityFields(DirectMapping[] directMappings, ComputedField[] computedFields) {
         Set<String> fields = new LinkedHashSet<>();
 
         // Add direct mappings
@@ -40,7 +74,7 @@ public record ProjectionMetadata(
 
         // Add computed dependencies
         for (var cf: computedFields){
-            fields.addAll(List.of(cf.dependencies()));
+            Collections.addAll(fields, cf.dependencies());
         }
 
         return List.copyOf(fields);
@@ -54,9 +88,10 @@ public record ProjectionMetadata(
      * @return Optional containing the mapping, or empty if not found
      */
     public Optional<DirectMapping> getDirectMapping(String dtoField, boolean ignoreCase) {
-        return Arrays.stream(directMappings)
-                .filter(m -> ignoreCase ? m.dtoField().equalsIgnoreCase(dtoField) : m.dtoField().equals(dtoField))
-                .findFirst();
+        int index = ignoreCase
+                ? fieldIndex.directMappingIndexIgnoreCase(dtoField)
+                : fieldIndex.directMappingIndex(dtoField);
+        return index == FieldIndex.NOT_FOUND ? Optional.empty() : Optional.of(directMappings[index]);
     }
 
     /**
@@ -67,9 +102,10 @@ public record ProjectionMetadata(
      * @return Optional containing the computed field, or empty if not found
      */
     public Optional<ComputedField> getComputedField(String dtoField, boolean ignoreCase) {
-        return Arrays.stream(computedFields)
-                .filter(c -> ignoreCase ? c.dtoField().equalsIgnoreCase(dtoField) : c.dtoField().equals(dtoField))
-                .findFirst();
+        int index = ignoreCase
+                ? fieldIndex.computedFieldIndexIgnoreCase(dtoField)
+                : fieldIndex.computedFieldIndex(dtoField);
+        return index == FieldIndex.NOT_FOUND ? Optional.empty() : Optional.of(computedFields[index]);
     }
 
     /**
@@ -80,8 +116,10 @@ public record ProjectionMetadata(
      * @return true if computed, false otherwise
      */
     public boolean isComputedField(String dtoField, boolean ignoreCase) {
-        return Arrays.stream(computedFields)
-                .anyMatch(c -> ignoreCase ? c.dtoField().equalsIgnoreCase(dtoField) : c.dtoField().equals(dtoField));
+        int index = ignoreCase
+                ? fieldIndex.computedFieldIndexIgnoreCase(dtoField)
+                : fieldIndex.computedFieldIndex(dtoField);
+        return index != FieldIndex.NOT_FOUND;
     }
 
     /**
@@ -92,10 +130,76 @@ public record ProjectionMetadata(
      * @return true if direct mapping, false otherwise
      */
     public boolean isDirectMapping(String dtoField, boolean ignoreCase) {
-        return Arrays.stream(directMappings)
-                .anyMatch(m -> ignoreCase ? m.dtoField().equalsIgnoreCase(dtoField) : m.dtoField().equals(dtoField));
+        int index = ignoreCase
+                ? fieldIndex.directMappingIndexIgnoreCase(dtoField)
+                : fieldIndex.directMappingIndex(dtoField);
+        return index != FieldIndex.NOT_FOUND;
+    }
+
+    /**
+     * Returns the id of a DTO field.
+     * <p>
+     * DTO field ids are the ordinals of {@link FieldIndex}: ids {@code [0, directMappings.length)} designate
+     * direct mappings and the following ones designate computed fields, in declaration order. Ids are meant to be
+     * resolved once, then used with the int-indexed accessors of this class, which read plain arrays.
+     * </p>
+     *
+     * @param dtoField the DTO field name
+     * @return the field id, or {@link FieldIndex#NOT_FOUND}
+     */
+    public int fieldIdOf(String dtoField) {
+        return fieldIndex.ordinalOf(dtoField);
+    }
+
+    /**
+     * Returns the number of DTO fields, direct mappings and computed fields included.
+     *
+     * @return the number of DTO fields
+     */
+    public int fieldCount() {
+        return directMappings.length + computedFields.length;
     }
-}
 
+    /**
+     * Checks if a DTO field id designates a direct mapping.
+     *
+     * @param fieldId the DTO field id
+     * @return true if direct mapping, false otherwise
+     */
+    public boolean isDirectMapping(int fieldId) {
+        return fieldId >= 0 && fieldId < directMappings.length;
+    }
 
+    /**
+     * Returns the direct mapping designated by a DTO field id.
+     *
+     * @param fieldId the DTO field id
+     * @return the direct mapping
+     * @throws IndexOutOfBoundsException if the id does not designate a direct mapping
+     */
+    public DirectMapping directMappingAt(int fieldId) {
+        return directMappings[fieldId];
+    }
 
+    /**
+     * Returns the computed field designated by a DTO field id.
+     *
+     * @param fieldId the DTO field id
+     * @return the computed field
+     * @throws IndexOutOfBoundsException if the id does not designate a computed field
+     */
+    public ComputedField computedFieldAt(int fieldId) {
+        return computedFields[fieldId - directMappings.length];
+    }
+
+    /**
+     * Returns the name of the DTO field designated by an id.
+     *
+     * @param fieldId the DTO field id
+     * @return the DTO field name
+     * @throws IndexOutOfBoundsException if the id does not designate a DTO field
+     */
+    public String dtoFieldAt(int fieldId) {
+        return fieldIndex.dtoFieldAt(fieldId);
+    }
+}
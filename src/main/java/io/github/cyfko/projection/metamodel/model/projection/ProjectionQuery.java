@@ -0,0 +1,69 @@
+package io.github.cyfko.projection.metamodel.model.projection;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * JPQL queries precomputed by the annotation processor for a projection, selecting only the entity fields
+ * the projection needs.
+ * <p>
+ * The projected entity is always aliased {@value #ROOT_ALIAS}, so that callers can append their own
+ * {@code WHERE} and {@code ORDER BY} clauses. To-one associations traversed by the selected paths are
+ * {@code LEFT JOIN}ed, so that a missing association yields {@code null} values rather than dropping the
+ * row; embedded paths are selected as is.
+ * </p>
+ * <p>
+ * Collection-valued paths cannot be selected without multiplying the result rows, hence they are listed in
+ * {@link #collectionPaths()} to be loaded separately. When there are some, the identifier fields of the
+ * entity are selected first so that the loaded collections can be correlated with their owner rows. They are
+ * also selected on their own when the projection requires no single-valued path; should the entity declare no
+ * identifier, the entity itself is selected under the empty path.
+ * </p>
+ *
+ * <p><b>Example usage:</b></p>
+ * <pre>
+ * {@code
+ * ProjectionQuery query = ProjectionRegistry.getQueryFor(UserDTO.class);
+ * List<Object[]> rows = em.createQuery(query.tupleQuery() + " WHERE e.email LIKE :email", Object[].class)
+ *         .setParameter("email", "%@example.com")
+ *         .getResultList();
+ * int city = query.selectedPaths().indexOf("address.city");
+ * }
+ * </pre>
+ *
+ * @param tupleQuery       the {@code SELECT ... FROM ...} query returning one array (or {@code Tuple}) per row,
+ *                         whose items follow {@code selectedPaths}
+ * @param constructorQuery the {@code SELECT NEW ...} query instantiating the DTO, or {@code null} when the DTO
+ *                         has computed or collection fields, no direct field, or no constructor taking its
+ *                         direct fields in declaration order
+ * @param selectedPaths    the entity paths selected by {@code tupleQuery}, in select order
+ * @param collectionPaths  the collection-valued entity paths required by the projection and left out of the
+ *                         select clause
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public record ProjectionQuery(String tupleQuery,
+                              String constructorQuery,
+                              List<String> selectedPaths,
+                              List<String> collectionPaths) {
+
+    /**
+     * Alias of the projected entity in the precomputed queries.
+     */
+    public static final String ROOT_ALIAS = "e";
+
+    public ProjectionQuery {
+        Objects.requireNonNull(tupleQuery, "tupleQuery cannot be null");
+        selectedPaths = List.copyOf(Objects.requireNonNull(selectedPaths, "selectedPaths cannot be null"));
+        collectionPaths = List.copyOf(Objects.requireNonNull(collectionPaths, "collectionPaths cannot be null"));
+    }
+
+    /**
+     * Indicates whether the DTO can be instantiated directly by the persistence provider.
+     *
+     * @return {@code true} if {@link #constructorQuery()} is available
+     */
+    public boolean hasConstructorQuery() {
+        return constructorQuery != null;
+    }
+}
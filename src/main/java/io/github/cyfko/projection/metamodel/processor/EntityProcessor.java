@@ -5,16 +5,21 @@ import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
 import io.github.cyfko.projection.metamodel.model.CollectionType;
 import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
 import io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils;
+import io.github.cyfko.projection.metamodel.util.BinaryRegistryFormat;
 
 import javax.annotation.processing.*;
 import javax.lang.model.element.*;
 import javax.lang.model.type.*;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils.BASIC_JPA_TYPES;
 
@@ -37,6 +42,17 @@ import static io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils
  */
 public class EntityProcessor {
 
+    /**
+     * Maximum number of classes handled by a generated lookup chunk. Keeps every generated method well
+     * below javac's 64 KB limit and the size the JIT refuses to compile ({@code -XX:HugeMethodLimit}).
+     */
+    static final int CLASSES_PER_LOOKUP = 128;
+
+    /**
+     * Maximum number of fields registered by a single generated holder initialization method.
+     */
+    static final int FIELDS_PER_METHOD = 256;
+
     private final ProcessingEnvironment processingEnv;
     private final Map<String, Map<String, SimplePersistenceMetadata>> collectedRegistry = new LinkedHashMap<>();
     private final Map<String, Map<String, SimplePersistenceMetadata>> collectedEmbeddable = new LinkedHashMap<>();
@@ -296,7 +312,9 @@ public class EntityProcessor {
      * <p>
      * Both registries are exposed through the
      * {@code PersistenceMetadataRegistryProvider} interface
-     * and wrapped in unmodifiable maps to prevent runtime mutation.
+     * and wrapped in unmodifiable maps to prevent runtime mutation. The class is
+     * registered in {@code META-INF/services} so that the runtime registry finds it
+     * through {@link java.util.ServiceLoader}.
      * </p>
      */
     public void generateProviderImpl() {
@@ -315,14 +333,18 @@ public class EntityProcessor {
                 "🛠️ Generating EntityMetadataRegistryProvider implementation...");
 
         try {
+            String className = MetamodelProcessor.providerSimpleName(processingEnv, "PersistenceMetadataRegistryProviderImpl");
             JavaFileObject file = processingEnv.getFiler()
-                    .createSourceFile(
-                            "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl");
+                    .createSourceFile("io.github.cyfko.projection.metamodel.providers." + className);
 
             try (Writer writer = file.openWriter()) {
-                writeEntityRegistry(writer);
+                writeEntityRegistry(writer, className);
             }
 
+            AnnotationProcessorUtils.writeServiceFile(processingEnv,
+                    "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider",
+                    "io.github.cyfko.projection.metamodel.providers." + className);
+
             messager.printMessage(Diagnostic.Kind.NOTE,
                     String.format(
                             "✅ PersistenceMetadataRegistryProviderImpl generated successfully with %d entities and %d embeddables",
@@ -334,6 +356,82 @@ public class EntityProcessor {
         }
     }
 
+    /**
+     * Writes the collected entity and embeddable metadata to the binary
+     * {@link BinaryRegistryFormat#PERSISTENCE_RESOURCE} resource, used instead of
+     * {@link #generateProviderImpl()} when the binary registry format is selected.
+     * <p>
+     * Each class is encoded as a separate record listed in a leading directory, so
+     * that the runtime decodes a class only when it is first looked up.
+     * </p>
+     */
+    public void generateBinaryRegistry() {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.NOTE, "🛠️ Writing binary persistence metadata registry...");
+
+        try {
+            BinaryRegistryFormat.Encoder encoder = new BinaryRegistryFormat.Encoder();
+            List<BinaryRegistryFormat.Encoder> records = new ArrayList<>();
+            encoder.writeInt(collectedRegistry.size() + collectedEmbeddable.size());
+            for (Map.Entry<String, Map<String, SimplePersistenceMetadata>> entry : collectedRegistry.entrySet()) {
+                BinaryRegistryFormat.Encoder record = encoder.section();
+                encodeFields(record, collectIdFields(entry.getValue()), entry.getValue());
+                encoder.writeString(binaryName(entry.getKey()))
+                        .writeByte(BinaryRegistryFormat.KIND_ENTITY)
+                        .writeInt(record.size());
+                records.add(record);
+            }
+            for (Map.Entry<String, Map<String, SimplePersistenceMetadata>> entry : collectedEmbeddable.entrySet()) {
+                BinaryRegistryFormat.Encoder record = encoder.section();
+                encodeFields(record, List.of(), entry.getValue());
+                encoder.writeString(binaryName(entry.getKey()))
+                        .writeByte(BinaryRegistryFormat.KIND_EMBEDDABLE)
+                        .writeInt(record.size());
+                records.add(record);
+            }
+            records.forEach(encoder::writeSection);
+
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", BinaryRegistryFormat.PERSISTENCE_RESOURCE);
+            try (OutputStream out = file.openOutputStream()) {
+                encoder.writeTo(out);
+            }
+
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    String.format("✅ Binary persistence metadata registry written with %d entities and %d embeddables",
+                            collectedRegistry.size(), collectedEmbeddable.size()));
+
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write binary persistence metadata registry: " + e.getMessage());
+        }
+    }
+
+    private void encodeFields(BinaryRegistryFormat.Encoder record,
+                              List<String> idFields,
+                              Map<String, SimplePersistenceMetadata> fields) {
+        record.writeInt(idFields.size());
+        idFields.forEach(record::writeString);
+
+        record.writeInt(fields.size());
+        for (Map.Entry<String, SimplePersistenceMetadata> field : fields.entrySet()) {
+            SimplePersistenceMetadata meta = field.getValue();
+            int flags = (meta.isId() ? BinaryRegistryFormat.FLAG_ID : 0)
+                    | (meta.mappedIdField().isPresent() ? BinaryRegistryFormat.FLAG_MAPPED_ID : 0)
+                    | (meta.collection().isPresent() ? BinaryRegistryFormat.FLAG_COLLECTION : 0);
+            record.writeString(field.getKey())
+                    .writeByte(flags)
+                    .writeString(AnnotationProcessorUtils.runtimeClassName(processingEnv.getElementUtils(),
+                            meta.relatedType()));
+            meta.mappedIdField().ifPresent(record::writeString);
+            meta.collection().ifPresent(c -> record
+                    .writeByte(c.kind().ordinal())
+                    .writeByte(c.collectionType().ordinal())
+                    .writeString(c.mappedBy().orElse(null))
+                    .writeString(c.orderBy().orElse(null)));
+        }
+    }
+
     /**
      * Writes the body of the generated
      * {@code PersistenceMetadataRegistryProviderImpl} class
@@ -342,17 +440,24 @@ public class EntityProcessor {
      * This method emits Java source code that:
      * </p>
      * <ul>
-     * <li>Declares static maps for entity and embeddable metadata.</li>
-     * <li>Populates them with {@code PersistenceMetadata} instances based on the
-     * collected registry.</li>
-     * <li>Exposes them through the {@code getEntityMetadataRegistry} and
-     * {@code getEmbeddableMetadataRegistry} methods.</li>
+     * <li>Declares one holder class per entity and embeddable, whose static
+     * initializer builds the field metadata of that class only. The JVM runs it on
+     * first access, so a class is loaded and described only when it is looked up
+     * through {@code findEntityMetadata}, {@code findEmbeddableMetadata} or
+     * {@code findIdFields}, which dispatch on the class name.</li>
+     * <li>Declares identical {@code PersistenceMetadata} instances once as shared
+     * constants. Constants of JDK types live in the provider class; the others live
+     * in a holder per related type, so that using them only loads that type.</li>
+     * <li>Exposes the full registries through the {@code getEntityMetadataRegistry},
+     * {@code getEmbeddableMetadataRegistry} and {@code getIdFieldsRegistry} methods,
+     * built on first call from the holders.</li>
      * </ul>
      *
-     * @param writer the writer targeting the generated Java source file
+     * @param writer    the writer targeting the generated Java source file
+     * @param className the simple name of the generated class
      * @throws IOException if an I/O error occurs while writing
      */
-    private void writeEntityRegistry(Writer writer) throws IOException {
+    private void writeEntityRegistry(Writer writer, String className) throws IOException {
         writer.write("package io.github.cyfko.projection.metamodel.providers;\n\n");
         writer.write("import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;\n");
         writer.write("import io.github.cyfko.projection.metamodel.model.CollectionKind;\n");
@@ -361,6 +466,8 @@ public class EntityProcessor {
         writer.write("import java.util.Collections;\n");
         writer.write("import java.util.Map;\n");
         writer.write("import java.util.HashMap;\n");
+        writer.write("import java.util.LinkedHashMap;\n");
+        writer.write("import java.util.List;\n");
         writer.write("import java.util.Optional;\n\n");
 
         writer.write("/**\n");
@@ -368,78 +475,325 @@ public class EntityProcessor {
         writer.write(" * DO NOT EDIT - This file is automatically generated.\n");
         writer.write(" */\n");
         writer.write(
-                "public class PersistenceMetadataRegistryProviderImpl implements PersistenceMetadataRegistryProvider {\n");
-        writer.write(
-                "  public static final Map<Class<?>, Map<String, PersistenceMetadata>> ENTITY_METADATA_REGISTRY;\n");
+                "public class " + className + " implements PersistenceMetadataRegistryProvider {\n");
         writer.write(
-                "  public static final Map<Class<?>, Map<String, PersistenceMetadata>> EMBEDDABLE_METADATA_REGISTRY;\n\n");
+                "  private static final " + className + " INSTANCE = new " + className + "();\n\n");
 
-        // FOR ENTITIES
-        writer.write("    static {\n");
-        writer.write("       Map<Class<?>, Map<String, PersistenceMetadata>> registry = new HashMap<>();\n");
-        writer.write(
-                "       Map<Class<?>, Map<String, PersistenceMetadata>> embeddableRegistry = new HashMap<>();\n\n");
+        // SHARED FIELD METADATA: identical metadata is interned into one constant
+        SharedMetadata sharedMetadata = new SharedMetadata();
+        collectedRegistry.values().forEach(sharedMetadata::intern);
+        collectedEmbeddable.values().forEach(sharedMetadata::intern);
+        sharedMetadata.write(writer);
 
-        writer.write("       // Fill entity metadata registry\n");
-        writer.write("       {\n");
+        // PER-CLASS HOLDERS, initialized on first lookup
+        List<HolderEntry> holders = new ArrayList<>();
         for (Map.Entry<String, Map<String, SimplePersistenceMetadata>> entry : collectedRegistry.entrySet()) {
-            String fqcn = entry.getKey();
-            writer.write("          // " + fqcn + "\n");
-            writer.write("          {\n");
-            writer.write("              Map<String, PersistenceMetadata> fields = new HashMap<>();\n");
-
-            for (Map.Entry<String, SimplePersistenceMetadata> fieldEntry : entry.getValue().entrySet()) {
-                String fieldName = fieldEntry.getKey();
-                SimplePersistenceMetadata meta = fieldEntry.getValue();
-
-                writer.write("              fields.put(\"" + fieldName + "\", ");
-                writer.write(generateMetadataInstantiation(meta));
-                writer.write(");\n");
-            }
-
-            writer.write("              registry.put(" + fqcn + ".class, fields);\n");
-            writer.write("          }\n\n");
+            String holder = "Entity" + holders.size();
+            List<String> idFields = collectIdFields(entry.getValue());
+            holders.add(new HolderEntry(entry.getKey(), binaryName(entry.getKey()), holder, false,
+                    !idFields.isEmpty()));
+            writeHolder(writer, holder, entry.getKey(), entry.getValue(), idFields, sharedMetadata);
         }
-        writer.write("       }\n\n");
-
-        writer.write("       // Fill embeddables metadata registry\n");
-        writer.write("       {\n");
+        int embeddableCount = 0;
         for (Map.Entry<String, Map<String, SimplePersistenceMetadata>> entry : collectedEmbeddable.entrySet()) {
-            String fqcn = entry.getKey();
-            writer.write("          // " + fqcn + "\n");
-            writer.write("          {\n");
-            writer.write("              Map<String, PersistenceMetadata> fields = new HashMap<>();\n");
-
-            for (Map.Entry<String, SimplePersistenceMetadata> fieldEntry : entry.getValue().entrySet()) {
-                String fieldName = fieldEntry.getKey();
-                SimplePersistenceMetadata meta = fieldEntry.getValue();
-
-                writer.write("              fields.put(\"" + fieldName + "\", ");
-                writer.write(generateMetadataInstantiation(meta));
-                writer.write(");\n");
-            }
+            String holder = "Embeddable" + embeddableCount++;
+            holders.add(new HolderEntry(entry.getKey(), binaryName(entry.getKey()), holder, true, false));
+            writeHolder(writer, holder, entry.getKey(), entry.getValue(), null, sharedMetadata);
+        }
 
-            writer.write("              embeddableRegistry.put(" + fqcn + ".class, fields);\n");
-            writer.write("          }\n\n");
+        // LOOKUP CHUNKS, dispatched on the hash of the binary class name
+        int lookupCount = Math.max(1, (holders.size() + CLASSES_PER_LOOKUP - 1) / CLASSES_PER_LOOKUP);
+        List<List<HolderEntry>> lookups = new ArrayList<>();
+        for (int i = 0; i < lookupCount; i++) {
+            lookups.add(new ArrayList<>());
+        }
+        for (HolderEntry holder : holders) {
+            lookups.get(Math.floorMod(holder.binaryName().hashCode(), lookupCount)).add(holder);
+        }
+        for (int i = 0; i < lookupCount; i++) {
+            writeLookupChunk(writer, "Lookup" + i, lookups.get(i));
         }
-        writer.write("       }\n\n");
 
-        writer.write("      ENTITY_METADATA_REGISTRY = Collections.unmodifiableMap(registry);\n");
-        writer.write("      EMBEDDABLE_METADATA_REGISTRY = Collections.unmodifiableMap(embeddableRegistry);\n");
+        // FULL REGISTRIES, built on first use
+        writer.write("    /** Full registries, built on first use. Loads every registered class. */\n");
+        writer.write("    private static final class Registries {\n");
+        writer.write(
+                "      static final Map<Class<?>, Map<String, PersistenceMetadata>> ENTITY_METADATA_REGISTRY;\n");
+        writer.write(
+                "      static final Map<Class<?>, Map<String, PersistenceMetadata>> EMBEDDABLE_METADATA_REGISTRY;\n");
+        writer.write(
+                "      static final Map<Class<?>, List<String>> ID_FIELDS_REGISTRY;\n\n");
+        writer.write("      static {\n");
+        writer.write("       Map<Class<?>, Map<String, PersistenceMetadata>> registry = new HashMap<>();\n");
+        writer.write(
+                "       Map<Class<?>, Map<String, PersistenceMetadata>> embeddableRegistry = new HashMap<>();\n");
+        writer.write("       Map<Class<?>, List<String>> idFieldsRegistry = new HashMap<>();\n\n");
+        for (int i = 0; i < lookupCount; i++) {
+            writer.write("       Lookup" + i + ".fill(registry, embeddableRegistry, idFieldsRegistry);\n");
+        }
+        writer.write("\n");
+        writer.write("       ENTITY_METADATA_REGISTRY = Collections.unmodifiableMap(registry);\n");
+        writer.write("       EMBEDDABLE_METADATA_REGISTRY = Collections.unmodifiableMap(embeddableRegistry);\n");
+        writer.write("       ID_FIELDS_REGISTRY = Collections.unmodifiableMap(idFieldsRegistry);\n");
+        writer.write("      }\n");
         writer.write("    }\n\n");
 
+        // SERVICE LOADER ACCESSOR
+        writer.write("    /**\n");
+        writer.write("     * Returns the shared provider instance. Used by {@link java.util.ServiceLoader} on the module path.\n");
+        writer.write("     */\n");
+        writer.write(
+                "    public static PersistenceMetadataRegistryProvider provider() { return INSTANCE; }\n\n");
+
+        // PER-CLASS LOOKUPS
+        writeLookupDispatch(writer, "Map<String, PersistenceMetadata>", "findEntityMetadata", lookupCount);
+        writeLookupDispatch(writer, "Map<String, PersistenceMetadata>", "findEmbeddableMetadata", lookupCount);
+        writeLookupDispatch(writer, "List<String>", "findIdFields", lookupCount);
+
         // FOR ENTITIES
         writer.write("    @Override\n");
         writer.write(
-                "    public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() { return ENTITY_METADATA_REGISTRY; }\n\n");
+                "    public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() { return Registries.ENTITY_METADATA_REGISTRY; }\n\n");
 
         // FOR EMBEDDABLE
         writer.write("    @Override\n");
         writer.write(
-                "    public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() { return EMBEDDABLE_METADATA_REGISTRY; }\n\n");
+                "    public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() { return Registries.EMBEDDABLE_METADATA_REGISTRY; }\n\n");
+
+        // FOR IDENTIFIERS
+        writer.write("    @Override\n");
+        writer.write(
+                "    public Map<Class<?>, List<String>> getIdFieldsRegistry() { return Registries.ID_FIELDS_REGISTRY; }\n\n");
         writer.write("}\n");
     }
 
+    /**
+     * Writes the holder class describing a single entity or embeddable.
+     *
+     * @param writer         the writer targeting the generated Java source file
+     * @param holder         the simple name of the holder class
+     * @param fqcn           the fully qualified name of the described class
+     * @param fields         the field metadata of the described class
+     * @param idFields       the identifier fields of an entity, or {@code null} for an embeddable
+     * @param sharedMetadata the shared metadata constants
+     * @throws IOException if an I/O error occurs while writing
+     */
+    private void writeHolder(Writer writer,
+                             String holder,
+                             String fqcn,
+                             Map<String, SimplePersistenceMetadata> fields,
+                             List<String> idFields,
+                             SharedMetadata sharedMetadata) throws IOException {
+        writer.write("    // " + fqcn + "\n");
+        writer.write("    private static final class " + holder + " {\n");
+        writer.write("      static final Class<?> TYPE = " + fqcn + ".class;\n");
+        writer.write("      static final Map<String, PersistenceMetadata> FIELDS;\n");
+        if (idFields != null && !idFields.isEmpty()) {
+            writer.write("      static final List<String> ID_FIELDS = List.of("
+                    + idFields.stream().map(f -> "\"" + f + "\"").collect(Collectors.joining(", ")) + ");\n");
+        }
+        writer.write("\n");
+        writer.write("      static {\n");
+        writer.write("        Map<String, PersistenceMetadata> fields = new LinkedHashMap<>();\n");
+        List<Map.Entry<String, SimplePersistenceMetadata>> entries = new ArrayList<>(fields.entrySet());
+        if (entries.size() <= FIELDS_PER_METHOD) {
+            writeFieldPuts(writer, entries, sharedMetadata);
+        } else {
+            for (int i = 0; i * FIELDS_PER_METHOD < entries.size(); i++) {
+                writer.write("        fill" + i + "(fields);\n");
+            }
+        }
+        writer.write("        FIELDS = Collections.unmodifiableMap(fields);\n");
+        writer.write("      }\n");
+
+        // Wide classes register their fields in bounded chunks, in declaration order
+        if (entries.size() > FIELDS_PER_METHOD) {
+            for (int i = 0; i * FIELDS_PER_METHOD < entries.size(); i++) {
+                writer.write("\n      private static void fill" + i + "(Map<String, PersistenceMetadata> fields) {\n");
+                writeFieldPuts(writer, entries.subList(i * FIELDS_PER_METHOD,
+                        Math.min(entries.size(), (i + 1) * FIELDS_PER_METHOD)), sharedMetadata);
+                writer.write("      }\n");
+            }
+        }
+        writer.write("    }\n\n");
+    }
+
+    private void writeFieldPuts(Writer writer,
+                                List<Map.Entry<String, SimplePersistenceMetadata>> entries,
+                                SharedMetadata sharedMetadata) throws IOException {
+        for (Map.Entry<String, SimplePersistenceMetadata> fieldEntry : entries) {
+            writer.write("        fields.put(\"" + fieldEntry.getKey() + "\", "
+                    + sharedMetadata.reference(fieldEntry.getValue()) + ");\n");
+        }
+    }
+
+    /**
+     * Writes a lookup chunk: the holder class resolving the classes whose binary name hashes to this chunk,
+     * and registering them into the full registries. Lookups dispatch on the binary name of the requested
+     * class, then check that the holder describes that very class (and not a homonym from another class
+     * loader).
+     *
+     * @param writer  the writer targeting the generated Java source file
+     * @param name    the simple name of the chunk class
+     * @param holders the classes handled by the chunk
+     * @throws IOException if an I/O error occurs while writing
+     */
+    private void writeLookupChunk(Writer writer, String name, List<HolderEntry> holders) throws IOException {
+        List<HolderEntry> entities = holders.stream().filter(h -> !h.embeddable()).toList();
+        List<HolderEntry> embeddables = holders.stream().filter(HolderEntry::embeddable).toList();
+        List<HolderEntry> withIdFields = entities.stream().filter(HolderEntry::hasIdFields).toList();
+
+        writer.write("    private static final class " + name + " {\n");
+        writeLookupSwitch(writer, "Map<String, PersistenceMetadata> findEntityMetadata", entities, "FIELDS");
+        writeLookupSwitch(writer, "Map<String, PersistenceMetadata> findEmbeddableMetadata", embeddables, "FIELDS");
+        writeLookupSwitch(writer, "List<String> findIdFields", withIdFields, "ID_FIELDS");
+
+        writer.write("      static void fill(Map<Class<?>, Map<String, PersistenceMetadata>> registry,\n");
+        writer.write("                       Map<Class<?>, Map<String, PersistenceMetadata>> embeddableRegistry,\n");
+        writer.write("                       Map<Class<?>, List<String>> idFieldsRegistry) {\n");
+        for (HolderEntry holder : entities) {
+            writer.write("        registry.put(" + holder.fqcn() + ".class, " + holder.holder() + ".FIELDS);\n");
+            if (holder.hasIdFields()) {
+                writer.write("        idFieldsRegistry.put(" + holder.fqcn() + ".class, " + holder.holder()
+                        + ".ID_FIELDS);\n");
+            }
+        }
+        for (HolderEntry holder : embeddables) {
+            writer.write("        embeddableRegistry.put(" + holder.fqcn() + ".class, " + holder.holder()
+                    + ".FIELDS);\n");
+        }
+        writer.write("      }\n");
+        writer.write("    }\n\n");
+    }
+
+    private void writeLookupSwitch(Writer writer,
+                                   String signature,
+                                   List<HolderEntry> holders,
+                                   String field) throws IOException {
+        writer.write("      static " + signature + "(Class<?> type) {\n");
+        writer.write("        return switch (type.getName()) {\n");
+        for (HolderEntry holder : holders) {
+            writer.write("          case \"" + holder.binaryName() + "\" -> " + holder.holder() + ".TYPE == type ? "
+                    + holder.holder() + "." + field + " : null;\n");
+        }
+        writer.write("          default -> null;\n");
+        writer.write("        };\n");
+        writer.write("      }\n\n");
+    }
+
+    /**
+     * Writes a per-class lookup of the provider, forwarding to the lookup chunk the requested class hashes to.
+     *
+     * @param writer      the writer targeting the generated Java source file
+     * @param returnType  the return type of the overridden method
+     * @param method      the name of the overridden method
+     * @param lookupCount the number of lookup chunks
+     * @throws IOException if an I/O error occurs while writing
+     */
+    private void writeLookupDispatch(Writer writer,
+                                     String returnType,
+                                     String method,
+                                     int lookupCount) throws IOException {
+        writer.write("    @Override\n");
+        writer.write("    public " + returnType + " " + method + "(Class<?> type) {\n");
+        if (lookupCount == 1) {
+            writer.write("        return Lookup0." + method + "(type);\n");
+        } else {
+            writer.write("        return switch (Math.floorMod(type.getName().hashCode(), " + lookupCount + ")) {\n");
+            for (int i = 0; i < lookupCount; i++) {
+                writer.write("            case " + i + " -> Lookup" + i + "." + method + "(type);\n");
+            }
+            writer.write("            default -> null;\n");
+            writer.write("        };\n");
+        }
+        writer.write("    }\n\n");
+    }
+
+    private String binaryName(String fqcn) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(fqcn);
+        return type != null ? processingEnv.getElementUtils().getBinaryName(type).toString() : fqcn;
+    }
+
+    /**
+     * Shared {@code PersistenceMetadata} constants of the generated registry, keyed by instantiation
+     * expression. Constants whose related type belongs to the JDK are declared in the provider class;
+     * the others are grouped in one holder class per related type.
+     */
+    private final class SharedMetadata {
+        private final Map<String, String> references = new LinkedHashMap<>();
+        private final Map<String, String> jdkConstants = new LinkedHashMap<>();
+        private final Map<String, Map<String, String>> holderConstants = new LinkedHashMap<>();
+        private final Map<String, String> holderNames = new LinkedHashMap<>();
+
+        void intern(Map<String, SimplePersistenceMetadata> fields) {
+            for (SimplePersistenceMetadata meta : fields.values()) {
+                String expression = generateMetadataInstantiation(meta);
+                if (references.containsKey(expression)) {
+                    continue;
+                }
+
+                String constant = "META_" + references.size();
+                String relatedType = meta.relatedType();
+                if (relatedType.indexOf('.') < 0 || relatedType.startsWith("java.")) {
+                    jdkConstants.put(expression, constant);
+                    references.put(expression, constant);
+                } else {
+                    String holder = holderNames.computeIfAbsent(relatedType, t -> "Shared" + holderNames.size());
+                    holderConstants.computeIfAbsent(holder, h -> new LinkedHashMap<>()).put(expression, constant);
+                    references.put(expression, holder + "." + constant);
+                }
+            }
+        }
+
+        String reference(SimplePersistenceMetadata meta) {
+            return references.get(generateMetadataInstantiation(meta));
+        }
+
+        void write(Writer writer) throws IOException {
+            for (Map.Entry<String, String> constant : jdkConstants.entrySet()) {
+                writer.write("  private static final PersistenceMetadata " + constant.getValue() + " = "
+                        + constant.getKey() + ";\n");
+            }
+            writer.write("\n");
+
+            for (Map.Entry<String, String> type : holderNames.entrySet()) {
+                writer.write("    // Shared metadata of " + type.getKey() + "\n");
+                writer.write("    private static final class " + type.getValue() + " {\n");
+                for (Map.Entry<String, String> constant : holderConstants.get(type.getValue()).entrySet()) {
+                    writer.write("      static final PersistenceMetadata " + constant.getValue() + " = "
+                            + constant.getKey() + ";\n");
+                }
+                writer.write("    }\n\n");
+            }
+        }
+    }
+
+    /**
+     * Collects the identifier field names of an entity, in declaration order.
+     * <p>
+     * An identifier whose type is a collected embeddable ({@code @EmbeddedId}) is replaced by the
+     * fields of that embeddable, as {@code PersistenceRegistry#getIdFields} expects.
+     * </p>
+     *
+     * @param fields the collected metadata of the entity fields
+     * @return the identifier field names, empty if the entity declares no identifier
+     */
+    private List<String> collectIdFields(Map<String, SimplePersistenceMetadata> fields) {
+        List<String> idFields = new ArrayList<>();
+        for (Map.Entry<String, SimplePersistenceMetadata> field : fields.entrySet()) {
+            if (!field.getValue().isId()) {
+                continue;
+            }
+            Map<String, SimplePersistenceMetadata> embeddedId = collectedEmbeddable.get(field.getValue().relatedType());
+            if (embeddedId != null) {
+                idFields.addAll(embeddedId.keySet());
+            } else {
+                idFields.add(field.getKey());
+            }
+        }
+        return idFields;
+    }
+
     /**
      * Determines whether a given {@code @Entity} type should be skipped from
      * processing.
@@ -782,6 +1136,19 @@ public class EntityProcessor {
         return sb.toString();
     }
 
+    /**
+     * A class described by a holder of the generated registry.
+     *
+     * @param fqcn        the canonical name of the described class
+     * @param binaryName  the binary name of the described class, as returned by {@link Class#getName()}
+     * @param holder      the simple name of the holder class
+     * @param embeddable  whether the described class is an embeddable
+     * @param hasIdFields whether the holder declares identifier fields
+     */
+    private record HolderEntry(String fqcn, String binaryName, String holder, boolean embeddable,
+                               boolean hasIdFields) {
+    }
+
     /**
      * Lightweight internal representation of persistence metadata for a single
      * field.
@@ -29,11 +29,31 @@ import java.util.Set;
 @AutoService(Processor.class)
 @SupportedAnnotationTypes("io.github.cyfko.projection.Projection")
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
+@SupportedOptions({ProjectionProcessor.MAX_PATH_DEPTH_OPTION, MetamodelProcessor.MODULE_NAME_OPTION,
+        MetamodelProcessor.REGISTRY_FORMAT_OPTION})
 public class MetamodelProcessor extends AbstractProcessor {
 
+    /**
+     * Processor option naming the compiled module (e.g. {@code -Aprojection.metamodel.moduleName=billing}).
+     * When set, the generated registry providers are suffixed with it (e.g.
+     * {@code ProjectionMetadataRegistryProviderImpl_billing}), so that several modules can each ship their
+     * own registry on the same class path. The runtime registries merge every provider they discover.
+     */
+    public static final String MODULE_NAME_OPTION = "projection.metamodel.moduleName";
+
+    /**
+     * Processor option selecting how the registries are emitted (e.g.
+     * {@code -Aprojection.metamodel.registryFormat=binary}). {@code source}, the default, generates the registry
+     * provider classes. {@code binary} writes the metadata to compact resources under
+     * {@code META-INF/projection-metamodel} instead, which the runtime registries decode at startup: there is no
+     * large generated source to compile, nor static initializer to run.
+     */
+    public static final String REGISTRY_FORMAT_OPTION = "projection.metamodel.registryFormat";
+
     private EntityProcessor entityProcessor;
     private ProjectionProcessor projectionProcessor;
     private boolean entitiesProcessed = false;
+    private boolean binaryRegistry = false;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
@@ -42,6 +62,7 @@ public class MetamodelProcessor extends AbstractProcessor {
         // Initialize delegate processors
         this.entityProcessor = new EntityProcessor(processingEnv);
         this.projectionProcessor = new ProjectionProcessor(processingEnv, entityProcessor);
+        this.binaryRegistry = readBinaryRegistry(processingEnv);
         
         log("🚀 Projection Metamodel Processor initialized");
     }
@@ -105,12 +126,20 @@ public class MetamodelProcessor extends AbstractProcessor {
 
             // Generate entity registry
             if (!entityProcessor.getRegistry().isEmpty()) {
-                entityProcessor.generateProviderImpl();
+                if (binaryRegistry) {
+                    entityProcessor.generateBinaryRegistry();
+                } else {
+                    entityProcessor.generateProviderImpl();
+                }
             }
 
             // Generate projection registry
             if (!projectionProcessor.getRegistry().isEmpty()) {
-                projectionProcessor.generateProviderImpl();
+                if (binaryRegistry) {
+                    projectionProcessor.generateBinaryRegistry();
+                } else {
+                    projectionProcessor.generateProviderImpl();
+                }
             }
 
             log("═══════════════════════════════════════════════════");
@@ -167,6 +196,50 @@ public class MetamodelProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Returns the simple name of a generated registry provider, suffixed with the
+     * {@link #MODULE_NAME_OPTION} value when one is set. Characters that cannot appear in a Java identifier
+     * are replaced by {@code '_'}.
+     *
+     * @param processingEnv the processing environment holding the options
+     * @param baseName      the simple name used when no module name is configured
+     * @return the simple name of the generated class
+     */
+    static String providerSimpleName(ProcessingEnvironment processingEnv, String baseName) {
+        String moduleName = processingEnv.getOptions().get(MODULE_NAME_OPTION);
+        if (moduleName == null || moduleName.isBlank()) {
+            return baseName;
+        }
+
+        StringBuilder name = new StringBuilder(baseName).append('_');
+        for (char c : moduleName.trim().toCharArray()) {
+            name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        return name.toString();
+    }
+
+    /**
+     * Reads the {@link #REGISTRY_FORMAT_OPTION} processor option, reporting a warning and falling back to
+     * {@code source} when the value is unknown.
+     *
+     * @param processingEnv the processing environment holding the options
+     * @return {@code true} if the registries should be written as binary resources
+     */
+    private static boolean readBinaryRegistry(ProcessingEnvironment processingEnv) {
+        String value = processingEnv.getOptions().get(REGISTRY_FORMAT_OPTION);
+        if (value == null || value.trim().equalsIgnoreCase("source")) {
+            return false;
+        }
+        if (value.trim().equalsIgnoreCase("binary")) {
+            return true;
+        }
+
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Invalid value '" + value + "' for option " + REGISTRY_FORMAT_OPTION
+                        + ": expected 'source' or 'binary', using source");
+        return false;
+    }
+
     private void log(String message) {
         processingEnv.getMessager().printMessage(
                 Diagnostic.Kind.NOTE,
@@ -8,6 +8,7 @@ import io.github.cyfko.projection.metamodel.model.CollectionType;
 import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
 import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
 import io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils;
+import io.github.cyfko.projection.metamodel.util.BinaryRegistryFormat;
 
 import javax.annotation.processing.*;
 import javax.lang.model.element.*;
@@ -15,8 +16,11 @@ import javax.lang.model.type.*;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.*;
 import java.util.function.Consumer;
@@ -29,14 +33,64 @@ import static io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils
  * NOT a standalone annotation processor - used by MetamodelProcessor.
  */
 public class ProjectionProcessor {
+
+    /**
+     * Processor option bounding the number of segments of the DTO paths precomputed in the generated
+     * registry (e.g. {@code -Aprojection.metamodel.maxPathDepth=2}). {@code 0} disables the path tables.
+     */
+    public static final String MAX_PATH_DEPTH_OPTION = "projection.metamodel.maxPathDepth";
+
+    /**
+     * Default value of {@link #MAX_PATH_DEPTH_OPTION}.
+     */
+    public static final int DEFAULT_MAX_PATH_DEPTH = 3;
+
+    /**
+     * Maximum size, in characters of generated source, of the projections registered by a single
+     * generated method. Keeps the bytecode of each method well below javac's 64 KB limit and the size the
+     * JIT refuses to compile ({@code -XX:HugeMethodLimit}); the content of a larger projection is split
+     * across several generated classes.
+     */
+    static final int CHUNK_SOURCE_BUDGET = 12_000;
+
     private final ProcessingEnvironment processingEnv;
     private final EntityProcessor entityProcessor;
     private final Map<String, SimpleProjectionMetadata> projectionRegistry = new LinkedHashMap<>();
     private final List<TypeElement> referencedProjections = new ArrayList<>();
+    private final int maxPathDepth;
 
     public ProjectionProcessor(ProcessingEnvironment processingEnv, EntityProcessor entityProcessor) {
         this.processingEnv = processingEnv;
         this.entityProcessor = entityProcessor;
+        this.maxPathDepth = readMaxPathDepth(processingEnv);
+    }
+
+    /**
+     * Reads the {@link #MAX_PATH_DEPTH_OPTION} processor option, reporting a warning and falling back to
+     * {@link #DEFAULT_MAX_PATH_DEPTH} when the value is not a non-negative integer.
+     *
+     * @param processingEnv the processing environment holding the options
+     * @return the maximum number of segments of precomputed DTO paths
+     */
+    private static int readMaxPathDepth(ProcessingEnvironment processingEnv) {
+        String value = processingEnv.getOptions().get(MAX_PATH_DEPTH_OPTION);
+        if (value == null) {
+            return DEFAULT_MAX_PATH_DEPTH;
+        }
+
+        try {
+            int depth = Integer.parseInt(value.trim());
+            if (depth >= 0) {
+                return depth;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "Invalid value '" + value + "' for option " + MAX_PATH_DEPTH_OPTION
+                        + ": expected a non-negative integer, using " + DEFAULT_MAX_PATH_DEPTH);
+        return DEFAULT_MAX_PATH_DEPTH;
     }
 
     /**
@@ -86,8 +140,9 @@ public class ProjectionProcessor {
      * <p>
      * The generated class is written via the
      * {@link javax.annotation.processing.Filer} and contains
-     * a static unmodifiable registry initialized at class-load time. It is safe to
-     * invoke this
+     * a static unmodifiable registry initialized at class-load time. The class is
+     * also registered in {@code META-INF/services} so that the runtime registry
+     * finds it through {@link java.util.ServiceLoader}. It is safe to invoke this
      * method only after all relevant {@code @Projection} DTOs have been processed.
      * </p>
      */
@@ -97,14 +152,18 @@ public class ProjectionProcessor {
                 "🛠️ Generating ProjectionMetadataRegistryProvider implementation...");
 
         try {
+            String className = MetamodelProcessor.providerSimpleName(processingEnv, "ProjectionMetadataRegistryProviderImpl");
             JavaFileObject file = processingEnv.getFiler()
-                    .createSourceFile(
-                            "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl");
+                    .createSourceFile("io.github.cyfko.projection.metamodel.providers." + className);
 
             try (Writer writer = file.openWriter()) {
-                writeProjectionRegistry(writer);
+                writeProjectionRegistry(writer, className);
             }
 
+            AnnotationProcessorUtils.writeServiceFile(processingEnv,
+                    "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider",
+                    "io.github.cyfko.projection.metamodel.providers." + className);
+
             messager.printMessage(Diagnostic.Kind.NOTE,
                     "✅ ProjectionMetadataRegistryProviderImpl generated with " + projectionRegistry.size()
                             + " projections");
@@ -115,6 +174,95 @@ public class ProjectionProcessor {
         }
     }
 
+    /**
+     * Writes the collected projection metadata to the binary
+     * {@link BinaryRegistryFormat#PROJECTION_RESOURCE} resource, used instead of
+     * {@link #generateProviderImpl()} when the binary registry format is selected.
+     * <p>
+     * Field indexes and required entity fields are derived again when the
+     * resource is decoded, hence they are not written.
+     * </p>
+     */
+    public void generateBinaryRegistry() {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.NOTE, "🛠️ Writing binary projection metadata registry...");
+
+        try {
+            BinaryRegistryFormat.Encoder encoder = new BinaryRegistryFormat.Encoder();
+            ProjectionQueryBuilder queryBuilder = new ProjectionQueryBuilder(processingEnv, entityProcessor,
+                    projectionRegistry);
+            encoder.writeInt(projectionRegistry.size());
+            for (var entry : projectionRegistry.entrySet()) {
+                encodeProjection(encoder, queryBuilder, entry.getKey(), entry.getValue());
+            }
+
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", BinaryRegistryFormat.PROJECTION_RESOURCE);
+            try (OutputStream out = file.openOutputStream()) {
+                encoder.writeTo(out);
+            }
+
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    "✅ Binary projection metadata registry written with " + projectionRegistry.size()
+                            + " projections");
+
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write binary projection metadata registry: " + e.getMessage());
+        }
+    }
+
+    private void encodeProjection(BinaryRegistryFormat.Encoder encoder, ProjectionQueryBuilder queryBuilder,
+            String dtoType, SimpleProjectionMetadata metadata) {
+        Elements elements = processingEnv.getElementUtils();
+        encoder.writeString(AnnotationProcessorUtils.runtimeClassName(elements, dtoType))
+                .writeString(AnnotationProcessorUtils.runtimeClassName(elements, metadata.entityClass()));
+
+        encoder.writeInt(metadata.directMappings().size());
+        for (SimpleDirectMapping m : metadata.directMappings()) {
+            encoder.writeString(m.dtoField())
+                    .writeString(m.entityField())
+                    .writeString(AnnotationProcessorUtils.runtimeClassName(elements, m.dtoFieldType()))
+                    .writeByte(m.collection().isPresent() ? 1 : 0);
+            m.collection().ifPresent(c -> encoder
+                    .writeByte(c.kind().ordinal())
+                    .writeByte(c.collectionType().ordinal()));
+        }
+
+        encoder.writeInt(metadata.computedFields().size());
+        for (SimpleComputedField f : metadata.computedFields()) {
+            encoder.writeString(f.dtoField()).writeInt(f.dependencies().length);
+            for (String dependency : f.dependencies()) {
+                encoder.writeString(dependency);
+            }
+            encoder.writeInt(f.reducerIndices().length);
+            for (int i = 0; i < f.reducerIndices().length; i++) {
+                encoder.writeInt(f.reducerIndices()[i]).writeString(f.reducerNames()[i]);
+            }
+            encoder.writeString(f.methodClass() != null
+                            ? AnnotationProcessorUtils.runtimeClassName(elements, f.methodClass())
+                            : null)
+                    .writeString(f.methodName() != null && !f.methodName().isBlank() ? f.methodName() : null);
+        }
+
+        encoder.writeInt(metadata.computers().length);
+        for (SimpleComputationProvider c : metadata.computers()) {
+            encoder.writeString(AnnotationProcessorUtils.runtimeClassName(elements, c.className()))
+                    .writeString(c.bean());
+        }
+
+        Map<String, String> entityPaths = collectEntityPaths(dtoType);
+        encoder.writeInt(entityPaths.size());
+        entityPaths.forEach((dtoPath, entityPath) -> encoder.writeString(dtoPath).writeString(entityPath));
+
+        ProjectionQueryBuilder.SimpleProjectionQuery query = queryBuilder.build(dtoType);
+        encoder.writeString(query.tupleQuery()).writeString(query.constructorQuery());
+        encoder.writeInt(query.selectedPaths().size());
+        query.selectedPaths().forEach(encoder::writeString);
+        encoder.writeInt(query.collectionPaths().size());
+        query.collectionPaths().forEach(encoder::writeString);
+    }
+
     /**
      * Processes a single {@code @Projection}-annotated DTO class and records its
      * metadata.
@@ -776,10 +924,11 @@ public class ProjectionProcessor {
      * view of that registry.
      * </p>
      *
-     * @param writer the writer used to output Java source code
+     * @param writer    the writer used to output Java source code
+     * @param className the simple name of the generated class
      * @throws IOException if an error occurs while writing to the underlying stream
      */
-    private void writeProjectionRegistry(Writer writer) throws IOException {
+    private void writeProjectionRegistry(Writer writer, String className) throws IOException {
         writer.write("package io.github.cyfko.projection.metamodel.providers;\n\n");
         writer.write("import io.github.cyfko.projection.metamodel.model.projection.*;\n");
         writer.write("import io.github.cyfko.projection.metamodel.model.CollectionKind;\n");
@@ -795,83 +944,398 @@ public class ProjectionProcessor {
         writer.write(" * DO NOT EDIT - This file is automatically generated.\n");
         writer.write(" */\n");
         writer.write(
-                "public class ProjectionMetadataRegistryProviderImpl implements ProjectionMetadataRegistryProvider {\n\n");
-
-        writer.write("    private static final Map<Class<?>, ProjectionMetadata> REGISTRY;\n\n");
+                "public class " + className + " implements ProjectionMetadataRegistryProvider {\n\n");
+
+        writer.write("    private static final Map<Class<?>, ProjectionMetadata> REGISTRY;\n");
+        writer.write("    private static final Map<Class<?>, Map<String, String>> ENTITY_PATHS;\n");
+        writer.write("    private static final Map<Class<?>, ProjectionQuery> QUERIES;\n");
+        writer.write("    private static final " + className + " INSTANCE = new " + className + "();\n\n");
+
+        // Projections are registered by chunk classes of bounded size, so that no generated method
+        // (nor constant pool) grows with the number of projections; the content of a projection too large
+        // for a chunk of its own is itself spread over part classes
+        ProjectionQueryBuilder queryBuilder = new ProjectionQueryBuilder(processingEnv, entityProcessor,
+                projectionRegistry);
+        List<StringBuilder> chunks = new ArrayList<>();
+        List<Part> parts = new ArrayList<>();
+        StringBuilder chunk = null;
+        for (var entry : projectionRegistry.entrySet()) {
+            ProjectionQueryBuilder.SimpleProjectionQuery query = queryBuilder.build(entry.getKey());
+            String code = formatProjectionEntry(entry, query);
+            if (code.length() > CHUNK_SOURCE_BUDGET) {
+                code = formatSplitProjectionEntry(entry, query, parts);
+            }
+            if (chunk == null || (chunk.length() > 0 && chunk.length() + code.length() > CHUNK_SOURCE_BUDGET)) {
+                chunk = new StringBuilder();
+                chunks.add(chunk);
+            }
+            chunk.append(code);
+        }
 
         writer.write("    static {\n");
-        writer.write("        Map<Class<?>, ProjectionMetadata> registry = new HashMap<>();\n\n");
+        writer.write("        Map<Class<?>, ProjectionMetadata> registry = new HashMap<>();\n");
+        writer.write("        Map<Class<?>, Map<String, String>> entityPaths = new HashMap<>();\n");
+        writer.write("        Map<Class<?>, ProjectionQuery> queries = new HashMap<>();\n\n");
+        for (int i = 0; i < chunks.size(); i++) {
+            writer.write("        Chunk" + i + ".register(registry, entityPaths, queries);\n");
+        }
+        writer.write("\n");
+        writer.write("        REGISTRY = Collections.unmodifiableMap(registry);\n");
+        writer.write("        ENTITY_PATHS = Collections.unmodifiableMap(entityPaths);\n");
+        writer.write("        QUERIES = Collections.unmodifiableMap(queries);\n");
+        writer.write("    }\n\n");
 
-        for (var entry : projectionRegistry.entrySet()) {
-            writeProjectionEntry(writer, entry);
+        for (int i = 0; i < chunks.size(); i++) {
+            writer.write("    private static final class Chunk" + i + " {\n");
+            writer.write("      static void register(Map<Class<?>, ProjectionMetadata> registry,\n");
+            writer.write("                           Map<Class<?>, Map<String, String>> entityPaths,\n");
+            writer.write("                           Map<Class<?>, ProjectionQuery> queries) {\n");
+            writer.write(chunks.get(i).toString());
+            writer.write("      }\n");
+            writer.write("    }\n\n");
         }
 
-        writer.write("        REGISTRY = Collections.unmodifiableMap(registry);\n");
+        for (int i = 0; i < parts.size(); i++) {
+            writer.write("    private static final class Part" + i + " {\n");
+            writer.write("      static void fill(" + parts.get(i).parameterType() + " t) {\n");
+            writer.write(parts.get(i).body().toString());
+            writer.write("      }\n");
+            writer.write("    }\n\n");
+        }
+
+        writer.write("    /**\n");
+        writer.write("     * Returns the shared provider instance. Used by {@link java.util.ServiceLoader} on the module path.\n");
+        writer.write("     */\n");
+        writer.write("    public static ProjectionMetadataRegistryProvider provider() {\n");
+        writer.write("        return INSTANCE;\n");
         writer.write("    }\n\n");
 
         writer.write("    @Override\n");
         writer.write("    public Map<Class<?>, ProjectionMetadata> getProjectionMetadataRegistry() {\n");
         writer.write("        return REGISTRY;\n");
+        writer.write("    }\n\n");
+
+        writer.write("    @Override\n");
+        writer.write("    public Map<Class<?>, Map<String, String>> getEntityPathRegistry() {\n");
+        writer.write("        return ENTITY_PATHS;\n");
+        writer.write("    }\n\n");
+
+        writer.write("    @Override\n");
+        writer.write("    public Map<Class<?>, ProjectionQuery> getProjectionQueryRegistry() {\n");
+        writer.write("        return QUERIES;\n");
         writer.write("    }\n");
         writer.write("}\n");
     }
 
     /**
-     * Writes a single projection entry into the generated registry initialization
-     * block.
+     * Formats a single projection entry of the generated registry initialization
+     * code.
      *
-     * @param writer the writer used to output Java source code
-     * @param entry  the metadata entry keyed by the DTO fully qualified name
-     * @throws IOException if an error occurs while writing to the underlying stream
+     * @param entry the metadata entry keyed by the DTO fully qualified name
+     * @param query the queries precomputed for the projection
+     * @return the Java statements registering the projection
      */
-    private void writeProjectionEntry(Writer writer, Map.Entry<String, SimpleProjectionMetadata> entry)
-            throws IOException {
+    private String formatProjectionEntry(Map.Entry<String, SimpleProjectionMetadata> entry,
+            ProjectionQueryBuilder.SimpleProjectionQuery query) {
         String dtoType = entry.getKey();
         SimpleProjectionMetadata metadata = entry.getValue();
 
         StringBuilder sb = new StringBuilder();
         sb.append("        // ").append(dtoType).append(" → ").append(metadata.entityClass()).append("\n");
-        sb.append("        registry.put(\n");
-        sb.append("            ").append(dtoType).append(".class,\n");
-        sb.append("            new ProjectionMetadata(\n");
-        sb.append("                ").append(metadata.entityClass()).append(".class,\n");
+        sb.append("        {\n");
 
         // Direct mappings
-        sb.append("                new DirectMapping[]{");
+        sb.append("            DirectMapping[] directMappings = new DirectMapping[]{");
         if (!metadata.directMappings().isEmpty()) {
             sb.append("\n");
             for (int i = 0; i < metadata.directMappings().size(); i++) {
                 sb.append(formatDirectMapping(metadata.directMappings().get(i)));
                 sb.append(i < metadata.directMappings().size() - 1 ? ",\n" : "\n");
             }
-            sb.append("                ");
+            sb.append("            ");
         }
-        sb.append("},\n");
+        sb.append("};\n");
 
         // Computed fields
-        sb.append("                new ComputedField[]{");
+        sb.append("            ComputedField[] computedFields = new ComputedField[]{");
         if (!metadata.computedFields().isEmpty()) {
             sb.append("\n");
             for (int i = 0; i < metadata.computedFields().size(); i++) {
                 sb.append(formatComputedField(metadata.computedFields().get(i)));
                 sb.append(i < metadata.computedFields().size() - 1 ? ",\n" : "\n");
             }
-            sb.append("                ");
+            sb.append("            ");
         }
-        sb.append("},\n");
+        sb.append("};\n");
+
+        sb.append("            registry.put(\n");
+        sb.append("                ").append(dtoType).append(".class,\n");
+        sb.append("                new ProjectionMetadata(\n");
+        sb.append("                    ").append(metadata.entityClass()).append(".class,\n");
+        sb.append("                    directMappings,\n");
+        sb.append("                    computedFields,\n");
 
         // Computers providers
-        sb.append("                new ComputationProvider[]{\n");
+        sb.append("                    new ComputationProvider[]{\n");
+        for (int i = 0; i < metadata.computers().length; i++) {
+            sb.append(formatComputerProvider(metadata.computers()[i]));
+            sb.append(i < metadata.computers().length - 1 ? ",\n" : "\n");
+        }
+        sb.append("                    },\n");
+
+        // Field index
+        sb.append(formatFieldIndex(metadata)).append(",\n");
+
+        // Required entity fields
+        sb.append(formatRequiredEntityFields(metadata)).append("\n");
+
+        sb.append("                )\n");
+        sb.append("            );\n");
+
+        // DTO path → entity path table, filled by plain statements: a single Map.ofEntries(...) expression
+        // costs javac a generic inference growing superlinearly with the number of entries
+        Map<String, String> entityPaths = collectEntityPaths(dtoType);
+        if (!entityPaths.isEmpty()) {
+            sb.append("            Map<String, String> paths = new HashMap<>(")
+                    .append(hashMapCapacity(entityPaths.size())).append(");\n");
+            entityPaths.forEach((dtoPath, entityPath) -> sb.append("            ")
+                    .append(formatPathEntry("paths", dtoPath, entityPath)).append("\n"));
+            sb.append("            entityPaths.put(").append(dtoType).append(".class, Map.copyOf(paths));\n");
+        }
+
+        // Precomputed JPQL queries
+        sb.append("            queries.put(").append(dtoType).append(".class, new ProjectionQuery(\n");
+        sb.append("                \"").append(query.tupleQuery()).append("\",\n");
+        sb.append("                ").append(query.constructorQuery() != null
+                ? "\"" + query.constructorQuery() + "\"" : "null").append(",\n");
+        sb.append("                ").append(formatStringList(query.selectedPaths())).append(",\n");
+        sb.append("                ").append(formatStringList(query.collectionPaths())).append("\n");
+        sb.append("            ));\n");
+        sb.append("        }\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats a projection entry whose statements, as formatted by {@link #formatProjectionEntry}, would
+     * exceed {@link #CHUNK_SOURCE_BUDGET} on their own: a wide projection or a deep path table would then
+     * still produce an oversized method. The mapping arrays, the path table and the selected paths are
+     * instead filled by {@link Part} classes of bounded size, and the field index and required entity fields
+     * are left to the {@code ProjectionMetadata} constructor, whose {@code switch}-free index keeps the
+     * lookups of such projections out of a method too large to be JIT-compiled.
+     *
+     * @param entry the metadata entry keyed by the DTO fully qualified name
+     * @param query the queries precomputed for the projection
+     * @param parts the parts generated so far, to which the parts of this projection are added
+     * @return the Java statements registering the projection
+     */
+    private String formatSplitProjectionEntry(Map.Entry<String, SimpleProjectionMetadata> entry,
+            ProjectionQueryBuilder.SimpleProjectionQuery query, List<Part> parts) {
+        String dtoType = entry.getKey();
+        SimpleProjectionMetadata metadata = entry.getValue();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("        // ").append(dtoType).append(" → ").append(metadata.entityClass()).append("\n");
+        sb.append("        {\n");
+
+        List<String> statements = new ArrayList<>();
+        for (SimpleDirectMapping m : metadata.directMappings()) {
+            statements.add("t[" + statements.size() + "] = " + formatDirectMapping(m).strip() + ";");
+        }
+        sb.append("            DirectMapping[] directMappings = new DirectMapping[")
+                .append(statements.size()).append("];\n");
+        appendParts(sb, parts, "DirectMapping[]", "directMappings", statements);
+
+        statements = new ArrayList<>();
+        for (SimpleComputedField f : metadata.computedFields()) {
+            statements.add("t[" + statements.size() + "] = " + formatComputedField(f).strip() + ";");
+        }
+        sb.append("            ComputedField[] computedFields = new ComputedField[")
+                .append(statements.size()).append("];\n");
+        appendParts(sb, parts, "ComputedField[]", "computedFields", statements);
+
+        sb.append("            registry.put(").append(dtoType).append(".class, new ProjectionMetadata(")
+                .append(metadata.entityClass()).append(".class, directMappings, computedFields,\n");
+        sb.append("                    new ComputationProvider[]{\n");
         for (int i = 0; i < metadata.computers().length; i++) {
             sb.append(formatComputerProvider(metadata.computers()[i]));
             sb.append(i < metadata.computers().length - 1 ? ",\n" : "\n");
         }
-        sb.append("                }\n");
+        sb.append("                    }));\n");
+
+        Map<String, String> entityPaths = collectEntityPaths(dtoType);
+        if (!entityPaths.isEmpty()) {
+            statements = new ArrayList<>();
+            for (Map.Entry<String, String> path : entityPaths.entrySet()) {
+                statements.add(formatPathEntry("t", path.getKey(), path.getValue()));
+            }
+            sb.append("            Map<String, String> paths = new HashMap<>(")
+                    .append(hashMapCapacity(entityPaths.size())).append(");\n");
+            appendParts(sb, parts, "Map<String, String>", "paths", statements);
+            sb.append("            entityPaths.put(").append(dtoType).append(".class, Map.copyOf(paths));\n");
+        }
+
+        statements = new ArrayList<>();
+        for (String path : query.selectedPaths()) {
+            statements.add("t[" + statements.size() + "] = \"" + path + "\";");
+        }
+        sb.append("            String[] selectedPaths = new String[").append(statements.size()).append("];\n");
+        appendParts(sb, parts, "String[]", "selectedPaths", statements);
+
+        sb.append("            queries.put(").append(dtoType).append(".class, new ProjectionQuery(\n");
+        sb.append("                \"").append(query.tupleQuery()).append("\",\n");
+        sb.append("                ").append(query.constructorQuery() != null
+                ? "\"" + query.constructorQuery() + "\"" : "null").append(",\n");
+        sb.append("                List.of(selectedPaths),\n");
+        sb.append("                ").append(formatStringList(query.collectionPaths())).append("\n");
+        sb.append("            ));\n");
+        sb.append("        }\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Packs statements filling a variable into {@link Part parts} of at most {@link #CHUNK_SOURCE_BUDGET}
+     * characters, and appends the calls to those parts.
+     *
+     * @param sb            the projection entry being formatted
+     * @param parts         the parts generated so far
+     * @param parameterType the type of the filled variable
+     * @param variable      the name of the filled variable
+     * @param statements    the statements filling it, referring to it as {@code t}
+     */
+    private static void appendParts(StringBuilder sb, List<Part> parts, String parameterType, String variable,
+            List<String> statements) {
+        Part part = null;
+        for (String statement : statements) {
+            if (part == null || part.body().length() + statement.length() > CHUNK_SOURCE_BUDGET) {
+                part = new Part(parameterType, new StringBuilder());
+                sb.append("            Part").append(parts.size()).append(".fill(").append(variable).append(");\n");
+                parts.add(part);
+            }
+            part.body().append("        ").append(statement).append("\n");
+        }
+    }
+
+    /**
+     * Computes the table of every DTO path reachable from the given projection, up to
+     * {@link #MAX_PATH_DEPTH_OPTION} segments, together with the entity path it translates to.
+     * <p>
+     * The walk mirrors the runtime resolution of {@code ProjectionRegistry.toEntityPath}: nested
+     * projections are followed through their {@code dtoFieldType} (the element type for collections), and
+     * computed fields translate to their comma-separated dependencies. Fields typed with an entity are listed
+     * but their implicit field-for-field projection is not expanded, since over a connected schema it would
+     * enumerate a large part of the entity graph for every projection. A type already on the current walk is
+     * not entered again, so cyclic graphs terminate; paths left out of the table are still resolved at runtime.
+     * </p>
+     *
+     * @param dtoType the fully qualified name of the projection
+     * @return the DTO paths mapped to their entity paths, in walk order
+     */
+    private Map<String, String> collectEntityPaths(String dtoType) {
+        Map<String, String> paths = new LinkedHashMap<>();
+        collectEntityPaths(dtoType, "", "", 1, new HashSet<>(), paths);
+        return paths;
+    }
+
+    private void collectEntityPaths(String type, String dtoPrefix, String entityPrefix, int depth,
+            Set<String> visiting, Map<String, String> paths) {
+        if (depth > maxPathDepth || !visiting.add(type)) {
+            return;
+        }
 
-        sb.append("            )\n");
-        sb.append("        );\n");
+        SimpleProjectionMetadata metadata = projectionRegistry.get(type);
+        if (metadata != null) {
+            for (SimpleDirectMapping m : metadata.directMappings()) {
+                String dtoPath = dtoPrefix + m.dtoField();
+                String entityPath = entityPrefix + m.entityField();
+                paths.putIfAbsent(dtoPath, entityPath);
+                collectEntityPaths(m.dtoFieldType(), dtoPath + ".", entityPath + ".", depth + 1, visiting, paths);
+            }
+            for (SimpleComputedField f : metadata.computedFields()) {
+                paths.putIfAbsent(dtoPrefix + f.dtoField(), Arrays.stream(f.dependencies())
+                        .map(d -> entityPrefix + d)
+                        .collect(Collectors.joining(",")));
+            }
+        }
+
+        visiting.remove(type);
+    }
+
+    /**
+     * Formats a {@code put} statement adding an entry to a generated path table.
+     *
+     * @param map        the name of the map variable
+     * @param dtoPath    the DTO path
+     * @param entityPath the entity path it translates to
+     * @return the Java statement
+     */
+    private static String formatPathEntry(String map, String dtoPath, String entityPath) {
+        return map + ".put(\"" + dtoPath + "\", \"" + entityPath + "\");";
+    }
 
-        writer.write(sb.toString());
+    /**
+     * Returns the initial capacity of a {@code HashMap} holding the given number of entries without rehashing.
+     */
+    private static int hashMapCapacity(int size) {
+        return (int) Math.ceil(size / 0.75);
+    }
+
+    /**
+     * Formats the {@code FieldIndex} of a projection as a Java expression whose exact lookup is a
+     * {@code switch} over the DTO field names, so that field resolution needs neither hashing into a map
+     * nor scanning the mapping arrays.
+     * <p>
+     * Ordinals follow the {@code FieldIndex} convention: direct mappings first, then computed fields,
+     * both in declaration order.
+     * </p>
+     *
+     * @param metadata the projection metadata
+     * @return a Java expression string constructing a {@code FieldIndex}
+     */
+    private String formatFieldIndex(SimpleProjectionMetadata metadata) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("                    FieldIndex.of(directMappings, computedFields, dtoField -> switch (dtoField) {\n");
+
+        int ordinal = 0;
+        for (SimpleDirectMapping m : metadata.directMappings()) {
+            sb.append("                        case \"").append(m.dtoField()).append("\" -> ").append(ordinal++).append(";\n");
+        }
+        for (SimpleComputedField f : metadata.computedFields()) {
+            sb.append("                        case \"").append(f.dtoField()).append("\" -> ").append(ordinal++).append(";\n");
+        }
+
+        sb.append("                        default -> FieldIndex.NOT_FOUND;\n");
+        sb.append("                    })");
+        return sb.toString();
+    }
+
+    /**
+     * Formats the deduplicated entity fields required by a projection (direct mapping entity fields, then
+     * computed field dependencies, in declaration order) as an immutable list constant, so that
+     * {@code ProjectionMetadata#getAllRequiredEntityFields()} does not compute it at runtime.
+     *
+     * @param metadata the projection metadata
+     * @return a Java expression string constructing the list
+     */
+    private String formatRequiredEntityFields(SimpleProjectionMetadata metadata) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (SimpleDirectMapping m : metadata.directMappings()) {
+            fields.add(m.entityField());
+        }
+        for (SimpleComputedField f : metadata.computedFields()) {
+            Collections.addAll(fields, f.dependencies());
+        }
+
+        return fields.stream()
+                .map(f -> "\"" + f + "\"")
+                .collect(Collectors.joining(", ", "                    List.of(", ")"));
+    }
+
+    private static String formatStringList(List<String> values) {
+        return values.stream()
+                .map(v -> "\"" + v + "\"")
+                .collect(Collectors.joining(", ", "List.of(", ")"));
     }
 
     /**
@@ -887,7 +1351,7 @@ public class ProjectionProcessor {
                 .map(c -> "Optional.of(" + c.asInstance() + ")")
                 .orElse("Optional.empty()");
         return String.format(
-                "                    new DirectMapping(\"%s\", \"%s\", %s.class, %s)",
+                "                new DirectMapping(\"%s\", \"%s\", %s.class, %s)",
                 m.dtoField(), m.entityField(), m.dtoFieldType(), collection);
     }
 
@@ -916,7 +1380,7 @@ public class ProjectionProcessor {
 
         if (f.methodClass() == null && f.methodName() == null) {
             return String.format(
-                    "                    new ComputedField(\"%s\", new String[]{%s}, new ComputedField.ReducerMapping[]{%s})",
+                    "                new ComputedField(\"%s\", new String[]{%s}, new ComputedField.ReducerMapping[]{%s})",
                     f.dtoField(),
                     deps,
                     reducerMappings);
@@ -926,7 +1390,7 @@ public class ProjectionProcessor {
         String methodArg = f.methodName() != null && !f.methodName().isBlank() ? "\"" + f.methodName() + "\"" : "null";
 
         return String.format(
-                "                    new ComputedField(\"%s\", new String[]{%s}, new ComputedField.ReducerMapping[]{%s}, %s, %s)",
+                "                new ComputedField(\"%s\", new String[]{%s}, new ComputedField.ReducerMapping[]{%s}, %s, %s)",
                 f.dtoField(),
                 deps,
                 reducerMappings,
@@ -944,7 +1408,7 @@ public class ProjectionProcessor {
      */
     private String formatComputerProvider(SimpleComputationProvider c) {
         return String.format(
-                "                    new ComputationProvider(%s.class, \"%s\")",
+                "                        new ComputationProvider(%s.class, \"%s\")",
                 c.className(), c.bean());
     }
 
@@ -1026,6 +1490,15 @@ public class ProjectionProcessor {
             Optional<DirectMapping.CollectionMetadata> collection) {
     }
 
+    /**
+     * Generated class filling part of a variable of an oversized projection entry.
+     *
+     * @param parameterType the type of the filled variable
+     * @param body          the statements of the part
+     */
+    private record Part(String parameterType, StringBuilder body) {
+    }
+
     /**
      * Lightweight value object describing a computed field view on annotation
      * processor.
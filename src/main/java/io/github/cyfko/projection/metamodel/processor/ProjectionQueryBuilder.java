@@ -0,0 +1,252 @@
+package io.github.cyfko.projection.metamodel.processor;
+
+import io.github.cyfko.projection.metamodel.util.AnnotationProcessorUtils;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the JPQL queries precomputed for each projection (see
+ * {@code io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery}).
+ * <p>
+ * The entity paths required by a projection are walked against the collected entity and embeddable
+ * metadata: to-one associations are {@code LEFT JOIN}ed once each and aliased {@code j1}, {@code j2}...,
+ * embedded paths are selected through their owner, and collection-valued paths are set aside. Nested
+ * projections reached through a to-one association contribute their own required paths instead of
+ * selecting the whole associated entity, up to {@value #MAX_NESTED_DEPTH} levels of nesting: over a connected
+ * schema the number of distinct join paths grows exponentially with the depth, so deeper associations are
+ * selected whole.
+ * </p>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+class ProjectionQueryBuilder {
+
+    private static final String ROOT_ALIAS = "e";
+
+    /**
+     * Maximum number of nested projections expanded along a path.
+     */
+    static final int MAX_NESTED_DEPTH = 3;
+
+    private final ProcessingEnvironment processingEnv;
+    private final EntityProcessor entityProcessor;
+    private final Map<String, ProjectionProcessor.SimpleProjectionMetadata> projections;
+
+    ProjectionQueryBuilder(ProcessingEnvironment processingEnv,
+                           EntityProcessor entityProcessor,
+                           Map<String, ProjectionProcessor.SimpleProjectionMetadata> projections) {
+        this.processingEnv = processingEnv;
+        this.entityProcessor = entityProcessor;
+        this.projections = projections;
+    }
+
+    /**
+     * Builds the queries of a projection.
+     *
+     * @param dtoType the fully qualified name of the projection
+     * @return the precomputed queries
+     */
+    SimpleProjectionQuery build(String dtoType) {
+        ProjectionProcessor.SimpleProjectionMetadata metadata = projections.get(dtoType);
+        Plan plan = new Plan(metadata.entityClass());
+
+        Set<String> visiting = new HashSet<>();
+        visiting.add(dtoType);
+        collect(metadata, "", 0, visiting, plan);
+
+        // Identifiers correlate the rows with the collections loaded separately, and keep the select clause
+        // of a projection without single-valued paths well-formed
+        if (!plan.collectionPaths.isEmpty() || plan.selected.isEmpty()) {
+            Map<String, String> selected = new LinkedHashMap<>();
+            for (Map.Entry<String, EntityProcessor.SimplePersistenceMetadata> field :
+                    entityProcessor.getRegistry().get(metadata.entityClass()).entrySet()) {
+                if (field.getValue().isId()) {
+                    selected.put(field.getKey(), ROOT_ALIAS + "." + field.getKey());
+                }
+            }
+            plan.selected.forEach(selected::putIfAbsent);
+            plan.selected.clear();
+            plan.selected.putAll(selected);
+        }
+        if (plan.selected.isEmpty()) {
+            plan.selected.put("", ROOT_ALIAS); // entity without known identifier
+        }
+
+        String from = " FROM " + entityName(metadata.entityClass()) + " " + ROOT_ALIAS + plan.joins.entrySet().stream()
+                .map(join -> " LEFT JOIN " + join.getKey() + " " + join.getValue())
+                .collect(Collectors.joining());
+        String tupleQuery = "SELECT " + String.join(", ", plan.selected.values()) + from;
+
+        return new SimpleProjectionQuery(tupleQuery, constructorQuery(dtoType, metadata, plan, from),
+                List.copyOf(plan.selected.keySet()), List.copyOf(plan.collectionPaths));
+    }
+
+    private void collect(ProjectionProcessor.SimpleProjectionMetadata metadata, String prefix, int depth,
+                         Set<String> visiting, Plan plan) {
+        for (ProjectionProcessor.SimpleDirectMapping mapping : metadata.directMappings()) {
+            String path = prefix + mapping.entityField();
+            ProjectionProcessor.SimpleProjectionMetadata nested = projections.get(mapping.dtoFieldType());
+            if (nested != null && mapping.collection().isEmpty() && depth < MAX_NESTED_DEPTH
+                    && visiting.add(mapping.dtoFieldType())) {
+                collect(nested, path + ".", depth + 1, visiting, plan);
+                visiting.remove(mapping.dtoFieldType());
+            } else {
+                plan.add(path);
+            }
+        }
+        for (ProjectionProcessor.SimpleComputedField field : metadata.computedFields()) {
+            for (String dependency : field.dependencies()) {
+                plan.add(prefix + dependency);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code SELECT NEW} query of a projection whose fields are all direct, single-valued
+     * mappings, provided the DTO declares a public constructor taking them in declaration order.
+     */
+    private String constructorQuery(String dtoType, ProjectionProcessor.SimpleProjectionMetadata metadata, Plan plan,
+                                    String from) {
+        if (!metadata.computedFields().isEmpty() || !plan.collectionPaths.isEmpty()) {
+            return null;
+        }
+
+        if (metadata.directMappings().isEmpty()) {
+            return null; // JPQL constructor expressions take at least one argument
+        }
+
+        List<String> arguments = new ArrayList<>();
+        for (ProjectionProcessor.SimpleDirectMapping mapping : metadata.directMappings()) {
+            String expression = plan.selected.get(mapping.entityField());
+            if (expression == null) {
+                return null; // expanded into a nested projection
+            }
+            arguments.add(expression);
+        }
+
+        TypeElement dto = processingEnv.getElementUtils().getTypeElement(dtoType);
+        if (dto == null || !hasConstructor(dto, metadata.directMappings())) {
+            return null;
+        }
+        return "SELECT NEW " + processingEnv.getElementUtils().getBinaryName(dto) + "("
+                + String.join(", ", arguments) + ")" + from;
+    }
+
+    private boolean hasConstructor(TypeElement dto, List<ProjectionProcessor.SimpleDirectMapping> mappings) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(dto.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC) || parameters.size() != mappings.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameters.size() && matches; i++) {
+                String parameterType = AnnotationProcessorUtils.getTypeNameWithoutAnnotations(
+                        processingEnv.getTypeUtils().erasure(parameters.get(i).asType()));
+                matches = parameterType.equals(mappings.get(i).dtoFieldType());
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the JPQL name of an entity: the {@code name} of its {@code @Entity} annotation, or its
+     * simple name by default.
+     */
+    private String entityName(String entityClass) {
+        TypeElement entity = processingEnv.getElementUtils().getTypeElement(entityClass);
+        if (entity == null) {
+            return entityClass.substring(entityClass.lastIndexOf('.') + 1);
+        }
+        for (AnnotationMirror annotation : entity.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals("jakarta.persistence.Entity")) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+                    annotation.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("name")
+                        && !value.getValue().getValue().toString().isBlank()) {
+                    return value.getValue().getValue().toString();
+                }
+            }
+        }
+        return entity.getSimpleName().toString();
+    }
+
+    /**
+     * Select items, joins and collection paths of a query under construction.
+     */
+    private final class Plan {
+        private final String entityClass;
+        private final Map<String, String> selected = new LinkedHashMap<>();
+        private final Map<String, String> joins = new LinkedHashMap<>();
+        private final Set<String> collectionPaths = new LinkedHashSet<>();
+
+        Plan(String entityClass) {
+            this.entityClass = entityClass;
+        }
+
+        void add(String path) {
+            if (selected.containsKey(path) || collectionPaths.contains(path)) {
+                return;
+            }
+
+            String expression = ROOT_ALIAS;
+            String type = entityClass;
+            String[] segments = path.split("\\.");
+            for (int i = 0; i < segments.length; i++) {
+                EntityProcessor.SimplePersistenceMetadata field = fieldsOf(type).get(segments[i]);
+                if (field == null) {
+                    // Not described: select the remaining path as written
+                    expression += "." + String.join(".", Arrays.copyOfRange(segments, i, segments.length));
+                    break;
+                }
+                if (field.collection().isPresent()) {
+                    collectionPaths.add(path);
+                    return;
+                }
+
+                expression += "." + segments[i];
+                type = field.relatedType();
+                if (entityProcessor.getRegistry().containsKey(type)) {
+                    expression = joins.computeIfAbsent(expression, e -> "j" + (joins.size() + 1));
+                }
+            }
+            selected.put(path, expression);
+        }
+
+        private Map<String, EntityProcessor.SimplePersistenceMetadata> fieldsOf(String type) {
+            Map<String, EntityProcessor.SimplePersistenceMetadata> fields = entityProcessor.getRegistry().get(type);
+            if (fields == null) {
+                fields = entityProcessor.getEmbeddableRegistry().get(type);
+            }
+            return fields != null ? fields : Map.of();
+        }
+    }
+
+    /**
+     * Queries precomputed for a projection, as written to the generated registry.
+     *
+     * @param tupleQuery       the query selecting the required single-valued paths
+     * @param constructorQuery the {@code SELECT NEW} query, or {@code null} if the DTO does not support it
+     * @param selectedPaths    the entity paths selected by {@code tupleQuery}, in select order
+     * @param collectionPaths  the collection-valued entity paths left out of the select clause
+     */
+    record SimpleProjectionQuery(String tupleQuery,
+                                 String constructorQuery,
+                                 List<String> selectedPaths,
+                                 List<String> collectionPaths) {
+    }
+}
@@ -3,6 +3,7 @@ package io.github.cyfko.projection.metamodel.providers;
 import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
 import io.github.cyfko.projection.metamodel.processor.EntityProcessor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -57,6 +58,11 @@ public interface PersistenceMetadataRegistryProvider {
      * by the annotation processor at compile time. The outer map uses entity
      * classes as keys, and the inner maps use field names as keys.
      * </p>
+     * <p>
+     * The iteration order of an inner map defines the ids of the fields of its class
+     * (see {@code PersistenceRegistry.getFieldId}); generated registries iterate in
+     * declaration order.
+     * </p>
      *
      * @return an unmodifiable map from entity class to field metadata map
      */
@@ -73,4 +79,56 @@ public interface PersistenceMetadataRegistryProvider {
      * @return an unmodifiable map from {@link jakarta.persistence.Embeddable} class to field metadata map
      */
     Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry();
-}
\ No newline at end of file
+
+    /**
+     * Returns the identifier field names of every discovered JPA entity.
+     * <p>
+     * Each list holds the {@code @Id} fields of the entity in declaration order, the fields of an
+     * {@code @EmbeddedId} being flattened into it. Entities without identifier are absent.
+     * </p>
+     *
+     * @return an unmodifiable map from entity class to its immutable list of identifier fields;
+     *         empty by default, in which case identifiers are resolved from the field metadata
+     */
+    default Map<Class<?>, List<String>> getIdFieldsRegistry() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the field metadata of one entity.
+     * <p>
+     * Generated registries override this method to build the metadata of each entity on first lookup,
+     * so that looking up a few entities neither loads nor describes the others. The full registries
+     * returned by {@link #getEntityMetadataRegistry()} load every entity class.
+     * </p>
+     *
+     * @param entityClass the entity class
+     * @return the field metadata map of the entity, or {@code null} if it is not registered
+     */
+    default Map<String, PersistenceMetadata> findEntityMetadata(Class<?> entityClass) {
+        return getEntityMetadataRegistry().get(entityClass);
+    }
+
+    /**
+     * Returns the field metadata of one embeddable, built on first lookup by generated registries.
+     *
+     * @param embeddableClass the embeddable class
+     * @return the field metadata map of the embeddable, or {@code null} if it is not registered
+     * @see #findEntityMetadata(Class)
+     */
+    default Map<String, PersistenceMetadata> findEmbeddableMetadata(Class<?> embeddableClass) {
+        return getEmbeddableMetadataRegistry().get(embeddableClass);
+    }
+
+    /**
+     * Returns the identifier field names of one entity, built on first lookup by generated registries.
+     *
+     * @param entityClass the entity class
+     * @return the immutable list of identifier fields, or {@code null} if the entity is not listed in
+     *         {@link #getIdFieldsRegistry()}
+     * @see #findEntityMetadata(Class)
+     */
+    default List<String> findIdFields(Class<?> entityClass) {
+        return getIdFieldsRegistry().get(entityClass);
+    }
+}
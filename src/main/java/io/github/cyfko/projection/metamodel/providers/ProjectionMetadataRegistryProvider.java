@@ -1,6 +1,7 @@
 package io.github.cyfko.projection.metamodel.providers;
 
 import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
 import java.util.Map;
 
 /**
@@ -13,4 +14,25 @@ public interface ProjectionMetadataRegistryProvider {
      * @return immutable map of DTO class to ProjectionMetadata
      */
     Map<Class<?>, ProjectionMetadata> getProjectionMetadataRegistry();
+
+    /**
+     * Returns the precomputed translations of DTO paths to entity paths.
+     * <p>
+     * Generated implementations list, for each projection, every DTO path reachable within the
+     * configured depth (e.g. {@code "address.city"} → {@code "address.cityName"}). Paths missing
+     * from this registry are resolved from the projection metadata instead.
+     * </p>
+     * @return immutable map of DTO class to its DTO path → entity path table; empty by default
+     */
+    default Map<Class<?>, Map<String, String>> getEntityPathRegistry() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the JPQL queries precomputed for each projection.
+     * @return immutable map of DTO class to its {@link ProjectionQuery}; empty by default
+     */
+    default Map<Class<?>, ProjectionQuery> getProjectionQueryRegistry() {
+        return Map.of();
+    }
 }
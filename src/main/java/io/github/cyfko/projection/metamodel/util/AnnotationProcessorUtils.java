@@ -7,7 +7,12 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.*;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
 import javax.lang.model.util.SimpleAnnotationValueVisitor14;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -136,6 +141,56 @@ public class AnnotationProcessorUtils {
                 });
     }
 
+    /**
+     * Registers a generated class as a {@link java.util.ServiceLoader} provider by writing its
+     * {@code META-INF/services} entry to the class output.
+     *
+     * @param processingEnv the processing environment whose filer creates the resource
+     * @param serviceFqcn   the fully qualified name of the service interface
+     * @param providerFqcn  the fully qualified name of the generated implementation
+     * @throws IOException if the resource cannot be created or written
+     */
+    public static void writeServiceFile(ProcessingEnvironment processingEnv,
+                                        String serviceFqcn,
+                                        String providerFqcn) throws IOException {
+        FileObject file = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + serviceFqcn);
+        try (Writer writer = file.openWriter()) {
+            writer.write(providerFqcn + "\n");
+        }
+    }
+
+    /**
+     * Returns the name of a type as returned by {@link Class#getName()} at runtime: binary names for nested
+     * classes (e.g. {@code com.example.Outer$Inner}) and descriptors for arrays (e.g. {@code [B}).
+     *
+     * @param elements the element utilities used to compute binary names
+     * @param typeName the canonical type name, as written in a class literal
+     * @return the runtime class name
+     */
+    public static String runtimeClassName(Elements elements, String typeName) {
+        if (typeName.endsWith("[]")) {
+            String component = typeName.substring(0, typeName.length() - 2);
+            String descriptor = switch (component) {
+                case "boolean" -> "Z";
+                case "byte" -> "B";
+                case "char" -> "C";
+                case "short" -> "S";
+                case "int" -> "I";
+                case "long" -> "J";
+                case "float" -> "F";
+                case "double" -> "D";
+                default -> {
+                    String name = runtimeClassName(elements, component);
+                    yield name.startsWith("[") ? name : "L" + name + ";";
+                }
+            };
+            return "[" + descriptor;
+        }
+        TypeElement type = elements.getTypeElement(typeName);
+        return type != null ? elements.getBinaryName(type).toString() : typeName;
+    }
+
     /**
      * Determines the collection type for the given type mirror.
      * <p>
@@ -0,0 +1,210 @@
+package io.github.cyfko.projection.metamodel.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Layout of the binary registry resources written by the annotation processor when
+ * {@code -Aprojection.metamodel.registryFormat=binary} is set, instead of the generated provider classes.
+ * <p>
+ * A resource starts with {@link #MAGIC}, {@link #VERSION} and a table of the strings it uses (class names,
+ * field names, paths...), each stored once as length-prefixed UTF-8. The body then refers to strings by
+ * their index in the table, {@link #NO_STRING} standing for {@code null}. All numbers are big-endian
+ * {@code int}s, except flags and enum ordinals which are single bytes. Class names are stored as returned
+ * by {@link Class#getName()}.
+ * </p>
+ *
+ * <p><b>Persistence resource</b> ({@link #PERSISTENCE_RESOURCE}): a directory of
+ * {@code (class name, kind, record length)} entries, followed by one record per class, so that a class can
+ * be decoded on first lookup without decoding the others:</p>
+ * <pre>
+ * record   := idFieldCount idField* fieldCount field*
+ * field    := name flags relatedType [mappedIdField] [collectionKind collectionType mappedBy orderBy]
+ * </pre>
+ *
+ * <p><b>Projection resource</b> ({@link #PROJECTION_RESOURCE}): a count followed by one record per
+ * projection:</p>
+ * <pre>
+ * record   := dtoClass entityClass directCount direct* computedCount computed* providerCount provider*
+ *             pathCount (dtoPath entityPath)* query
+ * direct   := dtoField entityField dtoFieldType hasCollection [collectionKind collectionType]
+ * computed := dtoField dependencyCount dependency* reducerCount (dependencyIndex reducer)* methodClass methodName
+ * provider := class bean
+ * query    := tupleQuery constructorQuery selectedCount selectedPath* collectionCount collectionPath*
+ * </pre>
+ *
+ * @author Frank KOSSI
+ * @since 1.0.0
+ */
+public final class BinaryRegistryFormat {
+
+    /**
+     * Class path location of the persistence metadata resource.
+     */
+    public static final String PERSISTENCE_RESOURCE = "META-INF/projection-metamodel/persistence.bin";
+
+    /**
+     * Class path location of the projection metadata resource.
+     */
+    public static final String PROJECTION_RESOURCE = "META-INF/projection-metamodel/projections.bin";
+
+    /**
+     * First bytes of every binary registry resource ({@code "PMM1"}).
+     */
+    public static final int MAGIC = 0x504D4D31;
+
+    /**
+     * Version of the layout described above.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * String index standing for {@code null}.
+     */
+    public static final int NO_STRING = -1;
+
+    /**
+     * Directory kind of an entity record.
+     */
+    public static final int KIND_ENTITY = 0;
+
+    /**
+     * Directory kind of an embeddable record.
+     */
+    public static final int KIND_EMBEDDABLE = 1;
+
+    /**
+     * Field flag set for identifier fields.
+     */
+    public static final int FLAG_ID = 1;
+
+    /**
+     * Field flag set when a mapped identifier field follows.
+     */
+    public static final int FLAG_MAPPED_ID = 1 << 1;
+
+    /**
+     * Field flag set when collection metadata follows.
+     */
+    public static final int FLAG_COLLECTION = 1 << 2;
+
+    private BinaryRegistryFormat() {
+    }
+
+    /**
+     * Writes a binary registry resource. Strings are interned into the table of the resource as they are
+     * written; sections encode variable-length records sharing that table.
+     */
+    public static final class Encoder {
+        private final Map<String, Integer> strings;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * Creates an encoder with an empty string table.
+         */
+        public Encoder() {
+            this(new LinkedHashMap<>());
+        }
+
+        private Encoder(Map<String, Integer> strings) {
+            this.strings = strings;
+        }
+
+        /**
+         * Returns a new encoder sharing the string table of this one, whose bytes are appended with
+         * {@link #writeSection(Encoder)}.
+         *
+         * @return a section encoder
+         */
+        public Encoder section() {
+            return new Encoder(strings);
+        }
+
+        /**
+         * Returns the number of body bytes written so far.
+         *
+         * @return the size of the body
+         */
+        public int size() {
+            return bytes.size();
+        }
+
+        /**
+         * Writes a big-endian {@code int}.
+         *
+         * @param value the value
+         * @return this encoder
+         */
+        public Encoder writeInt(int value) {
+            try {
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        /**
+         * Writes the low-order byte of a value.
+         *
+         * @param value the value
+         * @return this encoder
+         */
+        public Encoder writeByte(int value) {
+            try {
+                out.writeByte(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        /**
+         * Writes the table index of a string, adding it to the table if needed.
+         *
+         * @param value the string, possibly {@code null}
+         * @return this encoder
+         */
+        public Encoder writeString(String value) {
+            return writeInt(value == null ? NO_STRING : strings.computeIfAbsent(value, s -> strings.size()));
+        }
+
+        /**
+         * Appends the bytes of a section created by {@link #section()}.
+         *
+         * @param section the section to append
+         * @return this encoder
+         */
+        public Encoder writeSection(Encoder section) {
+            bytes.writeBytes(section.bytes.toByteArray());
+            return this;
+        }
+
+        /**
+         * Writes the complete resource: header, string table, then body.
+         *
+         * @param target the stream receiving the resource
+         * @throws IOException if an I/O error occurs while writing
+         */
+        public void writeTo(OutputStream target) throws IOException {
+            DataOutputStream data = new DataOutputStream(target);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(strings.size());
+            for (String value : strings.keySet()) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                data.writeInt(utf8.length);
+                data.write(utf8);
+            }
+            bytes.writeTo(data);
+            data.flush();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.cyfko.projection.metamodel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the eviction policy and statistics of {@link BoundedCache}.
+ */
+class BoundedCacheTest {
+
+    @Test
+    void neverGrowsBeyondMaxSize() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        CacheStats stats = cache.stats();
+        assertTrue(stats.size() <= 100, "size " + stats.size());
+        assertEquals(10_000 - stats.size(), stats.evictions());
+    }
+
+    @Test
+    void keepsFrequentlyUsedEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("hot", "value");
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot");
+        }
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("cold-" + i, "value");
+        }
+
+        assertEquals("value", cache.get("hot"));
+    }
+
+    @Test
+    void agingLetsFormerlyHotEntriesBeEvicted() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("formerly-hot", "value");
+        for (int i = 0; i < 3; i++) {
+            cache.get("formerly-hot");
+        }
+
+        // cold entries are read twice each: every 100 lookups, frequencies are halved
+        for (int i = 0; i < 200; i++) {
+            cache.put("cold-" + i, "value");
+            cache.get("cold-" + i);
+            cache.get("cold-" + i);
+        }
+
+        assertNull(cache.get("formerly-hot"));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+
+        assertEquals("A", cache.get("a", String::toUpperCase));
+        assertEquals("A", cache.get("a", k -> fail("value must be cached")));
+        assertNull(cache.get("b"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void doesNotCacheFailedComputations() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("bad", k -> {
+            throw new IllegalArgumentException(k);
+        }));
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void rejectsNonPositiveMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+}
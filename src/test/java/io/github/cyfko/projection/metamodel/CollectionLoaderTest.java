@@ -0,0 +1,185 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched collection queries of {@link CollectionLoader}.
+ */
+class CollectionLoaderTest {
+
+    static final class Customer {}
+    static final class Order {}
+    static final class Line {}
+
+    static final class CustomerView {}
+    static final class OrderView {}
+    static final class LineView {}
+
+    private final List<String> queries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Map<String, PersistenceMetadata> customer = new LinkedHashMap<>();
+        customer.put("id", PersistenceMetadata.id(Long.class));
+        customer.put("name", PersistenceMetadata.scalar(String.class));
+        customer.put("orders", PersistenceMetadata.collection(CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST)
+                .withMappedBy("customer").withOrderBy("number DESC"), Order.class));
+        customer.put("favorites", PersistenceMetadata.collection(
+                CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST), Order.class));
+
+        Map<String, PersistenceMetadata> order = new LinkedHashMap<>();
+        order.put("id", PersistenceMetadata.id(Long.class));
+        order.put("number", PersistenceMetadata.scalar(String.class));
+        order.put("customer", PersistenceMetadata.scalar(Customer.class));
+        order.put("lines", PersistenceMetadata.collection(CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.SET)
+                .withMappedBy("order"), Line.class));
+
+        Map<String, PersistenceMetadata> line = new LinkedHashMap<>();
+        line.put("id", PersistenceMetadata.id(Long.class));
+        line.put("product", PersistenceMetadata.scalar(String.class));
+        line.put("order", PersistenceMetadata.scalar(Order.class));
+
+        Map<Class<?>, Map<String, PersistenceMetadata>> entities = Map.of(
+                Customer.class, customer, Order.class, order, Line.class, line);
+        PersistenceRegistry.setProvider(new PersistenceMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+                return entities;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+                return Map.of();
+            }
+        });
+
+        Optional<DirectMapping.CollectionMetadata> list =
+                Optional.of(DirectMapping.CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST));
+        Map<Class<?>, ProjectionMetadata> projections = Map.of(
+                CustomerView.class, projection(Customer.class,
+                        new DirectMapping("name", "name", String.class, Optional.empty()),
+                        new DirectMapping("orders", "orders", OrderView.class, list),
+                        new DirectMapping("favorites", "favorites", OrderView.class, list)),
+                OrderView.class, projection(Order.class,
+                        new DirectMapping("number", "number", String.class, Optional.empty()),
+                        new DirectMapping("lines", "lines", LineView.class, list)),
+                LineView.class, projection(Line.class,
+                        new DirectMapping("product", "product", String.class, Optional.empty()))
+        );
+        ProjectionMetadataRegistryProvider provider = () -> projections;
+        ProjectionRegistry.setProvider(provider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+        PersistenceRegistry.setProvider(null);
+    }
+
+    @Test
+    void readsTheParentIdThroughTheMappedByField() {
+        CollectionLoader orders = CollectionLoader.of(CustomerView.class, "orders");
+
+        assertEquals(Order.class, orders.elementClass());
+        assertEquals("SELECT e.customer.id, e.id, e.number FROM Order e WHERE e.customer.id IN :parentIds"
+                + " ORDER BY e.number DESC", orders.query());
+        assertEquals(List.of("id", "number"), orders.selectedPaths());
+        assertEquals(List.of("lines"), orders.nestedFields());
+        assertSame(orders, CollectionLoader.of(CustomerView.class, "orders"));
+    }
+
+    @Test
+    void loadsEachCollectionLevelWithOneQuery() {
+        CollectionLoader lines = CollectionLoader.of(CustomerView.class, "orders").nested("lines");
+
+        assertEquals("SELECT e.order.id, e.id, e.product FROM Line e WHERE e.order.id IN :parentIds", lines.query());
+        assertEquals(List.of(), lines.nestedFields());
+        assertThrows(IllegalArgumentException.class, () -> lines.nested("product"));
+    }
+
+    @Test
+    void joinsFromTheParentWithoutMappedBy() {
+        assertEquals("SELECT p.id, e.id, e.number FROM Customer p JOIN p.favorites e WHERE p.id IN :parentIds",
+                CollectionLoader.of(CustomerView.class, "favorites").query());
+    }
+
+    @Test
+    void stitchesTheRowsOfEachBatchOntoTheirParents() {
+        CollectionLoader orders = CollectionLoader.of(CustomerView.class, "orders").withBatchSize(2);
+        Map<Long, List<Object[]>> rows = Map.of(
+                1L, List.<Object[]>of(new Object[]{1L, 10L, "A-10"}, new Object[]{1L, 11L, "A-11"}),
+                3L, List.<Object[]>of(new Object[]{3L, 30L, "C-30"}));
+
+        Map<Long, List<String>> stitched = new LinkedHashMap<>();
+        orders.loadInto(entityManager(rows), List.of(1L, 2L, 3L, 1L), id -> id, (id, children) ->
+                stitched.put(id, children.stream().map(row -> orders.idOf(row) + ":" + row[1]).toList()));
+
+        assertEquals(Map.of(1L, List.of("10:A-10", "11:A-11"), 2L, List.of(), 3L, List.of("30:C-30")), stitched);
+        assertEquals(List.of(orders.query() + " [1, 2]", orders.query() + " [3]"), queries);
+    }
+
+    @Test
+    void rejectsFieldsThatAreNotEntityCollections() {
+        assertThrows(IllegalArgumentException.class, () -> CollectionLoader.of(CustomerView.class, "name"));
+        assertThrows(IllegalArgumentException.class, () -> CollectionLoader.of(CustomerView.class, "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> CollectionLoader.of(CustomerView.class, "orders")
+                .withBatchSize(0));
+    }
+
+    private static ProjectionMetadata projection(Class<?> entityClass, DirectMapping... mappings) {
+        return new ProjectionMetadata(entityClass, mappings, new ComputedField[]{}, new ComputationProvider[]{});
+    }
+
+    /**
+     * Returns an entity manager answering each query with the rows of the bound parent ids.
+     */
+    private EntityManager entityManager(Map<Long, List<Object[]>> rows) {
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{EntityManager.class},
+                (em, method, args) -> {
+                    if (!method.getName().equals("createQuery") || args.length != 2) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Object> parameter = new ArrayList<>();
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{TypedQuery.class},
+                            (query, queryMethod, queryArgs) -> switch (queryMethod.getName()) {
+                                case "setParameter" -> {
+                                    assertEquals(CollectionLoader.PARENT_IDS_PARAMETER, queryArgs[0]);
+                                    parameter.addAll((List<?>) queryArgs[1]);
+                                    yield query;
+                                }
+                                case "getResultList" -> {
+                                    queries.add(args[0] + " " + parameter);
+                                    List<Object[]> result = new ArrayList<>();
+                                    for (Object id : parameter) {
+                                        result.addAll(rows.getOrDefault((Long) id, List.of()));
+                                    }
+                                    yield result;
+                                }
+                                default -> throw new UnsupportedOperationException(queryMethod.getName());
+                            });
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.cyfko.projection.metamodel;
+
+import com.google.testing.compile.Compilation;
+
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class loader exposing the classes produced by a compile-testing {@link Compilation}, so that tests can
+ * instantiate the generated registry providers and check their runtime behaviour.
+ * <p>
+ * Model classes ({@code ProjectionMetadata}, {@code PersistenceMetadata}, ...) are shared with the test
+ * class path through the parent loader. Generated resources, such as {@code META-INF/services} entries,
+ * are served as well so that {@link java.util.ServiceLoader} discovers the generated providers.
+ * </p>
+ */
+final class CompilationClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classes = new HashMap<>();
+    private final Map<String, byte[]> resources = new HashMap<>();
+
+    CompilationClassLoader(Compilation compilation) {
+        super(CompilationClassLoader.class.getClassLoader());
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            // compile-testing names class outputs "/CLASS_OUTPUT/com/example/Foo.class"
+            String path = file.toUri().getPath();
+            int start = path.indexOf("/CLASS_OUTPUT/");
+            if (start < 0) {
+                continue;
+            }
+            String name = path.substring(start + "/CLASS_OUTPUT/".length());
+            try (InputStream in = file.openInputStream()) {
+                if (file.getKind() == JavaFileObject.Kind.CLASS) {
+                    String binaryName = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                    classes.put(binaryName, in.readAllBytes());
+                } else {
+                    resources.put(name, in.readAllBytes());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    @Override
+    protected URL findResource(String name) {
+        byte[] bytes = resources.get(name);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return new URL(null, "compilation:/" + name, new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(URL url) {
+                    return new URLConnection(url) {
+                        @Override
+                        public void connect() {
+                        }
+
+                        @Override
+                        public InputStream getInputStream() {
+                            return new ByteArrayInputStream(bytes);
+                        }
+                    };
+                }
+            });
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        URL url = findResource(name);
+        return url == null ? Collections.emptyEnumeration() : Collections.enumeration(java.util.List.of(url));
+    }
+
+    /**
+     * Checks whether this loader already defined the given class.
+     *
+     * @param className the binary name of the class
+     * @return true if the class was loaded
+     */
+    boolean isLoaded(String className) {
+        return findLoadedClass(className) != null;
+    }
+
+    /**
+     * Instantiates a generated class through its public no-arg constructor.
+     *
+     * @param className the fully qualified name of the generated class
+     * @param type      the expected type
+     * @return the new instance
+     */
+    <T> T newInstance(String className, Class<T> type) {
+        try {
+            return type.cast(loadClass(className).getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + className, e);
+        }
+    }
+}
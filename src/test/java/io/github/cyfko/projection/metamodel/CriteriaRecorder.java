@@ -0,0 +1,81 @@
+package io.github.cyfko.projection.metamodel;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal Criteria API stand-in recording the roots, joins and selections built on a tuple query as
+ * JPQL-like lines, so that tests can check how queries are assembled without a persistence provider.
+ * <p>
+ * Paths render through the alias of their closest aliased ancestor, e.g. {@code FROM UserEntity e},
+ * {@code LEFT JOIN e.department j1}, {@code SELECT j1.name s0}. Joins created without join type are
+ * recorded as a bare {@code JOIN}.
+ * </p>
+ */
+final class CriteriaRecorder {
+
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Returns a tuple query recording its calls into this recorder.
+     */
+    @SuppressWarnings("unchecked")
+    CriteriaQuery<Tuple> tupleQuery() {
+        return (CriteriaQuery<Tuple>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{CriteriaQuery.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "from" -> {
+                        lines.add("FROM " + ((Class<?>) args[0]).getSimpleName());
+                        yield node(Root.class, ((Class<?>) args[0]).getSimpleName(), lines.size() - 1);
+                    }
+                    case "multiselect" -> {
+                        List<String> items = new ArrayList<>();
+                        for (Object item : (List<?>) args[0]) {
+                            items.add(item.toString());
+                        }
+                        lines.add("SELECT " + String.join(", ", items));
+                        yield proxy;
+                    }
+                    case "toString" -> "CriteriaQuery";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Returns the recorded lines, in call order.
+     */
+    List<String> lines() {
+        return List.copyOf(lines);
+    }
+
+    private Object node(Class<?> type, String expression, int line) {
+        String[] alias = new String[1];
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "alias" -> {
+                        alias[0] = (String) args[0];
+                        if (line >= 0) {
+                            lines.set(line, lines.get(line) + " " + alias[0]);
+                        }
+                        yield proxy;
+                    }
+                    case "getAlias" -> alias[0];
+                    case "join" -> {
+                        String joined = (alias[0] != null ? alias[0] : expression) + "." + args[0];
+                        lines.add((args.length > 1 ? args[1] + " " : "") + "JOIN " + joined);
+                        yield node(Join.class, joined, lines.size() - 1);
+                    }
+                    case "get" -> node(Path.class, (alias[0] != null ? alias[0] : expression) + "." + args[0], -1);
+                    case "toString" -> alias[0] == null ? expression : line >= 0 ? alias[0] : expression + " " + alias[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -3,17 +3,20 @@ package io.github.cyfko.projection.metamodel;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
 import io.github.cyfko.projection.metamodel.processor.MetamodelProcessor;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
 import org.junit.jupiter.api.Test;
 
 import javax.tools.JavaFileObject;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class EntityProcessorTest {
 
     @Test
-    void generatesRegistryForSimpleEntity() {
+    void generatesRegistryForSimpleEntity() throws ClassNotFoundException {
         JavaFileObject entity = JavaFileObjects.forSourceString("com.example.User", """
                     package com.example;
                     import jakarta.persistence.*;
@@ -56,6 +59,7 @@ public class EntityProcessorTest {
                 .compile(entity, role, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         assertThat(compilation)
                 .generatedSourceFile(
@@ -64,20 +68,12 @@ public class EntityProcessorTest {
                 .contains("registry.put(com.example.User.class");
 
         // Vérifier que id est un champ ID scalar
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"id\", new PersistenceMetadata(true, java.lang.Long.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.id(Long.class),
+                fieldMetadata(loader, "com.example.User", "id"));
 
         // Vérifier que name est un champ scalar simple
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"name\", new PersistenceMetadata(false, java.lang.String.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(String.class),
+                fieldMetadata(loader, "com.example.User", "name"));
 
         // Vérifier que roles est une List de collection d'entités
         assertThat(compilation)
@@ -100,7 +96,7 @@ public class EntityProcessorTest {
     }
 
     @Test
-    void generatesRegistryForEntityWithMappedSuperclassAndEmbeddedId() {
+    void generatesRegistryForEntityWithMappedSuperclassAndEmbeddedId() throws ClassNotFoundException {
         JavaFileObject baseEntity = JavaFileObjects.forSourceString("com.example.BaseEntity", """
                     package com.example;
                     import jakarta.persistence.MappedSuperclass;
@@ -150,6 +146,7 @@ public class EntityProcessorTest {
                 .compile(baseEntity, entityKey, concreteEntity, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         assertThat(compilation)
                 .generatedSourceFile(
@@ -158,20 +155,19 @@ public class EntityProcessorTest {
                 .contains("registry.put(com.example.Invoice.class");
 
         // @EmbeddedId doit être marqué comme ID
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"key\", new PersistenceMetadata(true, com.example.EntityKey.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.id(loader.loadClass("com.example.EntityKey")),
+                fieldMetadata(loader, "com.example.Invoice", "key"));
 
         // label est un champ scalar
+        assertEquals(PersistenceMetadata.scalar(String.class),
+                fieldMetadata(loader, "com.example.Invoice", "label"));
+
+        // @EmbeddedId est aplati dans la liste précalculée des identifiants
         assertThat(compilation)
                 .generatedSourceFile(
                         "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
                 .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"label\", new PersistenceMetadata(false, java.lang.String.class, Optional.empty(), Optional.empty()))");
+                .contains("ID_FIELDS = List.of(\"part1\", \"part2\");");
     }
 
     @Test
@@ -265,7 +261,7 @@ public class EntityProcessorTest {
     }
 
     @Test
-    void generatesRegistryForEntityWithIdClassAndMapsId() {
+    void generatesRegistryForEntityWithIdClassAndMapsId() throws ClassNotFoundException {
         JavaFileObject idClass = JavaFileObjects.forSourceString("com.example.OrderItemId", """
                     package com.example;
                     import java.io.Serializable;
@@ -338,6 +334,7 @@ public class EntityProcessorTest {
                 .compile(idClass, orderEntity, productEntity, orderItemEntity, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         assertThat(compilation)
                 .generatedSourceFile(
@@ -346,40 +343,24 @@ public class EntityProcessorTest {
                 .contains("registry.put(com.example.OrderItem.class");
 
         // orderId est un champ ID
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"orderId\", new PersistenceMetadata(true, java.lang.Long.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.id(Long.class),
+                fieldMetadata(loader, "com.example.OrderItem", "orderId"));
 
         // product est une relation avec @MapsId
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"product\", new PersistenceMetadata(false, com.example.Product.class, Optional.of(\"productId\"), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Product")).withMappedId("productId"),
+                fieldMetadata(loader, "com.example.OrderItem", "product"));
 
         // order est une relation avec @MapsId
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"order\", new PersistenceMetadata(false, com.example.Order.class, Optional.of(\"orderId\"), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Order")).withMappedId("orderId"),
+                fieldMetadata(loader, "com.example.OrderItem", "order"));
 
         // quantity est un champ scalar
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"quantity\", new PersistenceMetadata(false, int.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(int.class),
+                fieldMetadata(loader, "com.example.OrderItem", "quantity"));
     }
 
     @Test
-    void generatesRegistryForEntityWithInheritance() {
+    void generatesRegistryForEntityWithInheritance() throws ClassNotFoundException {
         JavaFileObject base = JavaFileObjects.forSourceString("com.example.Person", """
                     package com.example;
                     import jakarta.persistence.*;
@@ -418,30 +399,19 @@ public class EntityProcessorTest {
                 .compile(base, subclass, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         // id hérité doit être présent comme ID
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"id\", new PersistenceMetadata(true, java.lang.Long.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.id(Long.class),
+                fieldMetadata(loader, "com.example.Customer", "id"));
 
         // name hérité doit être présent comme scalar
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"name\", new PersistenceMetadata(false, java.lang.String.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(String.class),
+                fieldMetadata(loader, "com.example.Customer", "name"));
 
         // loyaltyCode est un champ scalar
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"loyaltyCode\", new PersistenceMetadata(false, java.lang.String.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(String.class),
+                fieldMetadata(loader, "com.example.Customer", "loyaltyCode"));
     }
 
     @Test
@@ -509,7 +479,7 @@ public class EntityProcessorTest {
     }
 
     @Test
-    void generatesRegistryForCustomerOrderModel() {
+    void generatesRegistryForCustomerOrderModel() throws ClassNotFoundException {
         JavaFileObject customer = JavaFileObjects.forSourceString("com.example.Customer", """
                     package com.example;
                     import jakarta.persistence.*;
@@ -553,14 +523,11 @@ public class EntityProcessorTest {
                 .compile(customer, order, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         // customer est une relation ManyToOne
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"customer\", new PersistenceMetadata(false, com.example.Customer.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Customer")),
+                fieldMetadata(loader, "com.example.Order", "customer"));
 
         // orders est une collection d'entités avec mappedBy
         assertThat(compilation)
@@ -589,7 +556,7 @@ public class EntityProcessorTest {
     }
 
     @Test
-    void generatesRegistryForEcommerceModel() {
+    void generatesRegistryForEcommerceModel() throws ClassNotFoundException {
         JavaFileObject address = JavaFileObjects.forSourceString("com.example.Address", """
                     package com.example;
                     import jakarta.persistence.Embeddable;
@@ -682,6 +649,7 @@ public class EntityProcessorTest {
                 .compile(address, customer, product, order, orderItem, dtoclass);
 
         assertThat(compilation).succeeded();
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
 
         assertThat(compilation)
                 .generatedSourceFile(
@@ -690,12 +658,8 @@ public class EntityProcessorTest {
                 .contains("registry.put(com.example.Customer.class");
 
         // address est un embeddable
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"address\", new PersistenceMetadata(false, com.example.Address.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Address")),
+                fieldMetadata(loader, "com.example.Customer", "address"));
 
         // orders est une collection d'entités
         assertThat(compilation)
@@ -723,20 +687,12 @@ public class EntityProcessorTest {
                 .contains("Optional.of(\"customer\")");
 
         // customer est une relation
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"customer\", new PersistenceMetadata(false, com.example.Customer.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Customer")),
+                fieldMetadata(loader, "com.example.Order", "customer"));
 
         // product est une relation
-        assertThat(compilation)
-                .generatedSourceFile(
-                        "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
-                .contentsAsUtf8String()
-                .contains(
-                        "fields.put(\"product\", new PersistenceMetadata(false, com.example.Product.class, Optional.empty(), Optional.empty()))");
+        assertEquals(PersistenceMetadata.scalar(loader.loadClass("com.example.Product")),
+                fieldMetadata(loader, "com.example.OrderItem", "product"));
     }
 
     @Test
@@ -1054,14 +1010,14 @@ public class EntityProcessorTest {
                         "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
                 .contentsAsUtf8String()
                 .contains(
-                        "public static final Map<Class<?>, Map<String, PersistenceMetadata>> ENTITY_METADATA_REGISTRY;");
+                        "static final Map<Class<?>, Map<String, PersistenceMetadata>> ENTITY_METADATA_REGISTRY;");
 
         assertThat(compilation)
                 .generatedSourceFile(
                         "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
                 .contentsAsUtf8String()
                 .contains(
-                        "public static final Map<Class<?>, Map<String, PersistenceMetadata>> EMBEDDABLE_METADATA_REGISTRY;");
+                        "static final Map<Class<?>, Map<String, PersistenceMetadata>> EMBEDDABLE_METADATA_REGISTRY;");
 
         assertThat(compilation)
                 .generatedSourceFile(
@@ -1206,4 +1162,15 @@ public class EntityProcessorTest {
                 .contentsAsUtf8String()
                 .doesNotContain("@com.example.NotNull");
     }
+
+    /**
+     * Returns the metadata of an entity field, as built by the generated persistence registry.
+     */
+    private static PersistenceMetadata fieldMetadata(CompilationClassLoader loader, String entityClass,
+                                                     String field) throws ClassNotFoundException {
+        PersistenceMetadataRegistryProvider provider = loader.newInstance(
+                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                PersistenceMetadataRegistryProvider.class);
+        return provider.getEntityMetadataRegistry().get(loader.loadClass(entityClass)).get(field);
+    }
 }
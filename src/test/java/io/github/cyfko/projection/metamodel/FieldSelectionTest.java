@@ -0,0 +1,94 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTest {
+
+    private final ProjectionMetadata userView = TestProjections.userView();
+
+    @Test
+    void expandsSelectedFieldsIntoEntityFields() {
+        FieldSelection selection = FieldSelection.of(userView, List.of("fullName", "userEmail"), false);
+
+        assertEquals(2, selection.size());
+        assertEquals(List.of("userEmail", "fullName"), selection.dtoFields());
+        assertEquals(List.of("email", "firstName", "lastName"), selection.requiredEntityFields());
+        assertTrue(selection.contains(userView.fieldIdOf("fullName")));
+        assertFalse(selection.contains(userView.fieldIdOf("city")));
+        assertFalse(selection.contains(-1));
+    }
+
+    @Test
+    void allSelectsEveryField() {
+        FieldSelection all = FieldSelection.all(userView);
+
+        assertEquals(userView.fieldCount(), all.size());
+        assertEquals(userView.getAllRequiredEntityFields(), all.requiredEntityFields());
+        assertTrue(FieldSelection.none(userView).isEmpty());
+        assertEquals(List.of(), FieldSelection.none(userView).requiredEntityFields());
+    }
+
+    @Test
+    void unionAndIntersection() {
+        FieldSelection left = FieldSelection.of(userView, List.of("userEmail", "city"), false);
+        FieldSelection right = FieldSelection.of(userView, List.of("CITY", "FULLNAME"), true);
+
+        assertEquals(List.of("userEmail", "city", "fullName"), left.union(right).dtoFields());
+        assertEquals(List.of("city"), left.intersection(right).dtoFields());
+        assertEquals(left.union(right), right.union(left));
+        assertEquals(left.union(right).hashCode(), right.union(left).hashCode());
+        assertEquals(left.with(userView.fieldIdOf("fullName")), left.union(right));
+        assertSame(left, left.with(userView.fieldIdOf("city")));
+    }
+
+    @Test
+    void sharedDependenciesAreListedOnce() {
+        ProjectionMetadata metadata = new ProjectionMetadata(
+                Object.class,
+                new DirectMapping[]{
+                        new DirectMapping("first", "firstName", String.class, Optional.empty())
+                },
+                new ComputedField[]{
+                        new ComputedField("fullName", new String[]{"firstName", "lastName"})
+                },
+                new ComputationProvider[]{}
+        );
+
+        assertEquals(List.of("firstName", "lastName"), FieldSelection.all(metadata).requiredEntityFields());
+    }
+
+    @Test
+    void supportsMoreThanSixtyFourFields() {
+        DirectMapping[] mappings = new DirectMapping[70];
+        for (int i = 0; i < mappings.length; i++) {
+            mappings[i] = new DirectMapping("f" + i, "e" + i, String.class, Optional.empty());
+        }
+        ProjectionMetadata metadata = new ProjectionMetadata(Object.class, mappings, new ComputedField[]{},
+                new ComputationProvider[]{});
+
+        FieldSelection selection = FieldSelection.of(metadata, List.of("f1", "f69"), false);
+
+        assertEquals(List.of("e1", "e69"), selection.requiredEntityFields());
+        assertEquals(70, FieldSelection.all(metadata).size());
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndForeignSelections() {
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.of(userView, List.of("unknown"), false));
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.of(userView, List.of("CITY"), false));
+        assertThrows(IndexOutOfBoundsException.class, () -> FieldSelection.none(userView).with(userView.fieldCount()));
+
+        FieldSelection orders = FieldSelection.all(TestProjections.orderView());
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.all(userView).union(orders));
+    }
+}
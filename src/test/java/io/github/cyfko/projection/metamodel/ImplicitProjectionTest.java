@@ -0,0 +1,93 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the implicit projections synthesized by {@link ProjectionRegistry} for entity classes.
+ */
+class ImplicitProjectionTest {
+
+    @BeforeEach
+    void setUp() {
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+        ProjectionRegistry.setProvider(TestProjections.provider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        PersistenceRegistry.setProvider(null);
+        ProjectionRegistry.setProvider(null);
+    }
+
+    @Test
+    void mapsEveryEntityFieldToItself() {
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(TestProjections.UserEntity.class);
+
+        assertEquals(TestProjections.UserEntity.class, metadata.entityClass());
+        assertEquals(List.of("id", "email", "firstName", "lastName", "address", "orders"),
+                metadata.getAllRequiredEntityFields());
+
+        DirectMapping orders = metadata.getDirectMapping("orders", false).orElseThrow();
+        assertEquals(TestProjections.OrderEntity.class, orders.dtoFieldType());
+        assertEquals(CollectionKind.ENTITY, orders.collection().orElseThrow().kind());
+    }
+
+    @Test
+    void isBuiltOncePerEntity() {
+        ProjectionMetadata first = ProjectionRegistry.getMetadataFor(TestProjections.UserEntity.class);
+        ProjectionMetadata second = ProjectionRegistry.getMetadataFor(TestProjections.UserEntity.class);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void isRebuiltWhenThePersistenceProviderChanges() {
+        ProjectionMetadata first = ProjectionRegistry.getMetadataFor(TestProjections.UserEntity.class);
+        assertEquals("orders.totalAmount",
+                ProjectionRegistry.toEntityPath("orders.totalAmount", TestProjections.UserEntity.class, false));
+
+        Map<String, PersistenceMetadata> user = new LinkedHashMap<>();
+        user.put("id", PersistenceMetadata.id(Long.class));
+        user.put("email", PersistenceMetadata.scalar(String.class));
+        PersistenceRegistry.setProvider(new PersistenceMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+                return Map.of(TestProjections.UserEntity.class, user);
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+                return Map.of();
+            }
+        });
+
+        ProjectionMetadata second = ProjectionRegistry.getMetadataFor(TestProjections.UserEntity.class);
+        assertNotSame(first, second);
+        assertEquals(List.of("id", "email"), second.getAllRequiredEntityFields());
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionRegistry.toEntityPath("orders.totalAmount", TestProjections.UserEntity.class, false));
+        assertNull(ProjectionRegistry.getMetadataFor(TestProjections.OrderEntity.class));
+    }
+
+    @Test
+    void resolvesPathsThroughImplicitProjections() {
+        assertEquals("orders.user.email",
+                ProjectionRegistry.toEntityPath("orders.user.email", TestProjections.UserEntity.class, false));
+        assertEquals("orders.totalAmount",
+                ProjectionRegistry.toEntityPath("ORDERS.totalamount", TestProjections.UserEntity.class, true));
+        assertNull(ProjectionRegistry.getMetadataFor(String.class));
+    }
+}
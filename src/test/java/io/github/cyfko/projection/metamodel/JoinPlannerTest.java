@@ -0,0 +1,164 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the join trees planned by {@link JoinPlanner}.
+ */
+class JoinPlannerTest {
+
+    static final class Employee {}
+    static final class Department {}
+    static final class Country {}
+    static final class Project {}
+    static final class Badge {}
+    static final class Location {}
+
+    @BeforeEach
+    void setUp() {
+        Map<String, PersistenceMetadata> employee = new LinkedHashMap<>();
+        employee.put("id", PersistenceMetadata.id(Long.class));
+        employee.put("name", PersistenceMetadata.scalar(String.class));
+        employee.put("address", PersistenceMetadata.scalar(Location.class));
+        employee.put("department", PersistenceMetadata.scalar(Department.class));
+        employee.put("badge", PersistenceMetadata.scalar(Badge.class));
+        employee.put("projects", PersistenceMetadata.collection(
+                CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.SET), Project.class));
+
+        Map<String, PersistenceMetadata> department = new LinkedHashMap<>();
+        department.put("id", PersistenceMetadata.id(Long.class));
+        department.put("name", PersistenceMetadata.scalar(String.class));
+        department.put("manager", PersistenceMetadata.scalar(Employee.class));
+
+        Map<String, PersistenceMetadata> country = new LinkedHashMap<>();
+        country.put("code", PersistenceMetadata.id(String.class));
+
+        Map<String, PersistenceMetadata> project = new LinkedHashMap<>();
+        project.put("id", PersistenceMetadata.id(Long.class));
+        project.put("name", PersistenceMetadata.scalar(String.class));
+
+        Map<String, PersistenceMetadata> badge = new LinkedHashMap<>();
+        badge.put("employee", PersistenceMetadata.id(Employee.class));
+        badge.put("number", PersistenceMetadata.scalar(String.class));
+
+        Map<String, PersistenceMetadata> location = new LinkedHashMap<>();
+        location.put("city", PersistenceMetadata.scalar(String.class));
+        location.put("country", PersistenceMetadata.scalar(Country.class));
+
+        Map<Class<?>, Map<String, PersistenceMetadata>> entities = Map.of(
+                Employee.class, employee, Department.class, department, Country.class, country,
+                Project.class, project, Badge.class, badge);
+        Map<Class<?>, Map<String, PersistenceMetadata>> embeddables = Map.of(Location.class, location);
+
+        PersistenceRegistry.setProvider(new PersistenceMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+                return entities;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+                return embeddables;
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        PersistenceRegistry.setProvider(null);
+    }
+
+    @Test
+    void embeddableHopsNeedNoJoin() {
+        JoinTree tree = JoinPlanner.plan(Employee.class, List.of("name", "address.city"));
+
+        assertEquals(List.of(), tree.joins());
+        assertEquals(1, tree.nodes().size());
+        assertEquals("e.address.city", tree.expressionOf("address.city"));
+        assertEquals("Employee e", tree.fromClause("Employee"));
+    }
+
+    @Test
+    void pathsSharingAPrefixShareItsJoins() {
+        JoinTree tree = JoinPlanner.plan(Employee.class, List.of(
+                "department.name", "department.manager.name", "department.manager.address.city", "department"));
+
+        assertEquals(List.of("department", "department.manager"),
+                tree.joins().stream().map(JoinTree.Node::path).toList());
+        assertEquals("Employee e LEFT JOIN e.department j1 LEFT JOIN j1.manager j2", tree.fromClause("Employee"));
+        assertEquals("j1.name", tree.expressionOf("department.name"));
+        assertEquals("j2.address.city", tree.expressionOf("department.manager.address.city"));
+        assertEquals("j1", tree.expressionOf("department"));
+        assertEquals(List.of(), tree.targetOf("department").attributes());
+    }
+
+    @Test
+    void associationsBelowAnEmbeddableAreJoinedThroughAJoinFreeNode() {
+        JoinTree tree = JoinPlanner.plan(Employee.class, List.of("address.country.code", "address.city"));
+
+        JoinTree.Node address = tree.nodes().get(1);
+        assertTrue(address.isEmbedded());
+        assertNull(address.joinType());
+        assertEquals("address", address.path());
+        assertEquals(List.of(tree.joins().get(0)), address.children());
+        assertEquals("Employee e LEFT JOIN e.address.country j1", tree.fromClause("Employee"));
+        assertEquals("j1.code", tree.expressionOf("address.country.code"));
+        assertEquals("e.address.city", tree.expressionOf("address.city"));
+
+        CriteriaRecorder recorder = new CriteriaRecorder();
+        Root<?> root = recorder.tupleQuery().from(Employee.class);
+        root.alias("e");
+        tree.applyTo(root);
+        assertEquals(List.of("FROM Employee e", "JOIN e.address", "LEFT JOIN e.address.country j1"),
+                recorder.lines());
+    }
+
+    @Test
+    void filteredAndIdentifyingAssociationsAreInnerJoined() {
+        JoinTree filtered = JoinPlanner.plan(Employee.class,
+                List.of("department.manager.name"), List.of("department.name"));
+        assertEquals(JoinType.INNER, filtered.joins().get(0).joinType());
+        assertEquals(JoinType.LEFT, filtered.joins().get(1).joinType());
+
+        JoinTree nested = JoinPlanner.plan(Employee.class,
+                List.of("department.name"), List.of("department.manager.name"));
+        assertEquals(List.of(JoinType.INNER, JoinType.INNER),
+                nested.joins().stream().map(JoinTree.Node::joinType).toList());
+        assertEquals("j2.name", nested.expressionOf("department.manager.name"));
+
+        JoinTree identifying = JoinPlanner.plan(Badge.class, List.of("employee.name", "employee.department.name"));
+        assertEquals("Badge e INNER JOIN e.employee j1 LEFT JOIN j1.department j2", identifying.fromClause("Badge"));
+    }
+
+    @Test
+    void associationsBelowALeftJoinStayLeftJoined() {
+        JoinTree tree = JoinPlanner.plan(Employee.class, List.of("badge.employee.name"));
+
+        assertEquals("Employee e LEFT JOIN e.badge j1 LEFT JOIN j1.employee j2", tree.fromClause("Employee"));
+    }
+
+    @Test
+    void collectionValuedPathsAreSetAside() {
+        JoinTree tree = JoinPlanner.plan(Employee.class, List.of("projects.name", "projects", "name"));
+
+        assertEquals(List.of("projects.name", "projects"), tree.collectionPaths());
+        assertNull(tree.targetOf("projects.name"));
+        assertThrows(IllegalArgumentException.class, () -> tree.expressionOf("projects"));
+        assertEquals("e.name", tree.expressionOf("name"));
+    }
+}
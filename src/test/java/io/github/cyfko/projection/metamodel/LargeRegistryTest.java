@@ -0,0 +1,208 @@
+package io.github.cyfko.projection.metamodel;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.processor.MetamodelProcessor;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test generating registries for a large schema, whose initialization code would otherwise exceed
+ * the 64 KB limit of a single method.
+ */
+class LargeRegistryTest {
+
+    private static final int ENTITY_COUNT = 5_000;
+    private static final int WIDE_FIELD_COUNT = 600;
+    private static final int FAN_OUT = 20;
+
+    @Test
+    void generatesRegistriesForFiveThousandEntities() throws ClassNotFoundException {
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            sources.add(JavaFileObjects.forSourceString("com.example.large.Entity" + i, """
+                        package com.example.large;
+                        import jakarta.persistence.*;
+
+                        @Entity
+                        public class Entity%d {
+                            @Id
+                            private Long id;
+                            private String name;
+                            @ManyToOne
+                            private Entity%d next;
+                        }
+                    """.formatted(i, (i + 1) % ENTITY_COUNT)));
+            sources.add(JavaFileObjects.forSourceString("com.example.large.Entity" + i + "DTO", """
+                        package com.example.large;
+                        import io.github.cyfko.projection.Projected;
+                        import io.github.cyfko.projection.Projection;
+
+                        @Projection(from = Entity%d.class)
+                        public class Entity%dDTO {
+                            private String name;
+                            @Projected(from = "next.name")
+                            private String nextName;
+                        }
+                    """.formatted(i, i)));
+        }
+
+        StringBuilder wideFields = new StringBuilder();
+        for (int i = 0; i < WIDE_FIELD_COUNT; i++) {
+            wideFields.append("    private String field").append(i).append(";\n");
+        }
+        sources.add(JavaFileObjects.forSourceString("com.example.large.Wide", """
+                    package com.example.large;
+                    import jakarta.persistence.*;
+
+                    @Entity
+                    public class Wide {
+                        @Id
+                        private Long id;
+                    %s}
+                """.formatted(wideFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.large.WideDTO", """
+                    package com.example.large;
+                    import io.github.cyfko.projection.Projection;
+
+                    @Projection(from = Wide.class)
+                    public class WideDTO {
+                        private String field599;
+                    }
+                """));
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new MetamodelProcessor())
+                .compile(sources);
+
+        assertThat(compilation).succeeded();
+
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
+        PersistenceMetadataRegistryProvider persistence = loader.newInstance(
+                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                PersistenceMetadataRegistryProvider.class);
+        ProjectionMetadataRegistryProvider projections = loader.newInstance(
+                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                ProjectionMetadataRegistryProvider.class);
+
+        Class<?> last = loader.loadClass("com.example.large.Entity" + (ENTITY_COUNT - 1));
+        assertEquals(List.of("id", "name", "next"), List.copyOf(persistence.findEntityMetadata(last).keySet()));
+        assertEquals(List.of("id"), persistence.findIdFields(last));
+
+        Map<String, PersistenceMetadata> wide = persistence.findEntityMetadata(loader.loadClass("com.example.large.Wide"));
+        assertEquals(WIDE_FIELD_COUNT + 1, wide.size());
+        assertEquals("field" + (WIDE_FIELD_COUNT - 1), List.copyOf(wide.keySet()).get(WIDE_FIELD_COUNT));
+
+        assertEquals(ENTITY_COUNT + 1, persistence.getEntityMetadataRegistry().size());
+        assertEquals(ENTITY_COUNT + 1, projections.getProjectionMetadataRegistry().size());
+        assertEquals("next.name", projections.getEntityPathRegistry()
+                .get(loader.loadClass("com.example.large.Entity0DTO")).get("nextName"));
+    }
+
+    @Test
+    void splitsWideAndDeeplyNestedProjections() throws ClassNotFoundException {
+        List<JavaFileObject> sources = new ArrayList<>();
+        StringBuilder wideFields = new StringBuilder();
+        for (int i = 0; i < WIDE_FIELD_COUNT; i++) {
+            wideFields.append("    private String field").append(i).append(";\n");
+        }
+        sources.add(JavaFileObjects.forSourceString("com.example.split.Wide", """
+                    package com.example.split;
+                    import jakarta.persistence.*;
+
+                    @Entity
+                    public class Wide {
+                        @Id
+                        private Long id;
+                    %s}
+                """.formatted(wideFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.WideDTO", """
+                    package com.example.split;
+                    import io.github.cyfko.projection.Projection;
+
+                    @Projection(from = Wide.class)
+                    public class WideDTO {
+                    %s}
+                """.formatted(wideFields)));
+
+        // Hub -> FAN_OUT collections of Mid -> FAN_OUT collections of Leaf -> FAN_OUT scalars
+        StringBuilder hubFields = new StringBuilder();
+        StringBuilder hubDtoFields = new StringBuilder();
+        StringBuilder midFields = new StringBuilder();
+        StringBuilder midDtoFields = new StringBuilder();
+        StringBuilder leafFields = new StringBuilder();
+        for (int i = 0; i < FAN_OUT; i++) {
+            hubFields.append("    @OneToMany\n    private List<Mid> mids").append(i).append(";\n");
+            hubDtoFields.append("    private List<MidDTO> mids").append(i).append(";\n");
+            midFields.append("    @OneToMany\n    private List<Leaf> leaves").append(i).append(";\n");
+            midDtoFields.append("    private List<LeafDTO> leaves").append(i).append(";\n");
+            leafFields.append("    private String field").append(i).append(";\n");
+        }
+        String entity = """
+                    package com.example.split;
+                    import jakarta.persistence.*;
+                    import java.util.List;
+
+                    @Entity
+                    public class %s {
+                        @Id
+                        private Long id;
+                    %s}
+                """;
+        String dto = """
+                    package com.example.split;
+                    import io.github.cyfko.projection.Projection;
+                    import java.util.List;
+
+                    @Projection(from = %s.class)
+                    public class %sDTO {
+                    %s}
+                """;
+        sources.add(JavaFileObjects.forSourceString("com.example.split.Hub", entity.formatted("Hub", hubFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.Mid", entity.formatted("Mid", midFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.Leaf", entity.formatted("Leaf", leafFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.HubDTO", dto.formatted("Hub", "Hub", hubDtoFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.MidDTO", dto.formatted("Mid", "Mid", midDtoFields)));
+        sources.add(JavaFileObjects.forSourceString("com.example.split.LeafDTO", dto.formatted("Leaf", "Leaf", leafFields)));
+
+        Compilation compilation = Compiler.javac()
+                .withProcessors(new MetamodelProcessor())
+                .compile(sources);
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation)
+                .generatedSourceFile("io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl")
+                .contentsAsUtf8String()
+                .contains("Part0.fill(directMappings);");
+
+        CompilationClassLoader loader = new CompilationClassLoader(compilation);
+        ProjectionMetadataRegistryProvider projections = loader.newInstance(
+                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                ProjectionMetadataRegistryProvider.class);
+
+        Class<?> wideDto = loader.loadClass("com.example.split.WideDTO");
+        ProjectionMetadata wide = projections.getProjectionMetadataRegistry().get(wideDto);
+        assertEquals(WIDE_FIELD_COUNT, wide.directMappings().length);
+        assertEquals("field599", wide.getDirectMapping("FIELD599", true).orElseThrow().entityField());
+        assertEquals(WIDE_FIELD_COUNT, wide.requiredEntityFields().size());
+        assertEquals(WIDE_FIELD_COUNT, projections.getEntityPathRegistry().get(wideDto).size());
+        assertEquals(WIDE_FIELD_COUNT, projections.getProjectionQueryRegistry().get(wideDto).selectedPaths().size());
+
+        Map<String, String> hubPaths = projections.getEntityPathRegistry()
+                .get(loader.loadClass("com.example.split.HubDTO"));
+        assertEquals(FAN_OUT + FAN_OUT * (FAN_OUT + FAN_OUT * FAN_OUT), hubPaths.size());
+        assertEquals("mids19.leaves19.field19", hubPaths.get("mids19.leaves19.field19"));
+    }
+}
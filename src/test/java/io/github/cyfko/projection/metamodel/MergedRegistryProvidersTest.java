@@ -0,0 +1,94 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests merging the registry providers contributed by several modules.
+ */
+class MergedRegistryProvidersTest {
+
+    @Test
+    void singleProviderIsReturnedAsIs() {
+        ProjectionMetadataRegistryProvider provider = TestProjections.provider();
+
+        assertSame(provider, MergedRegistryProviders.projections(List.of(provider)));
+    }
+
+    @Test
+    void projectionProvidersAreMergedFirstWins() {
+        ProjectionMetadata userView = TestProjections.userView();
+        ProjectionMetadata shadowedUserView = TestProjections.userView();
+        ProjectionMetadata orderView = TestProjections.orderView();
+        Map<String, String> userPaths = Map.of("userEmail", "email");
+
+        ProjectionMetadataRegistryProvider users = provider(Map.of(TestProjections.UserView.class, userView),
+                Map.of(TestProjections.UserView.class, userPaths));
+        ProjectionMetadataRegistryProvider orders = provider(
+                Map.of(TestProjections.UserView.class, shadowedUserView, TestProjections.OrderView.class, orderView),
+                Map.of(TestProjections.UserView.class, Map.of("userEmail", "shadowed")));
+
+        ProjectionMetadataRegistryProvider merged = MergedRegistryProviders.projections(List.of(users, orders));
+
+        assertEquals(2, merged.getProjectionMetadataRegistry().size());
+        assertSame(userView, merged.getProjectionMetadataRegistry().get(TestProjections.UserView.class));
+        assertSame(orderView, merged.getProjectionMetadataRegistry().get(TestProjections.OrderView.class));
+        assertEquals(Map.of(TestProjections.UserView.class, userPaths), merged.getEntityPathRegistry());
+        assertThrows(UnsupportedOperationException.class,
+                () -> merged.getProjectionMetadataRegistry().remove(TestProjections.UserView.class));
+    }
+
+    @Test
+    void persistenceProvidersAreMerged() {
+        PersistenceMetadataRegistryProvider full = TestProjections.persistenceProvider();
+        Map<String, PersistenceMetadata> otherUser = Map.of("code", PersistenceMetadata.id(String.class));
+        PersistenceMetadataRegistryProvider other = new PersistenceMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+                return Map.of(TestProjections.UserEntity.class, otherUser, String.class, otherUser);
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+                return Map.of();
+            }
+
+            @Override
+            public Map<Class<?>, List<String>> getIdFieldsRegistry() {
+                return Map.of(TestProjections.UserEntity.class, List.of("code"), String.class, List.of("code"));
+            }
+        };
+
+        PersistenceMetadataRegistryProvider merged = MergedRegistryProviders.persistence(List.of(full, other));
+
+        assertEquals(3, merged.getEntityMetadataRegistry().size());
+        assertSame(full.getEntityMetadataRegistry().get(TestProjections.UserEntity.class),
+                merged.getEntityMetadataRegistry().get(TestProjections.UserEntity.class));
+        assertEquals(full.getEmbeddableMetadataRegistry(), merged.getEmbeddableMetadataRegistry());
+        // The shadowed entity does not leak the identifiers of the losing provider
+        assertEquals(Map.of(String.class, List.of("code")), merged.getIdFieldsRegistry());
+    }
+
+    private static ProjectionMetadataRegistryProvider provider(Map<Class<?>, ProjectionMetadata> metadata,
+                                                               Map<Class<?>, Map<String, String>> entityPaths) {
+        return new ProjectionMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, ProjectionMetadata> getProjectionMetadataRegistry() {
+                return metadata;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, String>> getEntityPathRegistry() {
+                return entityPaths;
+            }
+        };
+    }
+}
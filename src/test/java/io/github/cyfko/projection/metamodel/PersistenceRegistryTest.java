@@ -2,6 +2,8 @@ package io.github.cyfko.projection.metamodel;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -77,4 +79,41 @@ class PersistenceRegistryTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void getIdFieldsFallsBackToFieldMetadataWithoutGeneratedRegistry() {
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+        try {
+            List<String> idFields = PersistenceRegistry.getIdFields(TestProjections.OrderEntity.class);
+
+            assertEquals(List.of("id"), idFields);
+            assertSame(idFields, PersistenceRegistry.getIdFields(TestProjections.OrderEntity.class));
+            assertThrows(IllegalStateException.class, () -> PersistenceRegistry.getIdFields(String.class));
+        } finally {
+            PersistenceRegistry.setProvider(null);
+        }
+    }
+
+    @Test
+    void fieldIdsFollowMetadataOrder() {
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+        try {
+            Class<?> user = TestProjections.UserEntity.class;
+
+            assertEquals(6, PersistenceRegistry.getFieldCount(user));
+            int email = PersistenceRegistry.getFieldId(user, "email");
+            assertEquals(1, email);
+            assertEquals("email", PersistenceRegistry.getFieldName(user, email));
+            assertSame(PersistenceRegistry.getFieldMetadata(user, "email"), PersistenceRegistry.getFieldMetadata(user, email));
+            assertEquals(1, PersistenceRegistry.getFieldId(TestProjections.AddressEmbeddable.class, "streetName"));
+
+            assertEquals(PersistenceRegistry.UNKNOWN_FIELD, PersistenceRegistry.getFieldId(user, "unknown"));
+            assertEquals(PersistenceRegistry.UNKNOWN_FIELD, PersistenceRegistry.getFieldId(String.class, "email"));
+            assertEquals(0, PersistenceRegistry.getFieldCount(String.class));
+            assertThrows(IndexOutOfBoundsException.class, () -> PersistenceRegistry.getFieldMetadata(user, 6));
+            assertThrows(NullPointerException.class, () -> PersistenceRegistry.getFieldId(user, null));
+        } finally {
+            PersistenceRegistry.setProvider(null);
+        }
+    }
+}
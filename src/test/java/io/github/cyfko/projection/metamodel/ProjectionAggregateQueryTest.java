@@ -0,0 +1,139 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reducer subqueries of {@link ProjectionAggregateQuery}.
+ */
+class ProjectionAggregateQueryTest {
+
+    static final class UserStatsView {}
+    static final class OrderStatsView {}
+    static final class InvalidReducerView {}
+
+    @BeforeEach
+    void setUp() {
+        ProjectionMetadata userStats = new ProjectionMetadata(
+                TestProjections.UserEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("email", "email", String.class, Optional.empty()),
+                        new DirectMapping("orders", "orders", TestProjections.OrderView.class,
+                                Optional.of(DirectMapping.CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST)))
+                },
+                new ComputedField[]{
+                        new ComputedField("totalSpent", new String[]{"orders.totalAmount"},
+                                new ComputedField.ReducerMapping[]{new ComputedField.ReducerMapping(0, "SUM")}),
+                        new ComputedField("summary", new String[]{"email", "orders.id"},
+                                new ComputedField.ReducerMapping[]{new ComputedField.ReducerMapping(1, "count_distinct")})
+                },
+                new ComputationProvider[]{}
+        );
+        ProjectionMetadata orderStats = new ProjectionMetadata(
+                TestProjections.OrderEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("amount", "totalAmount", BigDecimal.class, Optional.empty())
+                },
+                new ComputedField[]{
+                        new ComputedField("share", new String[]{"totalAmount", "user.orders.totalAmount"},
+                                new ComputedField.ReducerMapping[]{new ComputedField.ReducerMapping(1, "MAX")})
+                },
+                new ComputationProvider[]{}
+        );
+        ProjectionMetadata invalidReducer = new ProjectionMetadata(
+                TestProjections.UserEntity.class,
+                new DirectMapping[]{},
+                new ComputedField[]{
+                        new ComputedField("median", new String[]{"orders.totalAmount"},
+                                new ComputedField.ReducerMapping[]{new ComputedField.ReducerMapping(0, "MEDIAN")}),
+                        new ComputedField("scalar", new String[]{"address.city"},
+                                new ComputedField.ReducerMapping[]{new ComputedField.ReducerMapping(0, "COUNT")})
+                },
+                new ComputationProvider[]{}
+        );
+        Map<Class<?>, ProjectionMetadata> registry = Map.of(
+                TestProjections.OrderView.class, TestProjections.orderView(),
+                UserStatsView.class, userStats,
+                OrderStatsView.class, orderStats,
+                InvalidReducerView.class, invalidReducer
+        );
+        ProjectionMetadataRegistryProvider provider = () -> registry;
+        ProjectionRegistry.setProvider(provider);
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+        PersistenceRegistry.setProvider(null);
+    }
+
+    @Test
+    void selectsReducedDependenciesAsCorrelatedSubqueries() {
+        ProjectionAggregateQuery query = ProjectionAggregateQuery.of(UserStatsView.class);
+
+        assertEquals("SELECT e.id, e.email, (SELECT SUM(r1.totalAmount) FROM e.orders r1),"
+                + " (SELECT COUNT(DISTINCT r2.id) FROM e.orders r2) FROM UserEntity e", query.query());
+        assertEquals(List.of("id", "email"), query.selectedPaths());
+        assertEquals(List.of("orders"), query.collectionPaths());
+        assertEquals(List.of(ProjectionAggregateQuery.Reducer.SUM, ProjectionAggregateQuery.Reducer.COUNT_DISTINCT),
+                query.aggregates().stream().map(ProjectionAggregateQuery.Aggregate::reducer).toList());
+
+        Object[] row = {1L, "jane@example.com", new BigDecimal("42.50"), 3L};
+        assertArrayEquals(new Object[]{new BigDecimal("42.50")}, query.argumentsOf("totalSpent", row));
+        assertArrayEquals(new Object[]{"jane@example.com", 3L}, query.argumentsOf("summary", row));
+        assertThrows(IllegalArgumentException.class, () -> query.argumentsOf("email", row));
+    }
+
+    @Test
+    void selectsOnlyTheAggregatesOfTheSelectedFields() {
+        ProjectionAggregateQuery query = ProjectionAggregateQuery.of(UserStatsView.class, List.of("TOTALSPENT"), true);
+
+        assertEquals("SELECT (SELECT SUM(r1.totalAmount) FROM e.orders r1) FROM UserEntity e", query.query());
+        assertEquals(List.of(), query.selectedPaths());
+        assertEquals(List.of(), query.collectionPaths());
+        assertSame(query, ProjectionAggregateQuery.of(UserStatsView.class, List.of("totalSpent"), false));
+    }
+
+    @Test
+    void correlatesCollectionsReachedThroughAssociations() {
+        ProjectionAggregateQuery query = ProjectionAggregateQuery.of(OrderStatsView.class);
+
+        assertEquals("SELECT e.totalAmount, (SELECT MAX(r1.totalAmount) FROM e.user.orders r1) FROM OrderEntity e",
+                query.query());
+        assertArrayEquals(new Object[]{BigDecimal.ONE, BigDecimal.TEN},
+                query.argumentsOf("share", new Object[]{BigDecimal.ONE, BigDecimal.TEN}));
+    }
+
+    @Test
+    void rejectsEmptySelections() {
+        assertThrows(IllegalArgumentException.class, () -> ProjectionAggregateQuery.of(UserStatsView.class,
+                FieldSelection.none(ProjectionRegistry.getMetadataFor(UserStatsView.class))));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProjectionAggregateQuery.of(UserStatsView.class, List.of(), false));
+    }
+
+    @Test
+    void rejectsReducersThatCannotBeComputedInTheDatabase() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ProjectionAggregateQuery.of(InvalidReducerView.class, List.of("median"), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProjectionAggregateQuery.of(InvalidReducerView.class, List.of("scalar"), false));
+    }
+}
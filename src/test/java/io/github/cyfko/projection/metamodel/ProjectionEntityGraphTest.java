@@ -0,0 +1,134 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the fetch graphs derived by {@link ProjectionEntityGraph}.
+ */
+class ProjectionEntityGraphTest {
+
+    static final class OrderSummaryView {}
+
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ProjectionMetadata orderSummary = new ProjectionMetadata(
+                TestProjections.OrderEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("amount", "totalAmount", BigDecimal.class, Optional.empty()),
+                        new DirectMapping("userCity", "user.address.city", String.class, Optional.empty()),
+                        new DirectMapping("userOrders", "user.orders", TestProjections.OrderView.class,
+                                Optional.of(DirectMapping.CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST)))
+                },
+                new ComputedField[]{
+                        new ComputedField("label", new String[]{"user.email", "transientLabel"})
+                },
+                new ComputationProvider[]{}
+        );
+        Map<Class<?>, ProjectionMetadata> registry = Map.of(
+                TestProjections.UserView.class, TestProjections.userView(),
+                TestProjections.AddressView.class, TestProjections.addressView(),
+                TestProjections.OrderView.class, TestProjections.orderView(),
+                OrderSummaryView.class, orderSummary
+        );
+        ProjectionMetadataRegistryProvider provider = () -> registry;
+        ProjectionRegistry.setProvider(provider);
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+        PersistenceRegistry.setProvider(null);
+    }
+
+    @Test
+    void fetchesTheAttributesOfDirectMappingsAndComputedFields() {
+        ProjectionEntityGraph graph = ProjectionEntityGraph.of(TestProjections.UserView.class);
+
+        assertEquals(TestProjections.UserEntity.class, graph.entityClass());
+        assertEquals(List.of("email", "firstName", "lastName",
+                "address", "address.city", "address.streetName",
+                "orders", "orders.id", "orders.totalAmount"), graph.attributePaths());
+
+        graph.createIn(entityManager());
+        assertEquals(List.of(
+                "graph UserEntity",
+                "attributes [email, firstName, lastName]",
+                "subgraph address",
+                "address: attributes [city, streetName]",
+                "subgraph orders",
+                "orders: attributes [id, totalAmount]"
+        ), calls);
+    }
+
+    @Test
+    void nestsSubgraphsAlongAssociationsAndSkipsUnknownAttributes() {
+        ProjectionEntityGraph graph = ProjectionEntityGraph.of(OrderSummaryView.class);
+
+        assertEquals(List.of("totalAmount", "user", "user.email",
+                "user.address", "user.address.city",
+                "user.orders", "user.orders.id", "user.orders.totalAmount"), graph.attributePaths());
+    }
+
+    @Test
+    void followsTheSelectedFieldsOnly() {
+        ProjectionEntityGraph graph = ProjectionEntityGraph.of(TestProjections.UserView.class,
+                List.of("USEREMAIL"), true);
+
+        assertEquals(List.of("email"), graph.attributePaths());
+        assertSame(graph, ProjectionEntityGraph.of(TestProjections.UserView.class, List.of("userEmail"), false));
+
+        Map<String, Object> hint = graph.fetchGraphHint(entityManager());
+        assertInstanceOf(EntityGraph.class, hint.get(ProjectionEntityGraph.FETCH_GRAPH_HINT));
+    }
+
+    private EntityManager entityManager() {
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{EntityManager.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("createEntityGraph")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    calls.add("graph " + ((Class<?>) args[0]).getSimpleName());
+                    return graphNode(EntityGraph.class, "");
+                });
+    }
+
+    private Object graphNode(Class<?> type, String prefix) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "addAttributeNodes" -> {
+                        calls.add(prefix + "attributes " + Arrays.toString((Object[]) args[0]));
+                        yield null;
+                    }
+                    case "addSubgraph" -> {
+                        calls.add("subgraph " + prefix.replace(": ", ".") + args[0]);
+                        yield graphNode(Subgraph.class, prefix.replace(": ", ".") + args[0] + ": ");
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
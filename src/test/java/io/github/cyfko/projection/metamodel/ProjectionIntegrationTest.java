@@ -3,11 +3,25 @@ package io.github.cyfko.projection.metamodel;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.Compiler;
 import com.google.testing.compile.JavaFileObjects;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.FieldIndex;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionQuery;
 import io.github.cyfko.projection.metamodel.processor.MetamodelProcessor;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
 import org.junit.jupiter.api.Test;
 
 import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -306,8 +320,567 @@ class ProjectionIntegrationTest {
                 assertFalse(generatedCode.contains("@com.example.NotNull"));
         }
 
+        @Test
+        void testGeneratedFieldIndexResolvesDeclaredFields() throws IOException {
+                JavaFileObject userEntity = JavaFileObjects.forResource("testdata/User.java");
+                JavaFileObject addressEmbeddable = JavaFileObjects.forResource("testdata/Address.java");
+                JavaFileObject departmentEntity = JavaFileObjects.forResource("testdata/Department.java");
+                JavaFileObject orderEntity = JavaFileObjects.forResource("testdata/Order.java");
+                JavaFileObject userDTO = JavaFileObjects.forResource("testdata/UserDTO.java");
+                JavaFileObject orderDTO = JavaFileObjects.forResource("testdata/OrderDTO.java");
+                JavaFileObject computationProvider = JavaFileObjects
+                                .forResource("testdata/TestComputationProvider.java");
+
+                Compilation compilation = Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .compile(userEntity, addressEmbeddable, departmentEntity, orderEntity, userDTO,
+                                                orderDTO, computationProvider);
+
+                assertThat(compilation).succeeded();
+
+                String generatedCode = getGeneratedProjectionCode(compilation);
+                assertTrue(generatedCode.contains(
+                                "FieldIndex.of(directMappings, computedFields, dtoField -> switch (dtoField)"));
+                assertTrue(generatedCode.contains("case \"userEmail\" -> 0;"));
+                assertTrue(generatedCode.contains("default -> FieldIndex.NOT_FOUND;"));
+
+                CompilationClassLoader loader = new CompilationClassLoader(compilation);
+                ProjectionMetadataRegistryProvider provider = loader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+
+                ProjectionMetadata metadata = provider.getProjectionMetadataRegistry().entrySet().stream()
+                                .filter(e -> e.getKey().getSimpleName().equals("UserDTO"))
+                                .map(java.util.Map.Entry::getValue)
+                                .findFirst()
+                                .orElseThrow();
+
+                assertEquals("email", metadata.getDirectMapping("userEmail", false).orElseThrow().entityField());
+                assertEquals("address.city", metadata.getDirectMapping("CITY", true).orElseThrow().entityField());
+                assertTrue(metadata.isComputedField("fullName", false));
+                assertFalse(metadata.isDirectMapping("fullName", false));
+                assertFalse(metadata.isDirectMapping("unknown", true));
+                assertEquals(FieldIndex.NOT_FOUND, metadata.fieldIndex().ordinalOf("unknown"));
+        }
+
+        @Test
+        void testGeneratedEntityPathTable() throws IOException {
+                Compilation compilation = compileUserDTO();
+
+                assertThat(compilation).succeeded();
+
+                String generatedCode = getGeneratedProjectionCode(compilation);
+                assertTrue(generatedCode.contains("paths.put(\"userEmail\", \"email\");"));
+                assertTrue(generatedCode.contains("paths.put(\"orders.amount\", \"orders.totalAmount\");"));
+                assertTrue(generatedCode.contains("paths.put(\"fullName\", \"firstName,lastName\");"));
+                assertTrue(generatedCode.contains(
+                                "List.of(\"email\", \"address.city\", \"department.name\", \"orders\", \"firstName\", \"lastName\", \"birthDate\")"));
+
+                ProjectionMetadataRegistryProvider provider = new CompilationClassLoader(compilation).newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+                Class<?> userDtoClass = provider.getProjectionMetadataRegistry().keySet().stream()
+                                .filter(c -> c.getSimpleName().equals("UserDTO"))
+                                .findFirst()
+                                .orElseThrow();
+
+                try {
+                        ProjectionRegistry.setProvider(provider);
+
+                        assertEquals(List.of("email", "address.city", "department.name", "orders", "firstName",
+                                        "lastName", "birthDate"), ProjectionRegistry.getRequiredEntityFields(userDtoClass));
+                        assertEquals("address.city", ProjectionRegistry.toEntityPath("city", userDtoClass, false));
+                        assertEquals("orders.totalAmount",
+                                        ProjectionRegistry.toEntityPath("orders.amount", userDtoClass, false));
+                        // Not in the table: resolved from the projection metadata
+                        assertEquals("orders.totalAmount",
+                                        ProjectionRegistry.toEntityPath("ORDERS.AMOUNT", userDtoClass, true));
+                } finally {
+                        ProjectionRegistry.setProvider(null);
+                }
+        }
+
+        @Test
+        void testRegistriesBootstrapThroughServiceLoader() throws IOException {
+                Compilation compilation = compileUserDTO();
+
+                assertThat(compilation).succeeded();
+                assertThat(compilation)
+                                .generatedFile(StandardLocation.CLASS_OUTPUT,
+                                                "META-INF/services/io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider")
+                                .contentsAsUtf8String()
+                                .isEqualTo("io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl\n");
+                assertThat(compilation)
+                                .generatedFile(StandardLocation.CLASS_OUTPUT,
+                                                "META-INF/services/io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider")
+                                .contentsAsUtf8String()
+                                .isEqualTo("io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl\n");
+                assertTrue(getGeneratedProjectionCode(compilation)
+                                .contains("public static ProjectionMetadataRegistryProvider provider()"));
+
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+                try {
+                        thread.setContextClassLoader(new CompilationClassLoader(compilation));
+                        ProjectionRegistry.setProvider(null);
+                        PersistenceRegistry.setProvider(null);
+
+                        assertEquals("io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                        ProjectionRegistry.getProjectionRegistryProvider().getClass().getName());
+                        assertEquals("io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                                        PersistenceRegistry.getEntityRegistryProvider().getClass().getName());
+                } finally {
+                        thread.setContextClassLoader(contextClassLoader);
+                        ProjectionRegistry.setProvider(null);
+                        PersistenceRegistry.setProvider(null);
+                }
+        }
+
+        @Test
+        void testModuleNameSuffixesGeneratedProviders() throws IOException {
+                Compilation compilation = compileUserDTO("-Aprojection.metamodel.moduleName=billing-core");
+
+                assertThat(compilation).succeeded();
+                assertThat(compilation)
+                                .generatedFile(StandardLocation.CLASS_OUTPUT,
+                                                "META-INF/services/io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider")
+                                .contentsAsUtf8String()
+                                .isEqualTo("io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl_billing_core\n");
+                assertThat(compilation)
+                                .generatedFile(StandardLocation.CLASS_OUTPUT,
+                                                "META-INF/services/io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider")
+                                .contentsAsUtf8String()
+                                .isEqualTo("io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl_billing_core\n");
+                assertTrue(compilation.generatedSourceFile(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl")
+                                .isEmpty());
+
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+                try {
+                        thread.setContextClassLoader(new CompilationClassLoader(compilation));
+                        ProjectionRegistry.setProvider(null);
+
+                        assertEquals("io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl_billing_core",
+                                        ProjectionRegistry.getProjectionRegistryProvider().getClass().getName());
+                } finally {
+                        thread.setContextClassLoader(contextClassLoader);
+                        ProjectionRegistry.setProvider(null);
+                }
+        }
+
+        @Test
+        void testBinaryRegistryMatchesGeneratedProviders() throws ClassNotFoundException {
+                Compilation source = compileUserDTO();
+                Compilation binary = compileUserDTO("-Aprojection.metamodel.registryFormat=binary");
+
+                assertThat(binary).succeeded();
+                assertThat(binary).generatedFile(StandardLocation.CLASS_OUTPUT,
+                                "META-INF/projection-metamodel/projections.bin");
+                assertThat(binary).generatedFile(StandardLocation.CLASS_OUTPUT,
+                                "META-INF/projection-metamodel/persistence.bin");
+                assertTrue(binary.generatedSourceFile(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl")
+                                .isEmpty());
+                assertTrue(binary.generatedSourceFile(
+                                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl")
+                                .isEmpty());
+
+                CompilationClassLoader sourceLoader = new CompilationClassLoader(source);
+                ProjectionMetadataRegistryProvider expectedProjections = sourceLoader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+                PersistenceMetadataRegistryProvider expectedPersistence = sourceLoader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                                PersistenceMetadataRegistryProvider.class);
+
+                CompilationClassLoader binaryLoader = new CompilationClassLoader(binary);
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+                try {
+                        thread.setContextClassLoader(binaryLoader);
+                        ProjectionRegistry.setProvider(null);
+                        PersistenceRegistry.setProvider(null);
+
+                        ProjectionMetadataRegistryProvider projections = ProjectionRegistry.getProjectionRegistryProvider();
+                        PersistenceMetadataRegistryProvider persistence = PersistenceRegistry.getEntityRegistryProvider();
+
+                        assertEquals(describe(expectedProjections), describe(projections));
+                        assertEquals(describe(expectedPersistence), describe(persistence));
+
+                        Class<?> department = binaryLoader.loadClass("io.github.cyfko.example.Department");
+                        assertSame(persistence.findEntityMetadata(department),
+                                        persistence.getEntityMetadataRegistry().get(department));
+                        assertEquals(List.of("id"), persistence.findIdFields(department));
+                        assertNull(persistence.findEntityMetadata(
+                                        sourceLoader.loadClass("io.github.cyfko.example.Department")));
+                } finally {
+                        thread.setContextClassLoader(contextClassLoader);
+                        ProjectionRegistry.setProvider(null);
+                        PersistenceRegistry.setProvider(null);
+                }
+        }
+
+        @Test
+        void testProjectionQueriesArePrecomputed() throws ClassNotFoundException {
+                Compilation compilation = compileUserDTO();
+
+                assertThat(compilation).succeeded();
+
+                CompilationClassLoader loader = new CompilationClassLoader(compilation);
+                ProjectionMetadataRegistryProvider provider = loader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+
+                ProjectionQuery user = provider.getProjectionQueryRegistry()
+                                .get(loader.loadClass("io.github.cyfko.example.UserDTO"));
+                assertEquals("SELECT e.id, e.email, e.address.city, j1.name, e.firstName, e.lastName, e.birthDate"
+                                + " FROM User e LEFT JOIN e.department j1", user.tupleQuery());
+                assertEquals(List.of("id", "email", "address.city", "department.name", "firstName", "lastName",
+                                "birthDate"), user.selectedPaths());
+                assertEquals(List.of("orders"), user.collectionPaths());
+                assertFalse(user.hasConstructorQuery());
+
+                ProjectionQuery order = provider.getProjectionQueryRegistry()
+                                .get(loader.loadClass("io.github.cyfko.example.OrderDTO"));
+                assertEquals("SELECT e.id, e.orderNumber, e.totalAmount FROM Order e", order.tupleQuery());
+                assertEquals(List.of(), order.collectionPaths());
+        }
+
+        @Test
+        void testConstructorQueryRequiresMatchingConstructor() throws IOException {
+                JavaFileObject entity = JavaFileObjects.forSourceString("com.example.Employee", """
+                                    package com.example;
+                                    import jakarta.persistence.*;
+
+                                    @Entity(name = "Staff")
+                                    public class Employee {
+                                        @Id
+                                        private Long id;
+                                        private String name;
+                                        @ManyToOne
+                                        private Employee manager;
+                                    }
+                                """);
+
+                JavaFileObject summary = JavaFileObjects.forSourceString("com.example.EmployeeSummary", """
+                                    package com.example;
+                                    import io.github.cyfko.projection.Projected;
+                                    import io.github.cyfko.projection.Projection;
+
+                                    @Projection(from = Employee.class)
+                                    public class EmployeeSummary {
+                                        private String name;
+                                        @Projected(from = "manager.name")
+                                        private String managerName;
+
+                                        public EmployeeSummary(String name, String managerName) {
+                                            this.name = name;
+                                            this.managerName = managerName;
+                                        }
+                                    }
+                                """);
+
+                JavaFileObject names = JavaFileObjects.forSourceString("com.example.EmployeeName", """
+                                    package com.example;
+                                    import io.github.cyfko.projection.Projection;
+
+                                    @Projection(from = Employee.class)
+                                    public class EmployeeName {
+                                        private String name;
+                                    }
+                                """);
+
+                Compilation compilation = Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .compile(entity, summary, names);
+
+                assertThat(compilation).succeeded();
+                String generatedCode = getGeneratedProjectionCode(compilation);
+                assertTrue(generatedCode.contains(
+                                "\"SELECT NEW com.example.EmployeeSummary(e.name, j1.name) FROM Staff e LEFT JOIN e.manager j1\""));
+                assertTrue(generatedCode.contains("\"SELECT e.name FROM Staff e\",\n                null,"));
+        }
+
+        @Test
+        void testProjectionsWithoutSingleValuedPathsSelectTheIdentifiers() throws IOException, ClassNotFoundException {
+                JavaFileObject entity = JavaFileObjects.forSourceString("com.example.Employee", """
+                                    package com.example;
+                                    import jakarta.persistence.*;
+                                    import java.util.List;
+
+                                    @Entity
+                                    public class Employee {
+                                        @Id
+                                        private Long id;
+                                        private String name;
+                                        @ManyToOne
+                                        private Employee manager;
+                                        @OneToMany(mappedBy = "manager")
+                                        private List<Employee> reports;
+                                    }
+                                """);
+
+                JavaFileObject empty = JavaFileObjects.forSourceString("com.example.EmptyDTO", """
+                                    package com.example;
+                                    import io.github.cyfko.projection.Projection;
+
+                                    @Projection(from = Employee.class)
+                                    public class EmptyDTO {
+                                    }
+                                """);
+
+                JavaFileObject reports = JavaFileObjects.forSourceString("com.example.ReportsDTO", """
+                                    package com.example;
+                                    import io.github.cyfko.projection.Projection;
+                                    import java.util.List;
+
+                                    @Projection(from = Employee.class)
+                                    public class ReportsDTO {
+                                        private List<EmptyDTO> reports;
+                                    }
+                                """);
+
+                Compilation compilation = Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .compile(entity, empty, reports);
+
+                assertThat(compilation).succeeded();
+                assertFalse(getGeneratedProjectionCode(compilation).contains("SELECT  FROM"));
+
+                CompilationClassLoader loader = new CompilationClassLoader(compilation);
+                ProjectionMetadataRegistryProvider provider = loader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+
+                ProjectionQuery emptyQuery = provider.getProjectionQueryRegistry()
+                                .get(loader.loadClass("com.example.EmptyDTO"));
+                assertEquals("SELECT e.id FROM Employee e", emptyQuery.tupleQuery());
+                assertEquals(List.of("id"), emptyQuery.selectedPaths());
+                assertFalse(emptyQuery.hasConstructorQuery());
+
+                ProjectionQuery reportsQuery = provider.getProjectionQueryRegistry()
+                                .get(loader.loadClass("com.example.ReportsDTO"));
+                assertEquals("SELECT e.id FROM Employee e", reportsQuery.tupleQuery());
+                assertEquals(List.of("id"), reportsQuery.selectedPaths());
+                assertEquals(List.of("reports"), reportsQuery.collectionPaths());
+                assertFalse(reportsQuery.hasConstructorQuery());
+        }
+
+        @Test
+        void testGeneratedPersistenceMetadataIsShared() {
+                Compilation compilation = compileUserDTO();
+
+                assertThat(compilation).succeeded();
+
+                PersistenceMetadataRegistryProvider provider = new CompilationClassLoader(compilation).newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                                PersistenceMetadataRegistryProvider.class);
+                Map<String, PersistenceMetadata> user = provider.getEntityMetadataRegistry().entrySet().stream()
+                                .filter(e -> e.getKey().getSimpleName().equals("User"))
+                                .map(Map.Entry::getValue)
+                                .findFirst()
+                                .orElseThrow();
+
+                assertSame(user.get("firstName"), user.get("lastName"));
+                assertEquals(PersistenceMetadata.scalar(String.class), user.get("firstName"));
+                assertTrue(user.get("orders").isEntityCollection());
+                assertTrue(user.get("orders").isEntityList());
+                assertFalse(user.get("orders").isEntitySet());
+                assertTrue(user.get("id").isId());
+                assertFalse(user.get("id").isCollection());
+        }
+
+        @Test
+        void testGeneratedPersistenceMetadataIsBuiltPerEntityOnLookup() throws ClassNotFoundException {
+                Compilation compilation = compileUserDTO();
+
+                assertThat(compilation).succeeded();
+
+                CompilationClassLoader loader = new CompilationClassLoader(compilation);
+                PersistenceMetadataRegistryProvider provider = loader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProviderImpl",
+                                PersistenceMetadataRegistryProvider.class);
+                Class<?> department = loader.loadClass("io.github.cyfko.example.Department");
+
+                Map<String, PersistenceMetadata> fields = provider.findEntityMetadata(department);
+
+                assertEquals(List.of("id", "name", "code"), List.copyOf(fields.keySet()));
+                assertEquals(List.of("id"), provider.findIdFields(department));
+                assertNull(provider.findEmbeddableMetadata(department));
+                assertNull(provider.findEntityMetadata(String.class));
+                assertFalse(loader.isLoaded("io.github.cyfko.example.User"));
+                assertFalse(loader.isLoaded("io.github.cyfko.example.Order"));
+
+                assertSame(fields, provider.getEntityMetadataRegistry().get(department));
+                assertTrue(loader.isLoaded("io.github.cyfko.example.User"));
+        }
+
+        @Test
+        void testEntityPathTableHonoursMaxDepthAndCycles() throws IOException {
+                JavaFileObject entity = JavaFileObjects.forSourceString("com.example.Employee", """
+                                    package com.example;
+                                    import jakarta.persistence.*;
+
+                                    @Entity
+                                    public class Employee {
+                                        @Id
+                                        private Long id;
+                                        private String name;
+                                        @ManyToOne
+                                        private Employee manager;
+                                    }
+                                """);
+
+                JavaFileObject dto = JavaFileObjects.forSourceString("com.example.EmployeeDTO", """
+                                    package com.example;
+                                    import io.github.cyfko.projection.Projected;
+                                    import io.github.cyfko.projection.Projection;
+
+                                    @Projection(from = Employee.class)
+                                    public class EmployeeDTO {
+                                        private String name;
+                                        @Projected(from = "manager")
+                                        private EmployeeDTO boss;
+                                    }
+                                """);
+
+                Compilation compilation = Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .compile(entity, dto);
+                assertThat(compilation).succeeded();
+
+                String generatedCode = getGeneratedProjectionCode(compilation);
+                assertTrue(generatedCode.contains("paths.put(\"boss\", \"manager\");"));
+                assertFalse(generatedCode.contains("\"boss.name\""), "cyclic projections must not be re-entered");
+
+                Compilation shallow = Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .withOptions("-Aprojection.metamodel.maxPathDepth=0")
+                                .compile(entity, dto);
+                assertThat(shallow).succeeded();
+                assertFalse(getGeneratedProjectionCode(shallow).contains("entityPaths.put("));
+        }
+
+        @Test
+        void testEntityPathTablesOfConnectedSchemaCompileQuickly() throws IOException, ClassNotFoundException {
+                int entityCount = 21;
+                List<JavaFileObject> sources = new ArrayList<>();
+                for (int i = 0; i < entityCount; i++) {
+                        int[] next = {(i + 1) % entityCount, (i + 2) % entityCount, (i + 3) % entityCount};
+                        sources.add(JavaFileObjects.forSourceString("com.example.graph.Node" + i, """
+                                            package com.example.graph;
+                                            import jakarta.persistence.*;
+
+                                            @Entity
+                                            public class Node%d {
+                                                @Id
+                                                private Long id;
+                                                private String name;
+                                                @ManyToOne
+                                                private Node%d first;
+                                                @ManyToOne
+                                                private Node%d second;
+                                                @ManyToOne
+                                                private Node%d third;
+                                            }
+                                        """.formatted(i, next[0], next[1], next[2])));
+                        sources.add(JavaFileObjects.forSourceString("com.example.graph.Node" + i + "DTO", """
+                                            package com.example.graph;
+                                            import io.github.cyfko.projection.Projection;
+
+                                            @Projection(from = Node%d.class)
+                                            public class Node%dDTO {
+                                                private String name;
+                                                private Node%dDTO first;
+                                                private Node%dDTO second;
+                                                private Node%dDTO third;
+                                            }
+                                        """.formatted(i, i, next[0], next[1], next[2])));
+                }
+                sources.add(JavaFileObjects.forSourceString("com.example.graph.OneFieldDTO", """
+                                    package com.example.graph;
+                                    import io.github.cyfko.projection.Projection;
+
+                                    @Projection(from = Node0.class)
+                                    public class OneFieldDTO {
+                                        private Node1 first;
+                                    }
+                                """));
+
+                Compilation compilation = assertTimeoutPreemptively(Duration.ofSeconds(60), () -> Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .compile(sources));
+                assertThat(compilation).succeeded();
+
+                String generatedCode = getGeneratedProjectionCode(compilation);
+                assertFalse(generatedCode.contains("Map.ofEntries("));
+                assertTrue(generatedCode.contains("paths.put(\"first.second.third\", \"first.second.third\");"));
+                assertFalse(generatedCode.contains("paths.put(\"first.first.first.name\""),
+                                "paths are bounded by maxPathDepth");
+
+                CompilationClassLoader loader = new CompilationClassLoader(compilation);
+                ProjectionMetadataRegistryProvider provider = loader.newInstance(
+                                "io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProviderImpl",
+                                ProjectionMetadataRegistryProvider.class);
+                assertEquals(Map.of("first", "first"), provider.getEntityPathRegistry()
+                                .get(loader.loadClass("com.example.graph.OneFieldDTO")),
+                                "implicit entity projections are not expanded");
+        }
+
         // ==================== Helper Methods ====================
 
+        /**
+         * Describes projection metadata by class name, so that registries loaded by different class loaders
+         * can be compared.
+         */
+        private static Map<String, String> describe(ProjectionMetadataRegistryProvider provider) {
+                Map<String, String> descriptions = new TreeMap<>();
+                provider.getProjectionMetadataRegistry().forEach((dtoClass, metadata) -> {
+                        StringBuilder description = new StringBuilder(metadata.entityClass().getName())
+                                        .append(Arrays.toString(metadata.directMappings()));
+                        for (ComputedField field : metadata.computedFields()) {
+                                description.append(field.dtoField())
+                                                .append(Arrays.toString(field.dependencies()))
+                                                .append(Arrays.toString(field.reducers()))
+                                                .append(field.methodReference());
+                        }
+                        description.append(Arrays.toString(metadata.computers()))
+                                        .append(metadata.requiredEntityFields())
+                                        .append(new TreeMap<>(provider.getEntityPathRegistry()
+                                                        .getOrDefault(dtoClass, Map.of())))
+                                        .append(provider.getProjectionQueryRegistry().get(dtoClass));
+                        descriptions.put(dtoClass.getName(), description.toString());
+                });
+                return descriptions;
+        }
+
+        /**
+         * Describes persistence metadata by class name, so that registries loaded by different class loaders
+         * can be compared.
+         */
+        private static Map<String, String> describe(PersistenceMetadataRegistryProvider provider) {
+                Map<String, String> descriptions = new TreeMap<>();
+                provider.getEntityMetadataRegistry().forEach((type, fields) -> descriptions.put(type.getName(),
+                                fields + " " + provider.getIdFieldsRegistry().get(type)));
+                provider.getEmbeddableMetadataRegistry().forEach((type, fields) -> descriptions.put(type.getName(),
+                                fields.toString()));
+                return descriptions;
+        }
+
+        private Compilation compileUserDTO(String... options) {
+                return Compiler.javac()
+                                .withProcessors(new MetamodelProcessor())
+                                .withOptions((Object[]) options)
+                                .compile(JavaFileObjects.forResource("testdata/User.java"),
+                                                JavaFileObjects.forResource("testdata/Address.java"),
+                                                JavaFileObjects.forResource("testdata/Department.java"),
+                                                JavaFileObjects.forResource("testdata/Order.java"),
+                                                JavaFileObjects.forResource("testdata/UserDTO.java"),
+                                                JavaFileObjects.forResource("testdata/OrderDTO.java"),
+                                                JavaFileObjects.forResource("testdata/TestComputationProvider.java"));
+        }
+
         private String getGeneratedProjectionCode(Compilation compilation) throws IOException {
                 return compilation
                                 .generatedSourceFile(
@@ -3,6 +3,7 @@ package io.github.cyfko.projection.metamodel;
 import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
 import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
 import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldIndex;
 import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
 import org.junit.jupiter.api.Test;
 import java.util.List;
@@ -42,6 +43,8 @@ class ProjectionMetadataTest {
         assertTrue(required.contains("firstName"));
         assertTrue(required.contains("lastName"));
         assertTrue(required.contains("birthDate"));
+        assertSame(required, metadata.getAllRequiredEntityFields());
+        assertThrows(UnsupportedOperationException.class, () -> required.add("other"));
     }
 
     @Test
@@ -130,4 +133,73 @@ class ProjectionMetadataTest {
         assertTrue(metadata.isDirectMapping("email",false));
         assertFalse(metadata.isDirectMapping("fullName",false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIgnoreCaseLookups() {
+        ProjectionMetadata metadata = new ProjectionMetadata(
+            Object.class,
+            new DirectMapping[]{
+                    new DirectMapping("userEmail", "email", String.class, Optional.empty())
+            },
+            new ComputedField[]{
+                    new ComputedField("fullName", new String[]{"firstName", "lastName"})
+            },
+            new ComputationProvider[]{}
+        );
+
+        assertEquals("email", metadata.getDirectMapping("USEREMAIL", true).orElseThrow().entityField());
+        assertEquals("fullName", metadata.getComputedField("FullName", true).orElseThrow().dtoField());
+        assertTrue(metadata.isDirectMapping("useremail", true));
+        assertTrue(metadata.isComputedField("FULLNAME", true));
+        assertFalse(metadata.isDirectMapping("USEREMAIL", false));
+        assertFalse(metadata.getDirectMapping("fullName", true).isPresent());
+    }
+
+    @Test
+    void testIgnoreCaseLookupKeepsFirstDeclaredField() {
+        ProjectionMetadata metadata = new ProjectionMetadata(
+            Object.class,
+            new DirectMapping[]{
+                    new DirectMapping("name", "firstName", String.class, Optional.empty()),
+                    new DirectMapping("Name", "lastName", String.class, Optional.empty())
+            },
+            new ComputedField[]{},
+            new ComputationProvider[]{}
+        );
+
+        assertEquals("firstName", metadata.getDirectMapping("NAME", true).orElseThrow().entityField());
+        assertEquals("lastName", metadata.getDirectMapping("Name", false).orElseThrow().entityField());
+    }
+
+    @Test
+    void testIntIndexedAccessors() {
+        ProjectionMetadata metadata = new ProjectionMetadata(
+            Object.class,
+            new DirectMapping[]{
+                    new DirectMapping("userEmail", "email", String.class, Optional.empty()),
+                    new DirectMapping("city", "address.city", String.class, Optional.empty())
+            },
+            new ComputedField[]{
+                    new ComputedField("fullName", new String[]{"firstName", "lastName"})
+            },
+            new ComputationProvider[]{}
+        );
+
+        assertEquals(3, metadata.fieldCount());
+        int city = metadata.fieldIdOf("city");
+        int fullName = metadata.fieldIdOf("fullName");
+        assertEquals(1, city);
+        assertEquals(2, fullName);
+        assertEquals(FieldIndex.NOT_FOUND, metadata.fieldIdOf("unknown"));
+
+        assertTrue(metadata.isDirectMapping(city));
+        assertFalse(metadata.isDirectMapping(fullName));
+        assertFalse(metadata.isDirectMapping(FieldIndex.NOT_FOUND));
+        assertEquals("address.city", metadata.directMappingAt(city).entityField());
+        assertSame(metadata.computedFields()[0], metadata.computedFieldAt(fullName));
+        assertEquals("userEmail", metadata.dtoFieldAt(0));
+        assertEquals("fullName", metadata.dtoFieldAt(fullName));
+        assertThrows(IndexOutOfBoundsException.class, () -> metadata.computedFieldAt(city));
+        assertThrows(IndexOutOfBoundsException.class, () -> metadata.dtoFieldAt(3));
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.FieldSelection;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Criteria plans computed by {@link ProjectionQueryPlan} for dynamic field selections.
+ */
+class ProjectionQueryPlanTest {
+
+    static final class OrderSummaryView {}
+
+    @BeforeEach
+    void setUp() {
+        ProjectionMetadata orderSummary = new ProjectionMetadata(
+                TestProjections.OrderEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("amount", "totalAmount", BigDecimal.class, Optional.empty()),
+                        new DirectMapping("userEmail", "user.email", String.class, Optional.empty()),
+                        new DirectMapping("userCity", "user.address.city", String.class, Optional.empty()),
+                        new DirectMapping("owner", "user", TestProjections.UserEntity.class, Optional.empty())
+                },
+                new ComputedField[]{},
+                new ComputationProvider[]{}
+        );
+        Map<Class<?>, ProjectionMetadata> registry = Map.of(
+                TestProjections.UserView.class, TestProjections.userView(),
+                TestProjections.AddressView.class, TestProjections.addressView(),
+                TestProjections.OrderView.class, TestProjections.orderView(),
+                OrderSummaryView.class, orderSummary
+        );
+        ProjectionMetadataRegistryProvider provider = () -> registry;
+        ProjectionRegistry.setProvider(provider);
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+        PersistenceRegistry.setProvider(null);
+    }
+
+    @Test
+    void selectsOnlyTheFieldsOfTheRequestedDtoFields() {
+        ProjectionQueryPlan plan = ProjectionQueryPlan.of(TestProjections.UserView.class,
+                List.of("fullName", "userEmail", "city"), false);
+
+        assertEquals(TestProjections.UserEntity.class, plan.entityClass());
+        assertEquals(List.of("email", "address.city", "firstName", "lastName"), plan.selectedPaths());
+        assertTrue(plan.joinAliases().isEmpty());
+        assertTrue(plan.collectionPaths().isEmpty());
+        assertEquals(List.of("firstName", "lastName"), plan.entityPathsOf("fullName"));
+        assertEquals(List.of("s2", "s3"), plan.aliasesOf("fullName"));
+        assertEquals("s1", plan.aliasOf("address.city"));
+
+        CriteriaRecorder recorder = new CriteriaRecorder();
+        plan.applyTo(recorder.tupleQuery());
+        assertEquals(List.of(
+                "FROM UserEntity e",
+                "SELECT e.email s0, e.address.city s1, e.firstName s2, e.lastName s3"
+        ), recorder.lines());
+    }
+
+    @Test
+    void expandsNestedProjectionsAndSetsCollectionsAside() {
+        ProjectionQueryPlan plan = ProjectionQueryPlan.of(TestProjections.UserView.class,
+                List.of("address", "orders"), false);
+
+        assertEquals(List.of("id", "address.city", "address.streetName"), plan.selectedPaths());
+        assertEquals(List.of("orders"), plan.collectionPaths());
+        assertEquals(List.of("address.city", "address.streetName"), plan.entityPathsOf("address"));
+        assertEquals(List.of("orders"), plan.entityPathsOf("orders"));
+        assertEquals(List.of(), plan.aliasesOf("orders"));
+    }
+
+    @Test
+    void joinsEachToOneAssociationOnce() {
+        ProjectionQueryPlan plan = ProjectionQueryPlan.of(OrderSummaryView.class,
+                List.of("amount", "userEmail", "userCity", "owner"), false);
+
+        assertEquals(Map.of("user", "j1"), plan.joinAliases());
+        assertEquals("j1", plan.aliasOf("user"));
+
+        CriteriaRecorder recorder = new CriteriaRecorder();
+        plan.applyTo(recorder.tupleQuery());
+        assertEquals(List.of(
+                "FROM OrderEntity e",
+                "LEFT JOIN e.user j1",
+                "SELECT e.totalAmount s0, j1.email s1, j1.address.city s2, j1"
+        ), recorder.lines());
+    }
+
+    @Test
+    void reusesThePlanOfTheSameFieldSet() {
+        ProjectionQueryPlan plan = ProjectionQueryPlan.of(TestProjections.UserView.class,
+                List.of("city", "userEmail"), false);
+        long hits = ProjectionQueryPlan.getPlanCacheStats().hits();
+
+        assertSame(plan, ProjectionQueryPlan.of(TestProjections.UserView.class,
+                List.of("USEREMAIL", "City"), true));
+        ProjectionMetadata metadata = ProjectionRegistry.getMetadataFor(TestProjections.UserView.class);
+        assertSame(plan, ProjectionQueryPlan.of(TestProjections.UserView.class,
+                FieldSelection.of(metadata, List.of("userEmail", "city", "city"), false)));
+        assertEquals(hits + 2, ProjectionQueryPlan.getPlanCacheStats().hits());
+
+        assertNotSame(plan, ProjectionQueryPlan.of(TestProjections.UserView.class, List.of("city"), false));
+    }
+
+    @Test
+    void replacingAProviderDiscardsCachedPlans() {
+        ProjectionQueryPlan plan = ProjectionQueryPlan.of(OrderSummaryView.class, List.of("userEmail"), false);
+
+        PersistenceRegistry.setProvider(TestProjections.persistenceProvider());
+
+        assertNotSame(plan, ProjectionQueryPlan.of(OrderSummaryView.class, List.of("userEmail"), false));
+    }
+
+    @Test
+    void rejectsUnknownProjectionsAndFields() {
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionQueryPlan.of(String.class, List.of("value"), false));
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionQueryPlan.of(TestProjections.UserView.class, List.of("unknown"), false));
+    }
+
+    @Test
+    void rejectsEmptySelectionsWithoutCachingThem() {
+        long size = ProjectionQueryPlan.getPlanCacheStats().size();
+
+        assertThrows(IllegalArgumentException.class, () -> ProjectionQueryPlan.of(OrderSummaryView.class,
+                FieldSelection.none(ProjectionRegistry.getMetadataFor(OrderSummaryView.class))));
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionQueryPlan.of(OrderSummaryView.class, List.of(), false));
+        assertEquals(size, ProjectionQueryPlan.getPlanCacheStats().size());
+    }
+}
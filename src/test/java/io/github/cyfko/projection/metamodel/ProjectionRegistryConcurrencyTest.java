@@ -0,0 +1,84 @@
+package io.github.cyfko.projection.metamodel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that path translation stays consistent when many threads hit the cache at once.
+ */
+class ProjectionRegistryConcurrencyTest {
+
+    private static final Map<String, String> EXPECTED = Map.of(
+            "userEmail", "email",
+            "city", "address.city",
+            "address.street", "address.streetName",
+            "address.zone", "address.city,address.streetName",
+            "orders.amount", "orders.totalAmount",
+            "fullName", "firstName,lastName"
+    );
+
+    @BeforeEach
+    void setUp() {
+        ProjectionRegistry.setProvider(TestProjections.provider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+    }
+
+    @Test
+    void concurrentTranslationsAreConsistent() throws Exception {
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        for (Map.Entry<String, String> e : EXPECTED.entrySet()) {
+                            assertEquals(e.getValue(),
+                                    ProjectionRegistry.toEntityPath(e.getKey(), TestProjections.UserView.class, false));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cachedTranslationIsReturnedOnSubsequentCalls() {
+        String first = ProjectionRegistry.toEntityPath("address.street", TestProjections.UserView.class, false);
+        String second = ProjectionRegistry.toEntityPath("address.street", TestProjections.UserView.class, false);
+
+        assertEquals("address.streetName", first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void invalidPathIsRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionRegistry.toEntityPath("unknown", TestProjections.UserView.class, false));
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.cyfko.projection.metamodel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DTO to entity path translation performed by {@link ProjectionRegistry#toEntityPath}.
+ */
+class ProjectionRegistryPathTest {
+
+    @BeforeEach
+    void setUp() {
+        ProjectionRegistry.setProvider(TestProjections.provider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ProjectionRegistry.setProvider(null);
+    }
+
+    @Test
+    void resolvesAnyCasingWhenIgnoringCase() {
+        assertEquals("address.streetName",
+                ProjectionRegistry.toEntityPath("address.street", TestProjections.UserView.class, true));
+        assertEquals("address.streetName",
+                ProjectionRegistry.toEntityPath("ADDRESS.Street", TestProjections.UserView.class, true));
+        assertEquals("orders.totalAmount",
+                ProjectionRegistry.toEntityPath("Orders.AMOUNT", TestProjections.UserView.class, true));
+    }
+
+    @Test
+    void caseInsensitiveResolutionDoesNotLeakIntoExactLookups() {
+        assertEquals("email", ProjectionRegistry.toEntityPath("USEREMAIL", TestProjections.UserView.class, true));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                ProjectionRegistry.toEntityPath("USEREMAIL", TestProjections.UserView.class, false));
+    }
+
+    @Test
+    void resolvesNestedComputedFieldAgainstParentPrefix() {
+        assertEquals("address.city,address.streetName",
+                ProjectionRegistry.toEntityPath("address.zone", TestProjections.UserView.class, false));
+        assertEquals("firstName,lastName",
+                ProjectionRegistry.toEntityPath("fullname", TestProjections.UserView.class, true));
+    }
+
+    @Test
+    void everyCasingOfAPathSharesOneCacheEntry() {
+        long sizeBefore = ProjectionRegistry.getPathCacheStats().size();
+        long hitsBefore = ProjectionRegistry.getPathCacheStats().hits();
+
+        for (String casing : new String[]{"city", "CITY", "City", "cItY"}) {
+            assertEquals("address.city",
+                    ProjectionRegistry.toEntityPath(casing, TestProjections.UserView.class, true));
+        }
+
+        CacheStats stats = ProjectionRegistry.getPathCacheStats();
+        assertEquals(sizeBefore + 1, stats.size());
+        assertEquals(hitsBefore + 3, stats.hits());
+    }
+
+    @Test
+    void reportsFailingSegmentWithoutThrowing() {
+        PathResolution resolution =
+                ProjectionRegistry.tryToEntityPath("address.town", TestProjections.UserView.class, false);
+
+        assertFalse(resolution.isResolved());
+        assertNull(resolution.entityPath());
+        assertEquals("town", resolution.failingSegment());
+        assertTrue(resolution.reason().contains(TestProjections.AddressView.class.getName()));
+
+        PathResolution resolved =
+                ProjectionRegistry.tryToEntityPath("orders.amount", TestProjections.UserView.class, false);
+        assertTrue(resolved.isResolved());
+        assertEquals("orders.totalAmount", resolved.toOptional().orElseThrow());
+    }
+
+    @Test
+    void cachesUnresolvedPaths() {
+        PathResolution first = ProjectionRegistry.tryToEntityPath("nope", TestProjections.UserView.class, true);
+        long hitsBefore = ProjectionRegistry.getPathCacheStats().hits();
+
+        PathResolution second = ProjectionRegistry.tryToEntityPath("NOPE", TestProjections.UserView.class, true);
+
+        assertSame(first, second);
+        assertEquals(hitsBefore + 1, ProjectionRegistry.getPathCacheStats().hits());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                ProjectionRegistry.toEntityPath("Nope", TestProjections.UserView.class, true));
+        assertTrue(e.getMessage().startsWith("\"Nope\" does not resolve to a valid projection field path"));
+    }
+
+    @Test
+    void resolvesSelectionInOrderWithDeduplicatedEntityFields() {
+        BatchPathResolution batch = ProjectionRegistry.tryToEntityPaths(
+                List.of("orders.id", "address.zone", "city", "orders.amount", "fullName", "address.city"),
+                TestProjections.UserView.class, false);
+
+        assertTrue(batch.isResolved());
+        assertEquals(List.of("orders.id", "address.city,address.streetName", "address.city",
+                "orders.totalAmount", "firstName,lastName", "address.city"), batch.entityPaths());
+        assertEquals(List.of("orders.id", "address.city", "address.streetName", "orders.totalAmount",
+                "firstName", "lastName"), List.copyOf(batch.entityFields()));
+    }
+
+    @Test
+    void batchReportsUnresolvedPathsAndAgreesWithSingleResolution() {
+        BatchPathResolution batch = ProjectionRegistry.tryToEntityPaths(
+                List.of("ORDERS.Amount", "orders.total", "userEmail"), TestProjections.UserView.class, true);
+
+        assertFalse(batch.isResolved());
+        assertEquals("total", batch.resolutions().get(1).failingSegment());
+        assertEquals(List.of("orders.totalAmount", "email"), List.copyOf(batch.entityFields()));
+        assertThrows(IllegalArgumentException.class, batch::entityPaths);
+
+        // batch results are cached like single resolutions
+        assertSame(batch.resolutions().get(0),
+                ProjectionRegistry.tryToEntityPath("orders.amount", TestProjections.UserView.class, true));
+    }
+
+    @Test
+    void replacingProviderDropsResolvedMetadata() {
+        assertTrue(ProjectionRegistry.hasProjection(TestProjections.OrderView.class));
+        assertSame(ProjectionRegistry.getMetadataFor(TestProjections.OrderView.class),
+                ProjectionRegistry.getMetadataFor(TestProjections.OrderView.class));
+
+        ProjectionRegistry.setProvider(() -> Map.of(TestProjections.UserView.class, TestProjections.userView()));
+
+        assertFalse(ProjectionRegistry.hasProjection(TestProjections.OrderView.class));
+        assertTrue(ProjectionRegistry.hasProjection(TestProjections.UserView.class));
+    }
+}
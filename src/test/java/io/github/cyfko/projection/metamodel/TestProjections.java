@@ -0,0 +1,126 @@
+package io.github.cyfko.projection.metamodel;
+
+import io.github.cyfko.projection.metamodel.model.CollectionKind;
+import io.github.cyfko.projection.metamodel.model.CollectionMetadata;
+import io.github.cyfko.projection.metamodel.model.CollectionType;
+import io.github.cyfko.projection.metamodel.model.PersistenceMetadata;
+import io.github.cyfko.projection.metamodel.model.projection.ComputationProvider;
+import io.github.cyfko.projection.metamodel.model.projection.ComputedField;
+import io.github.cyfko.projection.metamodel.model.projection.DirectMapping;
+import io.github.cyfko.projection.metamodel.model.projection.ProjectionMetadata;
+import io.github.cyfko.projection.metamodel.providers.PersistenceMetadataRegistryProvider;
+import io.github.cyfko.projection.metamodel.providers.ProjectionMetadataRegistryProvider;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Hand-written projection and persistence registries used by tests exercising {@link ProjectionRegistry}
+ * and {@link PersistenceRegistry} at runtime, without going through the annotation processor.
+ * <p>
+ * It mirrors the shape of the {@code testdata} sources: a user view with a renamed field, an embedded
+ * address projection, a collection of orders and computed fields.
+ * </p>
+ */
+final class TestProjections {
+
+    static final class UserEntity {}
+    static final class OrderEntity {}
+    static final class AddressEmbeddable {}
+
+    static final class UserView {}
+    static final class AddressView {}
+    static final class OrderView {}
+
+    private TestProjections() {
+    }
+
+    static ProjectionMetadata userView() {
+        return new ProjectionMetadata(
+                UserEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("userEmail", "email", String.class, Optional.empty()),
+                        new DirectMapping("city", "address.city", String.class, Optional.empty()),
+                        new DirectMapping("address", "address", AddressView.class, Optional.empty()),
+                        new DirectMapping("orders", "orders", OrderView.class,
+                                Optional.of(DirectMapping.CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST)))
+                },
+                new ComputedField[]{
+                        new ComputedField("fullName", new String[]{"firstName", "lastName"})
+                },
+                new ComputationProvider[]{}
+        );
+    }
+
+    static ProjectionMetadata addressView() {
+        return new ProjectionMetadata(
+                AddressEmbeddable.class,
+                new DirectMapping[]{
+                        new DirectMapping("city", "city", String.class, Optional.empty()),
+                        new DirectMapping("street", "streetName", String.class, Optional.empty())
+                },
+                new ComputedField[]{
+                        new ComputedField("zone", new String[]{"city", "streetName"})
+                },
+                new ComputationProvider[]{}
+        );
+    }
+
+    static ProjectionMetadata orderView() {
+        return new ProjectionMetadata(
+                OrderEntity.class,
+                new DirectMapping[]{
+                        new DirectMapping("id", "id", Long.class, Optional.empty()),
+                        new DirectMapping("amount", "totalAmount", BigDecimal.class, Optional.empty())
+                },
+                new ComputedField[]{},
+                new ComputationProvider[]{}
+        );
+    }
+
+    static ProjectionMetadataRegistryProvider provider() {
+        Map<Class<?>, ProjectionMetadata> registry = Map.of(
+                UserView.class, userView(),
+                AddressView.class, addressView(),
+                OrderView.class, orderView()
+        );
+        return () -> registry;
+    }
+
+    static PersistenceMetadataRegistryProvider persistenceProvider() {
+        Map<String, PersistenceMetadata> user = new LinkedHashMap<>();
+        user.put("id", PersistenceMetadata.id(Long.class));
+        user.put("email", PersistenceMetadata.scalar(String.class));
+        user.put("firstName", PersistenceMetadata.scalar(String.class));
+        user.put("lastName", PersistenceMetadata.scalar(String.class));
+        user.put("address", PersistenceMetadata.scalar(AddressEmbeddable.class));
+        user.put("orders", PersistenceMetadata.collection(
+                CollectionMetadata.of(CollectionKind.ENTITY, CollectionType.LIST).withMappedBy("user"), OrderEntity.class));
+
+        Map<String, PersistenceMetadata> order = new LinkedHashMap<>();
+        order.put("id", PersistenceMetadata.id(Long.class));
+        order.put("totalAmount", PersistenceMetadata.scalar(BigDecimal.class));
+        order.put("user", PersistenceMetadata.scalar(UserEntity.class));
+
+        Map<String, PersistenceMetadata> address = new LinkedHashMap<>();
+        address.put("city", PersistenceMetadata.scalar(String.class));
+        address.put("streetName", PersistenceMetadata.scalar(String.class));
+
+        Map<Class<?>, Map<String, PersistenceMetadata>> entities = Map.of(UserEntity.class, user, OrderEntity.class, order);
+        Map<Class<?>, Map<String, PersistenceMetadata>> embeddables = Map.of(AddressEmbeddable.class, address);
+
+        return new PersistenceMetadataRegistryProvider() {
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEntityMetadataRegistry() {
+                return entities;
+            }
+
+            @Override
+            public Map<Class<?>, Map<String, PersistenceMetadata>> getEmbeddableMetadataRegistry() {
+                return embeddables;
+            }
+        };
+    }
+}